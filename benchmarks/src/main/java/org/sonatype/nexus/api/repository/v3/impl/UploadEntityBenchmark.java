@@ -0,0 +1,116 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.DefaultAsset;
+import org.sonatype.nexus.api.repository.v3.DefaultComponent;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.impl.client.HttpClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds the multipart entity of a component upload and writes it to a sink which discards the bytes, measuring the
+ * client side cost of an upload without the network.
+ *
+ * @since 1.0.14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UploadEntityBenchmark
+{
+  private static final int POM_SIZE = 4 * 1024;
+
+  @Param({"1024", "1048576", "33554432"})
+  public int jarSize;
+
+  private Path directory;
+
+  private Path jar;
+
+  private Path pom;
+
+  private DefaultNexusRepositoryV3Client client;
+
+  private DefaultComponent component;
+
+  @Setup
+  public void setup() throws IOException, URISyntaxException {
+    directory = Files.createTempDirectory("upload-entity-benchmark");
+    jar = write(directory.resolve("artifact-1.0.jar"), jarSize);
+    pom = write(directory.resolve("artifact-1.0.pom"), POM_SIZE);
+
+    client = new DefaultNexusRepositoryV3Client(new ServerConfig(URI.create("http://localhost:8081/")),
+        HttpClients.createMinimal());
+
+    component = new DefaultComponent("maven2");
+    component.addAttribute("groupId", "org.example");
+    component.addAttribute("artifactId", "artifact");
+    component.addAttribute("version", "1.0");
+    component.addAsset(asset(jar, "jar"));
+    component.addAsset(asset(pom, "pom"));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    client.close();
+    Files.delete(jar);
+    Files.delete(pom);
+    Files.delete(directory);
+  }
+
+  @Benchmark
+  public long buildAndWrite() throws IOException, RepositoryManagerException {
+    HttpEntity entity = client.buildUploadEntity(component, "tag");
+    entity.writeTo(OutputStream.nullOutputStream());
+    return entity.getContentLength();
+  }
+
+  private static DefaultAsset asset(final Path file, final String extension) {
+    DefaultAsset asset = new DefaultAsset(file.getFileName().toString(), file.toFile());
+    asset.addAttribute("extension", extension);
+    return asset;
+  }
+
+  private static Path write(final Path file, final int size) throws IOException {
+    byte[] content = new byte[size];
+    new Random(size).nextBytes(content);
+    return Files.write(file, content);
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.http.entity.ContentType.APPLICATION_JSON;
+import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHandlerFactory.newMoveHandler;
+
+/**
+ * Parses the response of a staging move, collecting the moved components into a list and streaming them to a
+ * consumer.
+ *
+ * @since 1.0.14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ComponentInfoParsingBenchmark
+{
+  @Param({"10", "1000", "100000"})
+  public int components;
+
+  private byte[] body;
+
+  @Setup
+  public void setup() {
+    StringBuilder json = new StringBuilder("{\"status\":200,\"message\":\"Move Successful\",\"data\":{")
+        .append("\"destination\":\"maven-releases\",\"components moved\":[");
+    for (int i = 0; i < components; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"name\":\"artifact-").append(i).append("\",\"group\":\"org.example\",\"version\":\"1.0.")
+          .append(i).append("\",\"assets\":[{\"path\":\"org/example/artifact-").append(i).append("\"}]}");
+    }
+    body = json.append("]}}").toString().getBytes(UTF_8);
+  }
+
+  @Benchmark
+  public List<ComponentInfo> collect() throws IOException {
+    return newMoveHandler().handleResponse(response());
+  }
+
+  @Benchmark
+  public void stream(final Blackhole blackhole) throws IOException {
+    newMoveHandler(blackhole::consume).handleResponse(response());
+  }
+
+  private HttpResponse response() {
+    BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+    response.setEntity(new ByteArrayEntity(body, APPLICATION_JSON));
+    return response;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.nexus.api.repository.v3.DefaultComponent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Groups the artifacts read from a staging index into the components uploaded by the upload goal, four artifacts
+ * (jar, pom, sources and javadoc) per component.
+ *
+ * @since 1.0.14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GroupArtifactsBenchmark
+{
+  @Param({"10", "10000", "100000"})
+  public int artifacts;
+
+  private StagingUploadMojo mojo;
+
+  private List<ArtifactInfo> index;
+
+  @Setup
+  public void setup() {
+    mojo = new StagingUploadMojo();
+    index = new ArrayList<>(artifacts);
+    for (int i = 0; i < artifacts; i++) {
+      index.add(StagingIndexBenchmark.artifact(i));
+    }
+  }
+
+  @Benchmark
+  public Map<DefaultComponent, List<ArtifactInfo>> groupArtifactsByComponent() {
+    return mojo.groupArtifactsByComponent(index);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Reads a staging index of a given size and appends one artifact to it, the latter holding the index lock for the
+ * duration of the append just like a module of a parallel build does.
+ *
+ * @since 1.0.14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StagingIndexBenchmark
+{
+  @Param({"10", "10000", "100000"})
+  public int entries;
+
+  private Path directory;
+
+  private StagingIndex template;
+
+  private StagingIndex index;
+
+  private ArtifactInfo artifact;
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("staging-index-benchmark");
+    template = new StagingIndex(directory.resolve("template.index").toFile());
+    for (int i = 0; i < entries; i++) {
+      template.append(artifact(i));
+    }
+    index = new StagingIndex(directory.resolve(".index").toFile());
+    artifact = artifact(entries);
+  }
+
+  /**
+   * Appends keep growing the index, so every iteration starts again from an index of the requested size.
+   */
+  @Setup(Level.Iteration)
+  public void resetIndex() throws IOException {
+    Files.copy(template.getFile().toPath(), index.getFile().toPath(), REPLACE_EXISTING);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    // the index leaves its lock file next to it
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  public List<ArtifactInfo> readAll() throws IOException {
+    return template.readAll();
+  }
+
+  @Benchmark
+  public void forEach(final Blackhole blackhole) throws IOException {
+    template.forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void append() throws IOException {
+    index.append(artifact);
+  }
+
+  static ArtifactInfo artifact(final int i) {
+    ArtifactInfo artifact = new ArtifactInfo();
+    artifact.setGroup("org.example");
+    artifact.setArtifactId("artifact-" + (i / 4));
+    artifact.setVersion("1.0");
+    artifact.setTag("benchmark");
+    artifact.setPackaging("jar");
+    switch (i % 4) {
+      case 0:
+        artifact.setExtension("jar");
+        break;
+      case 1:
+        artifact.setExtension("pom");
+        break;
+      default:
+        artifact.setExtension("jar");
+        artifact.setClassifier(i % 4 == 2 ? "sources" : "javadoc");
+        break;
+    }
+    return artifact;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.nexus.api.common.Authentication;
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.repository.v3.DefaultAsset;
+import org.sonatype.nexus.api.repository.v3.DefaultComponent;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.testing.FakeNexusServer;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.sonatype.nexus.maven.staging.UploadExecutor.Mode.AUTO;
+
+/**
+ * Uploads a batch of components through the pooled client to a {@link FakeNexusServer} on the loopback interface,
+ * which adds a fixed latency to every request, with a varying number of upload threads.
+ *
+ * @since 1.0.14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class UploadThroughputBenchmark
+{
+  private static final String REPOSITORY = "maven-staging";
+
+  private static final String TAG = "benchmark";
+
+  private static final int COMPONENTS = 32;
+
+  @Param({"1", "4", "16"})
+  public int threads;
+
+  @Param({"65536", "4194304"})
+  public int jarSize;
+
+  @Param({"10"})
+  public long serverLatencyMillis;
+
+  private Path directory;
+
+  private FakeNexusServer server;
+
+  private RepositoryManagerV3Client client;
+
+  private final List<DefaultComponent> components = new ArrayList<>();
+
+  @Setup
+  public void setup() throws IOException, URISyntaxException {
+    server = FakeNexusServer.start().withTag(TAG).withLatency(serverLatencyMillis);
+    client = new Nxrm3ClientFactory().build(new ServerConfig(server.getUri(), new Authentication("admin", "pass")),
+        new ClientSettings().withMaxConnections(threads, threads));
+
+    directory = Files.createTempDirectory("upload-throughput-benchmark");
+    byte[] content = new byte[jarSize];
+    new Random(jarSize).nextBytes(content);
+    for (int i = 0; i < COMPONENTS; i++) {
+      Path jar = Files.write(directory.resolve("artifact-" + i + "-1.0.jar"), content);
+      DefaultComponent component = new DefaultComponent("maven2");
+      component.addAttribute("groupId", "org.example");
+      component.addAttribute("artifactId", "artifact-" + i);
+      component.addAttribute("version", "1.0");
+      DefaultAsset asset = new DefaultAsset(jar.getFileName().toString(), jar.toFile());
+      asset.addAttribute("extension", "jar");
+      component.addAsset(asset);
+      components.add(component);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    server.close();
+    for (int i = 0; i < COMPONENTS; i++) {
+      Files.delete(directory.resolve("artifact-" + i + "-1.0.jar"));
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Uploads {@value #COMPONENTS} components.
+   */
+  @Benchmark
+  public void uploadComponents() throws MojoExecutionException {
+    Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+    for (DefaultComponent component : components) {
+      uploads.put(component.getAttributes().get("artifactId"), () -> client.upload(REPOSITORY, component, TAG));
+    }
+    new ConcurrentUploader(threads, true, AUTO, new SystemStreamLog()).upload(uploads);
+  }
+}
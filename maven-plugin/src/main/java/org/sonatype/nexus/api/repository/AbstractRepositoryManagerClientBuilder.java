@@ -12,15 +12,33 @@
  */
 package org.sonatype.nexus.api.repository;
 
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.util.concurrent.TimeUnit;
+
 import org.sonatype.nexus.api.common.ProxyConfig;
 import org.sonatype.nexus.api.common.ServerConfig;
 
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.HttpClient;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.sonatype.nexus.api.common.ArgumentUtils.checkArgument;
 
 /**
  * Base class for constructing a builder that will create a client for interacting with Nexus Repository Manager
@@ -30,6 +48,18 @@ import org.apache.http.impl.client.HttpClients;
  */
 public abstract class AbstractRepositoryManagerClientBuilder<T extends AbstractRepositoryManagerClientBuilder<T>>
 {
+  public static final String DEFAULT_USER_AGENT = "nxrm3-maven-plugin-client";
+
+  public static final int DEFAULT_MAX_CONNECTIONS = 20;
+
+  public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+  public static final long DEFAULT_KEEP_ALIVE_MILLIS = SECONDS.toMillis(30);
+
+  public static final long DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS = SECONDS.toMillis(2);
+
+  public static final long DEFAULT_IDLE_CONNECTION_TIMEOUT_MILLIS = SECONDS.toMillis(60);
+
   protected ServerConfig serverConfig;
 
   protected ProxyConfig proxyConfig;
@@ -38,6 +68,16 @@ public abstract class AbstractRepositoryManagerClientBuilder<T extends AbstractR
 
   protected String userAgent;
 
+  protected int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+  protected int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+  protected long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+
+  protected long validateAfterInactivityMillis = DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
+  protected long idleConnectionTimeoutMillis = DEFAULT_IDLE_CONNECTION_TIMEOUT_MILLIS;
+
   protected abstract T getThis();
 
   /**
@@ -75,9 +115,63 @@ public abstract class AbstractRepositoryManagerClientBuilder<T extends AbstractR
     return getThis();
   }
 
+  /**
+   * Sizes the connection pool of the default {@link HttpClient}. Ignored when an {@link HttpClient} is provided.
+   *
+   * @param maxConnections the maximum number of pooled connections across all routes.
+   * @param maxConnectionsPerRoute the maximum number of pooled connections to a single host.
+   * @return the builder.
+   */
+  public T withMaxConnections(final int maxConnections, final int maxConnectionsPerRoute) {
+    this.maxConnections = checkArgument(maxConnections, maxConnections > 0,
+        "Maximum connections must be greater than zero");
+    this.maxConnectionsPerRoute = checkArgument(maxConnectionsPerRoute,
+        maxConnectionsPerRoute > 0 && maxConnectionsPerRoute <= maxConnections,
+        "Maximum connections per route must be greater than zero and not exceed maximum connections");
+    return getThis();
+  }
+
+  /**
+   * @param duration how long an idle connection is kept alive for reuse. A shorter keep-alive sent by the server takes
+   *          precedence.
+   * @param unit the unit of the duration.
+   * @return the builder.
+   */
+  public T withKeepAlive(final long duration, final TimeUnit unit) {
+    this.keepAliveMillis = checkArgument(requireNonNull(unit).toMillis(duration), duration > 0,
+        "Keep-alive must be greater than zero");
+    return getThis();
+  }
+
+  /**
+   * @param duration how long a pooled connection may be inactive before it is validated prior to reuse.
+   * @param unit the unit of the duration.
+   * @return the builder.
+   */
+  public T withValidateAfterInactivity(final long duration, final TimeUnit unit) {
+    this.validateAfterInactivityMillis = checkArgument(requireNonNull(unit).toMillis(duration), duration >= 0,
+        "Validate after inactivity must not be negative");
+    return getThis();
+  }
+
+  /**
+   * @param duration how long a pooled connection may be idle before a background thread closes it.
+   * @param unit the unit of the duration.
+   * @return the builder.
+   */
+  public T withIdleConnectionTimeout(final long duration, final TimeUnit unit) {
+    this.idleConnectionTimeoutMillis = checkArgument(requireNonNull(unit).toMillis(duration), duration > 0,
+        "Idle connection timeout must be greater than zero");
+    return getThis();
+  }
+
   protected HttpClient buildHttpClient(final ServerConfig serverConfig, final ProxyConfig proxyConfig) {
     HttpClientBuilder httpClientBuilder = HttpClients.custom();
-    httpClientBuilder.setUserAgent(userAgent != null ? userAgent : "nxrm3-maven-plugin-client");
+    httpClientBuilder.setUserAgent(userAgent != null ? userAgent : DEFAULT_USER_AGENT);
+    httpClientBuilder.setConnectionManager(buildConnectionManager());
+    httpClientBuilder.setKeepAliveStrategy(buildKeepAliveStrategy());
+    httpClientBuilder.evictExpiredConnections();
+    httpClientBuilder.evictIdleConnections(idleConnectionTimeoutMillis, MILLISECONDS);
 
     BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
 
@@ -96,6 +190,52 @@ public abstract class AbstractRepositoryManagerClientBuilder<T extends AbstractR
     return httpClientBuilder.build();
   }
 
+  /**
+   * Builds the non-blocking JDK {@link java.net.http.HttpClient} used by asynchronous clients. Server credentials are
+   * sent preemptively by the client itself; proxy credentials are supplied through an {@link Authenticator}.
+   *
+   * @since 1.0.14
+   */
+  protected java.net.http.HttpClient buildAsyncHttpClient(final ProxyConfig proxyConfig) {
+    java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder();
+    if (proxyConfig != null) {
+      builder.proxy(ProxySelector.of(new InetSocketAddress(proxyConfig.getHost(), proxyConfig.getPort())));
+      if (proxyConfig.getAuthentication() != null) {
+        PasswordAuthentication credentials = new PasswordAuthentication(
+            proxyConfig.getAuthentication().getUsername(), proxyConfig.getAuthentication().getPassword());
+        builder.authenticator(new Authenticator()
+        {
+          @Override
+          protected PasswordAuthentication getPasswordAuthentication() {
+            return getRequestorType() == RequestorType.PROXY ? credentials : null;
+          }
+        });
+      }
+    }
+    return builder.build();
+  }
+
+  private PoolingHttpClientConnectionManager buildConnectionManager() {
+    // an explicit connection manager bypasses useSystemProperties(), so use the system socket factories directly
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+        RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+            .build());
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+    connectionManager.setValidateAfterInactivity((int) Math.min(validateAfterInactivityMillis, Integer.MAX_VALUE));
+    return connectionManager;
+  }
+
+  private ConnectionKeepAliveStrategy buildKeepAliveStrategy() {
+    long maxKeepAlive = keepAliveMillis;
+    return (response, context) -> {
+      long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      return serverKeepAlive > 0 ? Math.min(serverKeepAlive, maxKeepAlive) : maxKeepAlive;
+    };
+  }
+
   private void addCredentialsToProviderWithConfig(
       final BasicCredentialsProvider credentialsProvider,
       final ServerConfig config)
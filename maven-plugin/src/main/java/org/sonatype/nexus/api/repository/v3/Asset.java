@@ -12,6 +12,7 @@
  */
 package org.sonatype.nexus.api.repository.v3;
 
+import java.io.File;
 import java.io.InputStream;
 import java.util.Map;
 
@@ -44,4 +45,22 @@ public interface Asset
    * @return An {@link InputStream} for the asset payload
    */
   InputStream getData();
+
+  /**
+   * @return The file holding the asset payload, or {@code null} if the payload is only available as an
+   *         {@link InputStream}. A payload read from a file can be sent again when an upload is retried.
+   * @since 1.0.14
+   */
+  default File getFile() {
+    return null;
+  }
+
+  /**
+   * @return The source opening the asset payload on demand, or {@code null} if the payload is only available from
+   *         {@link #getData()} or {@link #getFile()}
+   * @since 1.0.14
+   */
+  default AssetSource getSource() {
+    return null;
+  }
 }
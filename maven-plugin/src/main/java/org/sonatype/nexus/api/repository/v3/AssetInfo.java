@@ -0,0 +1,73 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Basic information regarding an Asset stored in NXRM3, as returned by the asset search
+ *
+ * @since 1.0.14
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AssetInfo
+{
+  private String path;
+
+  private String repository;
+
+  private Map<String, String> checksum = new HashMap<>();
+
+  public AssetInfo() {
+  }
+
+  public AssetInfo(final String path, final String repository, final Map<String, String> checksum) {
+    this.path = path;
+    this.repository = repository;
+    this.checksum = checksum;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(final String path) {
+    this.path = path;
+  }
+
+  public String getRepository() {
+    return repository;
+  }
+
+  public void setRepository(final String repository) {
+    this.repository = repository;
+  }
+
+  public Map<String, String> getChecksum() {
+    return checksum;
+  }
+
+  public void setChecksum(final Map<String, String> checksum) {
+    this.checksum = checksum;
+  }
+
+  public Optional<String> getSha1() {
+    return ofNullable(checksum).map(c -> c.get("sha1"));
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Opens the payload of an {@link Asset} on demand. A client opens the payload only while the asset's part of an upload
+ * request is being written and closes it straight afterwards, so an asset holds no file descriptor until then and can
+ * be sent again when an upload is retried.
+ *
+ * @since 1.0.14
+ */
+@FunctionalInterface
+public interface AssetSource
+{
+  /**
+   * @return a new stream over the payload, which the caller must close
+   * @throws IOException if the payload cannot be opened
+   */
+  InputStream open() throws IOException;
+
+  /**
+   * @return the length of the payload in bytes, or {@code -1} if it is not known before the payload is read
+   * @throws IOException if the length cannot be determined
+   */
+  default long getLength() throws IOException {
+    return -1;
+  }
+
+  /**
+   * @return a source reading the given file, on any file system
+   */
+  static AssetSource of(final Path path) {
+    requireNonNull(path, "Path is required");
+    return new AssetSource()
+    {
+      @Override
+      public InputStream open() throws IOException {
+        return Files.newInputStream(path);
+      }
+
+      @Override
+      public long getLength() throws IOException {
+        return Files.size(path);
+      }
+
+      @Override
+      public String toString() {
+        return path.toString();
+      }
+    };
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3;
+
+import java.util.Objects;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.sonatype.nexus.api.common.ArgumentUtils.checkArgument;
+
+/**
+ * Policy for failing fast once NXRM3 appears to be down.
+ *
+ * After the given number of consecutive requests failed, once their retries were exhausted, because NXRM could not be
+ * reached or answered with a server error ({@code 500}, {@code 502} or {@code 504}), the circuit opens: further
+ * requests fail immediately without being sent. A busy NXRM answering {@code 429} or {@code 503} does not count as a
+ * failure. Once the open time has passed, the next request first probes NXRM by asking for its version; if NXRM
+ * answers, the circuit closes again and the request is sent, otherwise it stays open for another open time. Requests
+ * being retried wait for the probe instead of failing, as long as their retry policy allows them to.
+ *
+ * Instances are immutable; the {@code with} methods return a modified copy.
+ *
+ * @since 1.0.14
+ */
+public final class CircuitBreakerPolicy
+{
+  public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+  public static final long DEFAULT_OPEN_MILLIS = SECONDS.toMillis(30);
+
+  private static final CircuitBreakerPolicy DISABLED = new CircuitBreakerPolicy(0, 0);
+
+  private final int failureThreshold;
+
+  private final long openMillis;
+
+  private CircuitBreakerPolicy(final int failureThreshold, final long openMillis) {
+    this.failureThreshold = failureThreshold;
+    this.openMillis = openMillis;
+  }
+
+  /**
+   * @return a policy which never opens the circuit.
+   */
+  public static CircuitBreakerPolicy disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * @return a policy with the default failure threshold and open time.
+   */
+  public static CircuitBreakerPolicy defaults() {
+    return new CircuitBreakerPolicy(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS);
+  }
+
+  /**
+   * @param failureThreshold the number of consecutive failed requests which open the circuit; {@code 0} disables it.
+   */
+  public CircuitBreakerPolicy withFailureThreshold(final int failureThreshold) {
+    checkArgument(failureThreshold >= 0, "Failure threshold must not be negative");
+    return failureThreshold == 0 ? DISABLED : new CircuitBreakerPolicy(failureThreshold, openMillis);
+  }
+
+  /**
+   * @param openMillis the time an open circuit fails requests before NXRM is probed again.
+   */
+  public CircuitBreakerPolicy withOpenMillis(final long openMillis) {
+    checkArgument(openMillis >= 0, "Open time must not be negative");
+    return new CircuitBreakerPolicy(failureThreshold, openMillis);
+  }
+
+  public boolean isEnabled() {
+    return failureThreshold > 0;
+  }
+
+  public int getFailureThreshold() {
+    return failureThreshold;
+  }
+
+  public long getOpenMillis() {
+    return openMillis;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CircuitBreakerPolicy that = (CircuitBreakerPolicy) o;
+    return failureThreshold == that.failureThreshold && openMillis == that.openMillis;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(failureThreshold, openMillis);
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreakerPolicy{failureThreshold=" + failureThreshold + ", openMillis=" + openMillis + '}';
+  }
+}
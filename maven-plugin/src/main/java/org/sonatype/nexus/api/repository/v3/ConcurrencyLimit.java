@@ -0,0 +1,161 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3;
+
+import static org.sonatype.nexus.api.common.ArgumentUtils.checkArgument;
+
+/**
+ * Limit on the number of uploads a client sends to NXRM3 at once.
+ *
+ * An adaptive limit is adjusted by additive increase and multiplicative decrease (AIMD): every time as many uploads
+ * as the current limit have succeeded, the limit grows by one, up to the maximum. It is cut by the backoff ratio when
+ * NXRM answers {@code 429} or {@code 503}, or when NXRM takes longer to answer an upload than the latency tolerance
+ * times the average of previous uploads of similar size. A {@code Retry-After} header on such a response also holds
+ * back new uploads for the given time.
+ *
+ * Instances are immutable; the {@code with} methods return a modified copy.
+ *
+ * @since 1.0.14
+ */
+public final class ConcurrencyLimit
+{
+  public static final double DEFAULT_BACKOFF_RATIO = 0.5;
+
+  public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+  private static final ConcurrencyLimit UNLIMITED = new ConcurrencyLimit(0, 0, 0, 0, null);
+
+  private final int initialLimit;
+
+  private final int maxLimit;
+
+  private final double backoffRatio;
+
+  private final double latencyTolerance;
+
+  private final Listener listener;
+
+  private ConcurrencyLimit(
+      final int initialLimit,
+      final int maxLimit,
+      final double backoffRatio,
+      final double latencyTolerance,
+      final Listener listener)
+  {
+    this.initialLimit = initialLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.latencyTolerance = latencyTolerance;
+    this.listener = listener;
+  }
+
+  /**
+   * @return a limit letting every upload through; the number of concurrent uploads is left to the caller.
+   */
+  public static ConcurrencyLimit unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * @param maxLimit the largest number of concurrent uploads the limit may grow to; it starts at half of it.
+   * @return an adaptive limit with the default backoff ratio and latency tolerance.
+   */
+  public static ConcurrencyLimit adaptive(final int maxLimit) {
+    checkArgument(maxLimit > 0, "Maximum limit must be greater than zero");
+    return new ConcurrencyLimit(Math.max(1, maxLimit / 2), maxLimit, DEFAULT_BACKOFF_RATIO, DEFAULT_LATENCY_TOLERANCE,
+        null);
+  }
+
+  /**
+   * @param initialLimit the number of concurrent uploads allowed before any upload completed.
+   */
+  public ConcurrencyLimit withInitialLimit(final int initialLimit) {
+    checkArgument(isAdaptive(), "Only an adaptive limit can be configured");
+    checkArgument(initialLimit > 0 && initialLimit <= maxLimit,
+        "Initial limit must be greater than zero and not greater than the maximum limit");
+    return new ConcurrencyLimit(initialLimit, maxLimit, backoffRatio, latencyTolerance, listener);
+  }
+
+  /**
+   * @param backoffRatio the factor the limit is multiplied with when NXRM is overloaded.
+   */
+  public ConcurrencyLimit withBackoffRatio(final double backoffRatio) {
+    checkArgument(isAdaptive(), "Only an adaptive limit can be configured");
+    checkArgument(backoffRatio > 0 && backoffRatio < 1, "Backoff ratio must be between zero and one");
+    return new ConcurrencyLimit(initialLimit, maxLimit, backoffRatio, latencyTolerance, listener);
+  }
+
+  /**
+   * @param latencyTolerance how many times the average latency of similar uploads an upload may take before the limit
+   *     is cut.
+   */
+  public ConcurrencyLimit withLatencyTolerance(final double latencyTolerance) {
+    checkArgument(isAdaptive(), "Only an adaptive limit can be configured");
+    checkArgument(latencyTolerance > 1, "Latency tolerance must be greater than one");
+    return new ConcurrencyLimit(initialLimit, maxLimit, backoffRatio, latencyTolerance, listener);
+  }
+
+  /**
+   * @param listener notified whenever the limit changes, may be {@code null}
+   */
+  public ConcurrencyLimit withListener(final Listener listener) {
+    checkArgument(isAdaptive(), "Only an adaptive limit can be configured");
+    return new ConcurrencyLimit(initialLimit, maxLimit, backoffRatio, latencyTolerance, listener);
+  }
+
+  public boolean isAdaptive() {
+    return maxLimit > 0;
+  }
+
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  public double getBackoffRatio() {
+    return backoffRatio;
+  }
+
+  public double getLatencyTolerance() {
+    return latencyTolerance;
+  }
+
+  public Listener getListener() {
+    return listener;
+  }
+
+  @Override
+  public String toString() {
+    return isAdaptive()
+        ? "ConcurrencyLimit{initialLimit=" + initialLimit + ", maxLimit=" + maxLimit + ", backoffRatio=" +
+            backoffRatio + ", latencyTolerance=" + latencyTolerance + '}'
+        : "ConcurrencyLimit{unlimited}";
+  }
+
+  /**
+   * Notified whenever an adaptive limit changes, for instance to log the changes while tuning it.
+   */
+  @FunctionalInterface
+  public interface Listener
+  {
+    /**
+     * @param previousLimit the limit before the change
+     * @param newLimit the limit after the change
+     * @param reason why the limit changed
+     */
+    void limitChanged(int previousLimit, int newLimit, String reason);
+  }
+}
@@ -12,7 +12,13 @@
  */
 package org.sonatype.nexus.api.repository.v3;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,11 +40,63 @@ public class DefaultAsset
 
   private final InputStream data;
 
+  private final File file;
+
+  private final AssetSource source;
+
   private final Map<String, String> attributes = new HashMap<>();
 
   public DefaultAsset(String filename, InputStream data) {
     this.filename = checkArgument(filename, isNotBlank(filename), "Filename is required");
     this.data = requireNonNull(data, "Asset payload is required");
+    this.file = null;
+    this.source = null;
+  }
+
+  /**
+   * Creates an asset whose payload is read from the given file each time it is uploaded, so that a failed upload can
+   * be retried.
+   *
+   * @since 1.0.14
+   */
+  public DefaultAsset(String filename, File file) {
+    this.filename = checkArgument(filename, isNotBlank(filename), "Filename is required");
+    this.file = requireNonNull(file, "Asset payload is required");
+    this.data = null;
+    this.source = null;
+  }
+
+  /**
+   * Creates an asset whose payload is read from the given file, which may be on any file system, only while it is
+   * being uploaded. A file on the default file system is uploaded like one given as a {@link File}.
+   *
+   * @since 1.0.14
+   */
+  public DefaultAsset(String filename, Path path) {
+    this.filename = checkArgument(filename, isNotBlank(filename), "Filename is required");
+    requireNonNull(path, "Asset payload is required");
+    if (path.getFileSystem() == FileSystems.getDefault()) {
+      this.file = path.toFile();
+      this.source = null;
+    }
+    else {
+      this.file = null;
+      this.source = AssetSource.of(path);
+    }
+    this.data = null;
+  }
+
+  /**
+   * Creates an asset whose payload is opened from the given source only while it is being uploaded, and again for
+   * every retry.
+   *
+   * @since 1.0.14
+   */
+  public DefaultAsset(String filename, AssetSource source) {
+    this.filename = checkArgument(filename, isNotBlank(filename), "Filename is required");
+    this.source = requireNonNull(source, "Asset payload is required");
+    this.file = null;
+    this.data = null;
   }
 
   @Override
@@ -52,9 +110,33 @@ public class DefaultAsset
     return filename;
   }
 
+  /**
+   * For an asset created from a file or a source, opens a new stream over the payload which the caller must close.
+   */
   @Override
   public InputStream getData() {
-    return data;
+    try {
+      if (source != null) {
+        return source.open();
+      }
+      if (file == null) {
+        return data;
+      }
+      return new FileInputStream(file);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public File getFile() {
+    return file;
+  }
+
+  @Override
+  public AssetSource getSource() {
+    return source;
   }
 
   @Override
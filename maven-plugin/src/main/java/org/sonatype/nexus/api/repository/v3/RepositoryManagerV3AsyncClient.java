@@ -0,0 +1,68 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+
+/**
+ * Asynchronous companion of {@link RepositoryManagerV3Client}. Requests are sent on a non-blocking transport and
+ * every operation returns immediately with a {@link CompletableFuture}, so that many requests can be in flight without
+ * a thread blocked on each of them.
+ *
+ * A future fails with a {@link RepositoryManagerException} when the request fails. Invalid arguments are rejected
+ * immediately with an {@link IllegalArgumentException}, as by {@link RepositoryManagerV3Client}.
+ *
+ * @since 1.0.14
+ */
+public interface RepositoryManagerV3AsyncClient
+{
+  /**
+   * @see RepositoryManagerV3Client#getVersion()
+   */
+  CompletableFuture<NxrmVersion> getVersion();
+
+  /**
+   * @see RepositoryManagerV3Client#upload(String, Component, String)
+   */
+  CompletableFuture<Void> upload(String repositoryName, Component component, String tagName);
+
+  /**
+   * @see RepositoryManagerV3Client#getTag(String)
+   */
+  CompletableFuture<Optional<Tag>> getTag(String name);
+
+  /**
+   * @see RepositoryManagerV3Client#createTag(String)
+   */
+  CompletableFuture<Tag> createTag(String name);
+
+  /**
+   * @see RepositoryManagerV3Client#associate(String, Map)
+   */
+  CompletableFuture<List<ComponentInfo>> associate(String tagName, Map<String, String> searchParameters);
+
+  /**
+   * @see RepositoryManagerV3Client#move(String, Map)
+   */
+  CompletableFuture<List<ComponentInfo>> move(String destination, Map<String, String> searchParameters);
+
+  /**
+   * @see RepositoryManagerV3Client#delete(Map)
+   */
+  CompletableFuture<List<ComponentInfo>> delete(Map<String, String> searchParameters);
+}
@@ -15,6 +15,7 @@ package org.sonatype.nexus.api.repository.v3;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.sonatype.nexus.api.exception.RepositoryManagerException;
 
@@ -41,6 +42,26 @@ public interface RepositoryManagerV3Client
    */
   List<Repository> getRepositories() throws RepositoryManagerException;
 
+  /**
+   * Searches for assets in NXRM3, following the continuation tokens of the search API until all pages are read
+   *
+   * @param searchParameters criteria used to locate assets in NXRM3 (must contain at least one parameter)
+   * @return the matching assets
+   * @throws RepositoryManagerException if the search fails; possible causes: unauthorized (401), unauthenticated (403)
+   * @since 1.0.14
+   */
+  List<AssetInfo> searchAssets(Map<String, String> searchParameters) throws RepositoryManagerException;
+
+  /**
+   * Searches for components in NXRM3, following the continuation tokens of the search API until all pages are read
+   *
+   * @param searchParameters criteria used to locate components in NXRM3 (must contain at least one parameter)
+   * @return the coordinates of the matching components
+   * @throws RepositoryManagerException if the search fails; possible causes: unauthorized (401), unauthenticated (403)
+   * @since 1.0.14
+   */
+  List<ComponentInfo> searchComponents(Map<String, String> searchParameters) throws RepositoryManagerException;
+
   /**
    * Uploads a {@link DefaultComponent} to the specified repository in NXRM3
    *
@@ -62,6 +83,28 @@ public interface RepositoryManagerV3Client
    */
   void upload(String repositoryName, Component component, String tagName) throws RepositoryManagerException;
 
+  /**
+   * Uploads a {@link DefaultComponent} to the specified repository in NXRM3 and applies the specified tag, reporting
+   * the progress of the request to the given listener
+   *
+   * @param repositoryName name of the repository to where the component will be uploaded
+   * @param component the component being uploaded
+   * @param tagName the tag to apply (tag must already exist), optional
+   * @param listener notified when the request body has been sent; clients which cannot observe the request do not
+   *          notify it
+   * @throws RepositoryManagerException when upload fails; possible causes: (403) insufficient permissions, (404) tag
+   *           not found
+   * @since 1.0.14
+   */
+  default void upload(
+      final String repositoryName,
+      final Component component,
+      final String tagName,
+      final UploadListener listener) throws RepositoryManagerException
+  {
+    upload(repositoryName, component, tagName);
+  }
+
   /**
    * Gets a tag on NXRM3
    *
@@ -95,6 +138,33 @@ public interface RepositoryManagerV3Client
    */
   Tag createTag(String name, Map<String, Object> attributes) throws RepositoryManagerException;
 
+  /**
+   * Creates a tag on NXRM3 unless it already exists. The tag is created optimistically; only when NXRM3 rejects the
+   * creation (400 or 409) is it looked up, so the common case costs a single request.
+   *
+   * @param name the unique name for the tag
+   * @return the {@link Tag} object
+   * @throws RepositoryManagerException when the tag could neither be created nor found. Possible causes: invalid
+   *           characters in tag name, insufficient permissions (403)
+   * @since 1.0.14
+   */
+  default Tag ensureTag(final String name) throws RepositoryManagerException {
+    try {
+      return createTag(name);
+    }
+    catch (RepositoryManagerException e) {
+      int status = e.getResponseStatus().orElse(0);
+      if (status != 400 && status != 409) {
+        throw e;
+      }
+      Optional<Tag> existing = getTag(name);
+      if (existing.isPresent()) {
+        return existing.get();
+      }
+      throw e;
+    }
+  }
+
   /**
    * Applies a tag to the component(s) found from the {@link SearchBuilder}
    *
@@ -160,4 +230,38 @@ public interface RepositoryManagerV3Client
    *           no components found (404)
    */
   List<ComponentInfo> delete(Map<String, String> searchParameters) throws RepositoryManagerException;
+
+  /**
+   * Moves components to the destination repository based on a component search, handing each moved component to the
+   * given consumer as the response is read instead of collecting them into a list
+   *
+   * @param destination the target repository of the move
+   * @param searchParameters criteria used to locate components in NXRM3 (must contain at least one parameter)
+   * @param consumer receives each moved component
+   * @throws RepositoryManagerException if the move fails; possible causes: unauthorized (401), unauthenticated (403),
+   *           no components found (404)
+   */
+  default void move(
+      final String destination,
+      final Map<String, String> searchParameters,
+      final Consumer<ComponentInfo> consumer) throws RepositoryManagerException
+  {
+    move(destination, searchParameters).forEach(consumer);
+  }
+
+  /**
+   * Deletes components from NXRM3 based on a component search, handing each deleted component to the given consumer
+   * as the response is read instead of collecting them into a list
+   *
+   * @param searchParameters criteria used to locate components in NXRM3 (must contain at least one parameter)
+   * @param consumer receives each deleted component
+   * @throws RepositoryManagerException if the delete fails; possible causes: unauthorized (401), unauthenticated (403),
+   *           no components found (404)
+   */
+  default void delete(
+      final Map<String, String> searchParameters,
+      final Consumer<ComponentInfo> consumer) throws RepositoryManagerException
+  {
+    delete(searchParameters).forEach(consumer);
+  }
 }
@@ -15,11 +15,13 @@ package org.sonatype.nexus.api.repository.v3;
 import org.sonatype.nexus.api.common.ProxyConfig;
 import org.sonatype.nexus.api.common.ServerConfig;
 import org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder;
+import org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3AsyncClient;
 import org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client;
 
 import org.apache.http.client.HttpClient;
 
 import static java.util.Objects.requireNonNull;
+import static org.sonatype.nexus.api.common.ArgumentUtils.checkArgument;
 
 /**
  * This class is used to build a {@link RepositoryManagerV3Client}. A {@link ServerConfig} containing the configuration
@@ -43,6 +45,14 @@ import static java.util.Objects.requireNonNull;
 public class RepositoryManagerV3ClientBuilder
     extends AbstractRepositoryManagerClientBuilder<RepositoryManagerV3ClientBuilder>
 {
+  private RetryPolicy retryPolicy = RetryPolicy.none();
+
+  private ConcurrencyLimit uploadConcurrency = ConcurrencyLimit.unlimited();
+
+  private long maxUploadBytesPerSecond;
+
+  private CircuitBreakerPolicy circuitBreakerPolicy = CircuitBreakerPolicy.disabled();
+
   // this is protected to prevent creating directly
   private RepositoryManagerV3ClientBuilder() {
   }
@@ -62,6 +72,53 @@ public class RepositoryManagerV3ClientBuilder
     return this;
   }
 
+  /**
+   * @param retryPolicy the policy for retrying requests failing with a transient error; by default requests are not
+   *          retried.
+   * @return the builder.
+   * @since 1.0.14
+   */
+  public RepositoryManagerV3ClientBuilder withRetryPolicy(final RetryPolicy retryPolicy) {
+    this.retryPolicy = requireNonNull(retryPolicy, "Retry policy is required");
+    return this;
+  }
+
+  /**
+   * @param uploadConcurrency the limit on the number of uploads the client sends at once, shared by all threads using
+   *          it; by default uploads are not limited. Only used by {@link #build()}.
+   * @return the builder.
+   * @since 1.0.14
+   */
+  public RepositoryManagerV3ClientBuilder withUploadConcurrency(final ConcurrencyLimit uploadConcurrency) {
+    this.uploadConcurrency = requireNonNull(uploadConcurrency, "Upload concurrency limit is required");
+    return this;
+  }
+
+  /**
+   * @param maxUploadBytesPerSecond the rate which the upload bodies sent by all clients of the JVM together may not
+   *          exceed, for instance to leave bandwidth to other jobs on a shared network link; {@code 0} (the default)
+   *          does not limit uploads. The lowest rate of the clients not closed yet applies. Only used by
+   *          {@link #build()}.
+   * @return the builder.
+   * @since 1.0.14
+   */
+  public RepositoryManagerV3ClientBuilder withMaxUploadBytesPerSecond(final long maxUploadBytesPerSecond) {
+    checkArgument(maxUploadBytesPerSecond >= 0, "Maximum upload rate must not be negative");
+    this.maxUploadBytesPerSecond = maxUploadBytesPerSecond;
+    return this;
+  }
+
+  /**
+   * @param circuitBreakerPolicy the policy for failing requests fast while NXRM appears to be down, shared by all
+   *          threads using the client; by default every request is sent. Only used by {@link #build()}.
+   * @return the builder.
+   * @since 1.0.14
+   */
+  public RepositoryManagerV3ClientBuilder withCircuitBreakerPolicy(final CircuitBreakerPolicy circuitBreakerPolicy) {
+    this.circuitBreakerPolicy = requireNonNull(circuitBreakerPolicy, "Circuit breaker policy is required");
+    return this;
+  }
+
   /**
    * @return a {@link RepositoryManagerV3Client} to interact with a Nexus Repository Manager 3.x server
    */
@@ -71,6 +128,20 @@ public class RepositoryManagerV3ClientBuilder
       httpClient = buildHttpClient(serverConfig, proxyConfig);
     }
 
-    return new DefaultNexusRepositoryV3Client(serverConfig, httpClient);
+    return DefaultNexusRepositoryV3Client.create(serverConfig, httpClient, retryPolicy, uploadConcurrency,
+        maxUploadBytesPerSecond, circuitBreakerPolicy);
+  }
+
+  /**
+   * Builds an asynchronous client on the non-blocking HTTP client of the JDK. A {@link ServerConfig} is required; an
+   * {@link HttpClient} provided to this builder and the connection pool settings are not used.
+   *
+   * @return a {@link RepositoryManagerV3AsyncClient} to interact with a Nexus Repository Manager 3.x server
+   * @since 1.0.14
+   */
+  public RepositoryManagerV3AsyncClient buildAsync() {
+    requireNonNull(serverConfig, "Nexus server configuration is required");
+    return new DefaultNexusRepositoryV3AsyncClient(serverConfig, buildAsyncHttpClient(proxyConfig), retryPolicy,
+        userAgent != null ? userAgent : DEFAULT_USER_AGENT);
   }
 }
@@ -0,0 +1,162 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.sonatype.nexus.api.common.ArgumentUtils.checkArgument;
+
+/**
+ * Policy for retrying requests to NXRM3 which failed with a transient error, such as a dropped connection or a
+ * {@code 503} response from a busy server.
+ *
+ * Failed attempts are retried after an exponentially growing, randomly jittered backoff until either the maximum number
+ * of attempts is reached or the next attempt would start after the maximum elapsed time. Requests which do not modify
+ * the repository are retried after any transient failure, while requests which do, such as uploads, are only retried
+ * when NXRM cannot have processed them and their body can be sent again.
+ *
+ * Instances are immutable; the {@code with} methods return a modified copy.
+ *
+ * @since 1.0.14
+ */
+public final class RetryPolicy
+{
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+  public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = SECONDS.toMillis(1);
+
+  public static final long DEFAULT_MAX_BACKOFF_MILLIS = SECONDS.toMillis(30);
+
+  public static final long DEFAULT_MAX_ELAPSED_MILLIS = MINUTES.toMillis(5);
+
+  private static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0);
+
+  private final int maxAttempts;
+
+  private final long initialBackoffMillis;
+
+  private final long maxBackoffMillis;
+
+  private final long maxElapsedMillis;
+
+  private RetryPolicy(
+      final int maxAttempts,
+      final long initialBackoffMillis,
+      final long maxBackoffMillis,
+      final long maxElapsedMillis)
+  {
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    this.maxElapsedMillis = maxElapsedMillis;
+  }
+
+  /**
+   * @return a policy making a single attempt.
+   */
+  public static RetryPolicy none() {
+    return NONE;
+  }
+
+  /**
+   * @return a policy with the default attempts, backoff and elapsed time budget.
+   */
+  public static RetryPolicy defaults() {
+    return new RetryPolicy(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS,
+        DEFAULT_MAX_ELAPSED_MILLIS);
+  }
+
+  /**
+   * @param maxAttempts the maximum number of attempts, including the first one; {@code 1} disables retries.
+   */
+  public RetryPolicy withMaxAttempts(final int maxAttempts) {
+    checkArgument(maxAttempts > 0, "Maximum attempts must be greater than zero");
+    return new RetryPolicy(maxAttempts, initialBackoffMillis, maxBackoffMillis, maxElapsedMillis);
+  }
+
+  /**
+   * @param initialBackoffMillis the upper bound of the backoff before the first retry, doubled for every further retry.
+   * @param maxBackoffMillis the upper bound of any backoff.
+   */
+  public RetryPolicy withBackoff(final long initialBackoffMillis, final long maxBackoffMillis) {
+    checkArgument(initialBackoffMillis >= 0, "Initial backoff must not be negative");
+    checkArgument(maxBackoffMillis >= initialBackoffMillis, "Maximum backoff must not be less than initial backoff");
+    return new RetryPolicy(maxAttempts, initialBackoffMillis, maxBackoffMillis, maxElapsedMillis);
+  }
+
+  /**
+   * @param maxElapsedMillis the time after the first attempt started beyond which no retry is started.
+   */
+  public RetryPolicy withMaxElapsedMillis(final long maxElapsedMillis) {
+    checkArgument(maxElapsedMillis >= 0, "Maximum elapsed time must not be negative");
+    return new RetryPolicy(maxAttempts, initialBackoffMillis, maxBackoffMillis, maxElapsedMillis);
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public long getInitialBackoffMillis() {
+    return initialBackoffMillis;
+  }
+
+  public long getMaxBackoffMillis() {
+    return maxBackoffMillis;
+  }
+
+  public long getMaxElapsedMillis() {
+    return maxElapsedMillis;
+  }
+
+  /**
+   * Returns the backoff before retrying a request whose given attempt failed, drawn uniformly ("full jitter") between
+   * zero and the exponential backoff for that attempt so that concurrent clients do not retry in lockstep.
+   *
+   * @param failedAttempt the number of the attempt which failed, starting at {@code 1}.
+   */
+  public long backoffMillis(final int failedAttempt) {
+    long ceiling = initialBackoffMillis;
+    for (int i = 1; i < failedAttempt && ceiling < maxBackoffMillis; i++) {
+      ceiling *= 2;
+    }
+    ceiling = Math.min(ceiling, maxBackoffMillis);
+    return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RetryPolicy that = (RetryPolicy) o;
+    return maxAttempts == that.maxAttempts && initialBackoffMillis == that.initialBackoffMillis &&
+        maxBackoffMillis == that.maxBackoffMillis && maxElapsedMillis == that.maxElapsedMillis;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(maxAttempts, initialBackoffMillis, maxBackoffMillis, maxElapsedMillis);
+  }
+
+  @Override
+  public String toString() {
+    return "RetryPolicy{maxAttempts=" + maxAttempts + ", initialBackoffMillis=" + initialBackoffMillis +
+        ", maxBackoffMillis=" + maxBackoffMillis + ", maxElapsedMillis=" + maxElapsedMillis + '}';
+  }
+}
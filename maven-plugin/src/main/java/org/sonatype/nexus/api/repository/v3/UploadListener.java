@@ -0,0 +1,31 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3;
+
+/**
+ * Observes the progress of a component upload, allowing a caller to tell the time spent sending the request apart
+ * from the time the server takes to store the component and respond.
+ *
+ * @since 1.0.14
+ */
+@FunctionalInterface
+public interface UploadListener
+{
+  /**
+   * Called once the request body has been completely written to the connection. An upload which is retried calls
+   * this once per attempt.
+   *
+   * @param bytes the number of bytes written for the request body
+   */
+  void requestSent(long bytes);
+}
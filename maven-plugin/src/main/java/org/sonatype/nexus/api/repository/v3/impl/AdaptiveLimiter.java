@@ -0,0 +1,206 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sonatype.nexus.api.repository.v3.ConcurrencyLimit;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Enforces an adaptive {@link ConcurrencyLimit} on the requests of a client: every attempt of a limited request takes
+ * a {@link Permit} before it is sent and reports its outcome when done.
+ *
+ * The latency of a request is the time NXRM takes to respond once the request body has been sent, which leaves out
+ * the transfer of the body, and it is only compared with the average latency of requests of a similar size: a server
+ * storing a large upload takes longer than one storing a small one without being any busier. Only requests sent since
+ * the last decrease can cut the limit again, so that the requests which were already in flight when NXRM got
+ * overloaded cut it only once.
+ *
+ * @since 1.0.14
+ */
+class AdaptiveLimiter
+{
+  /**
+   * Number of successful requests of a size class averaged before their latencies may cut the limit.
+   */
+  static final int WARM_UP_SAMPLES = 5;
+
+  private static final double LATENCY_SMOOTHING = 0.1;
+
+  private final ConcurrencyLimit settings;
+
+  private int limit;
+
+  private int inFlight;
+
+  private int successes;
+
+  private long generation;
+
+  private long pausedUntilNanos;
+
+  private final Map<Integer, Latency> latencies = new HashMap<>();
+
+  AdaptiveLimiter(final ConcurrencyLimit settings) {
+    this.settings = requireNonNull(settings, "Concurrency limit is required");
+    this.limit = settings.getInitialLimit();
+  }
+
+  /**
+   * Waits until a request may be sent without exceeding the limit, nor ignoring a {@code Retry-After} from NXRM.
+   */
+  synchronized Permit acquire() throws InterruptedException {
+    while (true) {
+      long pausedNanos = pausedUntilNanos - System.nanoTime();
+      if (pausedNanos > 0) {
+        NANOSECONDS.timedWait(this, pausedNanos);
+      }
+      else if (inFlight < limit) {
+        inFlight++;
+        return new Permit(generation);
+      }
+      else {
+        wait();
+      }
+    }
+  }
+
+  synchronized int getLimit() {
+    return limit;
+  }
+
+  /**
+   * @param latencyNanos the time from the request body having been sent to the response
+   * @param bytes the size of the request body, or a negative number if unknown
+   */
+  synchronized void succeeded(final Permit permit, final long latencyNanos, final long bytes) {
+    release();
+    Latency latency = latencies.computeIfAbsent(sizeClass(bytes), key -> new Latency());
+    boolean slow = latency.samples >= WARM_UP_SAMPLES
+        && latencyNanos > latency.averageNanos * settings.getLatencyTolerance();
+    // slow requests count towards the average too, so that it follows a server which stays slower
+    latency.add(latencyNanos);
+    if (slow) {
+      decrease(permit, "latency of " + NANOSECONDS.toMillis(latencyNanos) + " ms for " + bytes + " bytes is over " +
+          settings.getLatencyTolerance() + " times the average of similar requests");
+    }
+    else if (++successes >= limit && limit < settings.getMaxLimit()) {
+      change(limit + 1, successes + " requests succeeded");
+    }
+  }
+
+  synchronized void overloaded(final Permit permit, final int statusCode, final long retryAfterMillis) {
+    release();
+    if (retryAfterMillis > 0) {
+      pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + MILLISECONDS.toNanos(retryAfterMillis));
+    }
+    decrease(permit, statusCode + " response from server" +
+        (retryAfterMillis > 0 ? ", pausing for " + retryAfterMillis + " ms" : ""));
+  }
+
+  private synchronized void failed() {
+    release();
+  }
+
+  /**
+   * Groups request sizes by powers of 16: up to 16 bytes, up to 256 bytes, and so on.
+   */
+  private static int sizeClass(final long bytes) {
+    return bytes <= 0 ? 0 : (64 - Long.numberOfLeadingZeros(bytes - 1) + 3) / 4;
+  }
+
+  private void release() {
+    inFlight--;
+    notifyAll();
+  }
+
+  private void decrease(final Permit permit, final String reason) {
+    if (permit.generation != generation) {
+      return;
+    }
+    generation++;
+    change(Math.max(1, (int) (limit * settings.getBackoffRatio())), reason);
+  }
+
+  private void change(final int newLimit, final String reason) {
+    int previousLimit = limit;
+    limit = newLimit;
+    successes = 0;
+    if (newLimit != previousLimit && settings.getListener() != null) {
+      settings.getListener().limitChanged(previousLimit, newLimit, reason);
+    }
+  }
+
+  /**
+   * The smoothed latency of the requests of a size class.
+   */
+  private static class Latency
+  {
+    private double averageNanos;
+
+    private int samples;
+
+    private void add(final long latencyNanos) {
+      averageNanos = samples == 0 ? latencyNanos : averageNanos + LATENCY_SMOOTHING * (latencyNanos - averageNanos);
+      samples++;
+    }
+  }
+
+  /**
+   * Allows a single attempt of a request; exactly one of the outcome methods must be called once it is done.
+   */
+  class Permit
+  {
+    private final long generation;
+
+    private volatile long sentNanos = System.nanoTime();
+
+    private Permit(final long generation) {
+      this.generation = generation;
+    }
+
+    /**
+     * Records that the request body has been completely sent; the latency of a request whose body is not observed
+     * includes sending it.
+     */
+    void sent() {
+      sentNanos = System.nanoTime();
+    }
+
+    /**
+     * @param bytes the size of the request body, or a negative number if unknown
+     */
+    void succeeded(final long bytes) {
+      AdaptiveLimiter.this.succeeded(this, System.nanoTime() - sentNanos, bytes);
+    }
+
+    /**
+     * @param retryAfterMillis how long NXRM asked to wait before sending further requests, or {@code 0}
+     */
+    void overloaded(final int statusCode, final long retryAfterMillis) {
+      AdaptiveLimiter.this.overloaded(this, statusCode, retryAfterMillis);
+    }
+
+    /**
+     * Reports a failure which does not tell whether NXRM is overloaded.
+     */
+    void failed() {
+      AdaptiveLimiter.this.failed();
+    }
+  }
+}
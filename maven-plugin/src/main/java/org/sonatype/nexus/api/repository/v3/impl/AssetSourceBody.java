@@ -0,0 +1,73 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+import org.sonatype.nexus.api.repository.v3.AssetSource;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Multipart body part opening its {@link AssetSource} for every write and closing it as soon as the part has been
+ * written, so that the payload is only held open while it is being sent and the part can be sent again. A source
+ * ending before its declared length fails the write, like a file which shrank while it was being sent.
+ *
+ * @since 1.0.14
+ */
+class AssetSourceBody
+    extends AbstractContentBody
+{
+  private final AssetSource source;
+
+  private final long length;
+
+  private final String filename;
+
+  AssetSourceBody(final AssetSource source, final ContentType contentType, final String filename) throws IOException {
+    super(contentType);
+    this.source = requireNonNull(source, "Source is required");
+    this.length = source.getLength();
+    this.filename = filename;
+  }
+
+  @Override
+  public String getFilename() {
+    return filename;
+  }
+
+  @Override
+  public void writeTo(final OutputStream out) throws IOException {
+    requireNonNull(out, "Output stream is required");
+    try (InputStream in = source.open()) {
+      FileChannelBody.copy(Channels.newChannel(in), length, out, filename != null ? filename : "asset");
+    }
+  }
+
+  @Override
+  public String getTransferEncoding() {
+    return MIME.ENC_BINARY;
+  }
+
+  @Override
+  public long getContentLength() {
+    return length;
+  }
+}
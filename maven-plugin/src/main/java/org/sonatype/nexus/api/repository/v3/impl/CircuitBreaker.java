@@ -0,0 +1,181 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.CircuitBreakerPolicy;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Enforces a {@link CircuitBreakerPolicy} on the requests of a client: every attempt checks the circuit before it is
+ * sent, and every request reports whether it succeeded or, once its retries are exhausted, failed.
+ *
+ * While the circuit is open, a single attempt probes NXRM once the open time has passed. Other attempts fail, unless
+ * they are retries allowed to wait for the probe, which they then do instead.
+ *
+ * @since 1.0.14
+ */
+class CircuitBreaker
+{
+  /**
+   * Checks whether NXRM answers requests again.
+   */
+  @FunctionalInterface
+  interface Probe
+  {
+    void probe() throws IOException;
+  }
+
+  private final CircuitBreakerPolicy policy;
+
+  private final Probe probe;
+
+  private int consecutiveFailures;
+
+  private boolean open;
+
+  private boolean probing;
+
+  private long openUntilNanos;
+
+  private String openReason;
+
+  private IOException lastFailure;
+
+  CircuitBreaker(final CircuitBreakerPolicy policy, final Probe probe) {
+    this.policy = requireNonNull(policy, "Circuit breaker policy is required");
+    this.probe = requireNonNull(probe, "Probe is required");
+  }
+
+  /**
+   * Fails if the circuit is open, probing NXRM first if the open time has passed.
+   */
+  void beforeAttempt(final String requestName) throws RepositoryManagerException {
+    beforeAttempt(requestName, 0);
+  }
+
+  /**
+   * Fails if the circuit is open and does not close within the given time, probing NXRM once the open time has passed
+   * unless another attempt already does.
+   */
+  void beforeAttempt(final String requestName, final long maxWaitMillis) throws RepositoryManagerException {
+    long deadlineNanos = System.nanoTime() + MILLISECONDS.toNanos(maxWaitMillis);
+    synchronized (this) {
+      while (open) {
+        long now = System.nanoTime();
+        long remainingNanos = openUntilNanos - now;
+        if (!probing && remainingNanos <= 0) {
+          probing = true;
+          break;
+        }
+        if (deadlineNanos - now <= 0 || (!probing && deadlineNanos - openUntilNanos < 0)) {
+          throw openEx(requestName, Math.max(0, remainingNanos));
+        }
+        try {
+          NANOSECONDS.timedWait(this, probing ? deadlineNanos - now : remainingNanos);
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RepositoryManagerException(requestName + " was interrupted while waiting for NXRM", e);
+        }
+      }
+      if (!open) {
+        return;
+      }
+    }
+
+    IOException failure = null;
+    boolean recovered = false;
+    try {
+      probe.probe();
+      recovered = true;
+    }
+    catch (IOException e) {
+      failure = e;
+    }
+    finally {
+      synchronized (this) {
+        probing = false;
+        if (recovered) {
+          open = false;
+          consecutiveFailures = 0;
+        }
+        else {
+          trip("NXRM did not answer when it was checked again", failure != null ? failure : lastFailure);
+        }
+        notifyAll();
+      }
+    }
+    if (!recovered) {
+      throw openEx(requestName, MILLISECONDS.toNanos(policy.getOpenMillis()));
+    }
+  }
+
+  synchronized void succeeded() {
+    consecutiveFailures = 0;
+  }
+
+  /**
+   * Counts a request which failed after all its attempts if the failure shows that NXRM is down, rather than
+   * rejecting the request or being too busy to process it.
+   */
+  synchronized void failed(final IOException e) {
+    if (!isServerFailure(e)) {
+      consecutiveFailures = 0;
+    }
+    else if (++consecutiveFailures >= policy.getFailureThreshold() && !open) {
+      trip("the last " + consecutiveFailures + " requests to NXRM failed", e);
+    }
+  }
+
+  synchronized boolean isOpen() {
+    return open;
+  }
+
+  private void trip(final String reason, final IOException e) {
+    open = true;
+    openReason = reason;
+    lastFailure = e;
+    openUntilNanos = System.nanoTime() + MILLISECONDS.toNanos(policy.getOpenMillis());
+  }
+
+  private synchronized RepositoryManagerException openEx(final String requestName, final long remainingNanos) {
+    return new RepositoryManagerException(requestName + " was not sent because " + openReason +
+        "; NXRM will be contacted again in " + (NANOSECONDS.toSeconds(remainingNanos) + 1) + " s", lastFailure);
+  }
+
+  /**
+   * Returns {@code true} if the given failure means NXRM could not be reached or could not process the request. A busy
+   * NXRM answering {@code 429} or {@code 503} is not down, and neither is it when a local file cannot be read or a
+   * response cannot be parsed.
+   */
+  static boolean isServerFailure(final IOException e) {
+    if (e instanceof HttpResponseException) {
+      int statusCode = ((HttpResponseException) e).getStatusCode();
+      return statusCode == 500 || statusCode == 502 || statusCode == 504;
+    }
+    return e instanceof ConnectException || e instanceof ConnectTimeoutException ||
+        e instanceof SocketTimeoutException || e instanceof NoHttpResponseException;
+  }
+}
@@ -0,0 +1,366 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.sonatype.nexus.api.common.Authentication;
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.Asset;
+import org.sonatype.nexus.api.repository.v3.AssetSource;
+import org.sonatype.nexus.api.repository.v3.Component;
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+import org.sonatype.nexus.api.repository.v3.NxrmVersion;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3AsyncClient;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+import org.sonatype.nexus.api.repository.v3.Tag;
+import org.sonatype.nexus.api.repository.v3.impl.rest.GetTagResponseHandler;
+import org.sonatype.nexus.api.repository.v3.impl.rest.GetVersionResponseHandler;
+import org.sonatype.nexus.api.repository.v3.impl.rest.NxrmResponseHandler;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.sonatype.nexus.api.common.ArgumentUtils.checkArgument;
+import static org.sonatype.nexus.api.common.NexusStringUtils.isNotBlank;
+import static org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client.DELETE_API;
+import static org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client.MOVE_API;
+import static org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client.SEARCH_PARAMETERS_ARE_REQUIRED;
+import static org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client.TAGS_API;
+import static org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client.TAGS_ASSOCIATE_API;
+import static org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client.TAG_NAME_IS_REQUIRED;
+import static org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client.UPLOAD_API;
+import static org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client.VERSION_API;
+import static org.sonatype.nexus.api.repository.v3.impl.NexusRepositoryHttpClient.NOOP_RESPONSE_HANDLER;
+import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHandlerFactory.newAssociateHandler;
+import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHandlerFactory.newDeleteHandler;
+import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHandlerFactory.newMoveHandler;
+
+/**
+ * Nexus Repository Manager 3.x implementation of {@link RepositoryManagerV3AsyncClient}, sending requests with the
+ * non-blocking {@link HttpClient} of the JDK.
+ *
+ * Responses are read into memory without blocking and then adapted to the Apache HttpClient model, so that the
+ * response handlers of {@link DefaultNexusRepositoryV3Client} are reused; they parse the complete body on the executor
+ * of the {@link HttpClient} and never wait for the network. Requests are retried according to a {@link RetryPolicy}
+ * following the same rules as {@link NexusRepositoryHttpClient}, without blocking a thread during the backoff.
+ *
+ * Unlike {@link DefaultNexusRepositoryV3Client}, this client does not extend the backoff to a {@code Retry-After}
+ * asked for by NXRM, and does not apply the upload concurrency limit, the upload bandwidth limit or the circuit
+ * breaker configured on the blocking client.
+ *
+ * @since 1.0.14
+ */
+public class DefaultNexusRepositoryV3AsyncClient
+    implements RepositoryManagerV3AsyncClient
+{
+  private static final String CRLF = "\r\n";
+
+  private final ServerConfig serverConfig;
+
+  private final HttpClient httpClient;
+
+  private final RetryPolicy retryPolicy;
+
+  private final String userAgent;
+
+  private final Optional<String> authorization;
+
+  /**
+   * Constructs a client using the specified configuration options
+   *
+   * @param serverConfig {@link ServerConfig} for the target NXRM3 server
+   * @param httpClient {@link HttpClient} to use for sending the REST API calls
+   * @param retryPolicy {@link RetryPolicy} for requests failing with a transient error
+   * @param userAgent the user agent sent with every request, may be {@code null}
+   */
+  public DefaultNexusRepositoryV3AsyncClient(
+      final ServerConfig serverConfig,
+      final HttpClient httpClient,
+      final RetryPolicy retryPolicy,
+      final String userAgent)
+  {
+    this.serverConfig = requireNonNull(serverConfig, "Nexus server configuration is required");
+    this.httpClient = requireNonNull(httpClient, "HttpClient is required");
+    this.retryPolicy = requireNonNull(retryPolicy, "Retry policy is required");
+    this.userAgent = userAgent;
+    // preemptive basic auth, as for the blocking client
+    Authentication authentication = serverConfig.getAuthentication();
+    this.authorization = Optional.ofNullable(authentication).map(auth -> "Basic " + Base64.getEncoder().encodeToString(
+        encode(auth.getUsername() + ":" + new String(auth.getPassword()))));
+  }
+
+  @Override
+  public CompletableFuture<NxrmVersion> getVersion() {
+    return send(newRequest(serverConfig.getAddress().resolve(VERSION_API)).GET(), new GetVersionResponseHandler(),
+        "Get server version", true, true);
+  }
+
+  @Override
+  public CompletableFuture<Void> upload(final String repositoryName, final Component component, final String tagName) {
+    checkArgument(isNotBlank(repositoryName), "Repository name is required");
+    requireNonNull(component, "Component is required");
+    checkArgument(component.getAssets() != null && component.getAssets().size() > 0,
+        "Upload requires at least one asset in the component");
+
+    UploadForm form = UploadForm.of(component, tagName);
+    String boundary = UUID.randomUUID().toString();
+    BodyPublisher body;
+    try {
+      body = multipartBody(form, boundary);
+    }
+    catch (IOException e) {
+      return CompletableFuture.failedFuture(NexusRepositoryHttpClient.wrap("Upload component", e));
+    }
+    return buildUri(serverConfig.getAddress().resolve(UPLOAD_API), Map.of("repository", repositoryName))
+        .thenCompose(uri -> send(newRequest(uri)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(body),
+            NOOP_RESPONSE_HANDLER, "Upload component", false, form.isRepeatable()));
+  }
+
+  @Override
+  public CompletableFuture<Optional<Tag>> getTag(final String name) {
+    checkArgument(isNotBlank(name), TAG_NAME_IS_REQUIRED);
+    return buildUri(serverConfig.getAddress().resolve(TAGS_API + "/" + name), Map.of())
+        .thenCompose(uri -> send(newRequest(uri).GET(), new GetTagResponseHandler(), "Get tag", true, true));
+  }
+
+  @Override
+  public CompletableFuture<Tag> createTag(final String name) {
+    Tag tag = new Tag(name);
+    return send(newRequest(serverConfig.getAddress().resolve(TAGS_API))
+            .header("Content-Type", ContentType.APPLICATION_JSON.toString())
+            .POST(BodyPublishers.ofString(tag.toJson(), UTF_8)),
+        NOOP_RESPONSE_HANDLER, "Create tag", false, true)
+        .thenApply(ignored -> tag);
+  }
+
+  @Override
+  public CompletableFuture<List<ComponentInfo>> associate(
+      final String tagName,
+      final Map<String, String> searchParameters)
+  {
+    checkArgument(isNotBlank(tagName), TAG_NAME_IS_REQUIRED);
+    checkArgument(searchParameters != null && !searchParameters.isEmpty(), SEARCH_PARAMETERS_ARE_REQUIRED);
+
+    // associating a tag again has no further effect
+    return buildUri(serverConfig.getAddress().resolve(TAGS_ASSOCIATE_API + "/" + tagName), searchParameters)
+        .thenCompose(uri -> send(newRequest(uri).POST(BodyPublishers.noBody()), newAssociateHandler(),
+            "Associate tag", true, true));
+  }
+
+  @Override
+  public CompletableFuture<List<ComponentInfo>> move(
+      final String destination,
+      final Map<String, String> searchParameters)
+  {
+    checkArgument(isNotBlank(destination), "Destination repository is required");
+    checkArgument(searchParameters != null && !searchParameters.isEmpty(), SEARCH_PARAMETERS_ARE_REQUIRED);
+
+    return buildUri(serverConfig.getAddress().resolve(MOVE_API + "/" + destination), searchParameters)
+        .thenCompose(uri -> send(newRequest(uri).POST(BodyPublishers.noBody()), newMoveHandler(),
+            "Move components", false, true));
+  }
+
+  @Override
+  public CompletableFuture<List<ComponentInfo>> delete(final Map<String, String> searchParameters) {
+    checkArgument(searchParameters != null && !searchParameters.isEmpty(), SEARCH_PARAMETERS_ARE_REQUIRED);
+
+    return buildUri(serverConfig.getAddress().resolve(DELETE_API), searchParameters)
+        .thenCompose(uri -> send(newRequest(uri).POST(BodyPublishers.noBody()), newDeleteHandler(),
+            "Delete components", false, true));
+  }
+
+  private HttpRequest.Builder newRequest(final URI uri) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+    if (userAgent != null) {
+      builder.header("User-Agent", userAgent);
+    }
+    authorization.ifPresent(value -> builder.header("Authorization", value));
+    return builder;
+  }
+
+  private <T> CompletableFuture<T> send(
+      final HttpRequest.Builder request,
+      final NxrmResponseHandler<T> responseHandler,
+      final String requestName,
+      final boolean idempotent,
+      final boolean repeatable)
+  {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    send(request.build(), responseHandler, requestName, idempotent, repeatable, 1, System.nanoTime(), result);
+    return result;
+  }
+
+  private <T> void send(
+      final HttpRequest request,
+      final NxrmResponseHandler<T> responseHandler,
+      final String requestName,
+      final boolean idempotent,
+      final boolean repeatable,
+      final int attempt,
+      final long start,
+      final CompletableFuture<T> result)
+  {
+    httpClient.sendAsync(request, BodyHandlers.ofByteArray())
+        .thenApply(response -> handle(response, responseHandler))
+        .whenComplete((value, failure) -> {
+          if (failure == null) {
+            result.complete(value);
+            return;
+          }
+          Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+              ? failure.getCause() : failure;
+          if (!(cause instanceof IOException)) {
+            result.completeExceptionally(cause);
+            return;
+          }
+          IOException e = (IOException) cause;
+          if (attempt < retryPolicy.getMaxAttempts() && repeatable
+              && NexusRepositoryHttpClient.isRetryable(e, idempotent)) {
+            long backoffMillis = retryPolicy.backoffMillis(attempt);
+            if (NANOSECONDS.toMillis(System.nanoTime() - start) + backoffMillis <= retryPolicy.getMaxElapsedMillis()) {
+              CompletableFuture.delayedExecutor(backoffMillis, MILLISECONDS).execute(() ->
+                  send(request, responseHandler, requestName, idempotent, repeatable, attempt + 1, start, result));
+              return;
+            }
+          }
+          result.completeExceptionally(NexusRepositoryHttpClient.wrap(requestName, e));
+        });
+  }
+
+  /**
+   * Hands the response to the handler as an Apache HttpClient {@link org.apache.http.HttpResponse}.
+   */
+  private static <T> T handle(final HttpResponse<byte[]> response, final NxrmResponseHandler<T> responseHandler) {
+    int statusCode = response.statusCode();
+    BasicHttpResponse adapted = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode,
+        EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, null)));
+    ContentType contentType = response.headers().firstValue("Content-Type")
+        .map(DefaultNexusRepositoryV3AsyncClient::parseContentType)
+        .orElse(null);
+    adapted.setEntity(new ByteArrayEntity(response.body(), contentType));
+    try {
+      return responseHandler.handleResponse(adapted);
+    }
+    catch (IOException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  private static ContentType parseContentType(final String value) {
+    try {
+      return ContentType.parse(value);
+    }
+    catch (RuntimeException e) { // NOSONAR
+      // unparsable or unsupported charset, the default charset is used
+      return null;
+    }
+  }
+
+  /**
+   * Streams the form as {@code multipart/form-data}, reading file assets without buffering them in memory.
+   */
+  private static BodyPublisher multipartBody(final UploadForm form, final String boundary) throws IOException {
+    List<BodyPublisher> publishers = new ArrayList<>();
+    for (UploadForm.Part part : form.getParts()) {
+      StringBuilder header = new StringBuilder()
+          .append("--").append(boundary).append(CRLF)
+          .append("Content-Disposition: form-data; name=\"").append(escape(part.getName())).append('"');
+      Asset asset = part.getAsset();
+      if (asset == null) {
+        header.append(CRLF).append("Content-Type: text/plain; charset=UTF-8").append(CRLF).append(CRLF);
+        publishers.add(BodyPublishers.ofByteArray(encode(header + part.getValue() + CRLF)));
+        continue;
+      }
+      header.append("; filename=\"").append(escape(asset.getFilename())).append('"').append(CRLF)
+          .append("Content-Type: application/octet-stream").append(CRLF).append(CRLF);
+      publishers.add(BodyPublishers.ofByteArray(encode(header.toString())));
+      if (asset.getFile() != null) {
+        publishers.add(BodyPublishers.ofFile(asset.getFile().toPath()));
+      }
+      else if (asset.getSource() != null) {
+        publishers.add(sourceBody(asset.getSource()));
+      }
+      else {
+        publishers.add(BodyPublishers.ofInputStream(asset::getData));
+      }
+      publishers.add(BodyPublishers.ofByteArray(encode(CRLF)));
+    }
+    publishers.add(BodyPublishers.ofByteArray(encode("--" + boundary + "--" + CRLF)));
+    return BodyPublishers.concat(publishers.toArray(new BodyPublisher[0]));
+  }
+
+  /**
+   * Opens the source only when the part is sent, with its length when it is known up front.
+   */
+  private static BodyPublisher sourceBody(final AssetSource source) throws IOException {
+    BodyPublisher publisher = BodyPublishers.ofInputStream(() -> {
+      try {
+        return source.open();
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    long length = source.getLength();
+    return length < 0 ? publisher : BodyPublishers.fromPublisher(publisher, length);
+  }
+
+  private static String escape(final String value) {
+    return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+  }
+
+  private static byte[] encode(final String value) {
+    return value.getBytes(UTF_8);
+  }
+
+  private static CompletableFuture<URI> buildUri(final URI baseUri, final Map<String, String> requestParameters) {
+    URIBuilder builder = new URIBuilder(baseUri);
+    requestParameters.forEach(builder::addParameter);
+    try {
+      return CompletableFuture.completedFuture(builder.build());
+    }
+    catch (URISyntaxException e) {
+      return CompletableFuture.failedFuture(new RepositoryManagerException("Invalid server URL " + builder, e));
+    }
+  }
+}
@@ -12,56 +12,77 @@
  */
 package org.sonatype.nexus.api.repository.v3.impl;
 
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import org.sonatype.nexus.api.common.ServerConfig;
 import org.sonatype.nexus.api.exception.RepositoryManagerException;
 import org.sonatype.nexus.api.repository.v3.Asset;
+import org.sonatype.nexus.api.repository.v3.AssetInfo;
+import org.sonatype.nexus.api.repository.v3.CircuitBreakerPolicy;
 import org.sonatype.nexus.api.repository.v3.Component;
 import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+import org.sonatype.nexus.api.repository.v3.ConcurrencyLimit;
 import org.sonatype.nexus.api.repository.v3.NxrmVersion;
 import org.sonatype.nexus.api.repository.v3.Repository;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3ClientBuilder;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
 import org.sonatype.nexus.api.repository.v3.SearchBuilder;
 import org.sonatype.nexus.api.repository.v3.Tag;
+import org.sonatype.nexus.api.repository.v3.UploadListener;
 import org.sonatype.nexus.api.repository.v3.impl.rest.GetRepositoriesResponseHandler;
 import org.sonatype.nexus.api.repository.v3.impl.rest.GetTagResponseHandler;
 import org.sonatype.nexus.api.repository.v3.impl.rest.GetVersionResponseHandler;
+import org.sonatype.nexus.api.repository.v3.impl.rest.SearchAssetsResponseHandler;
+import org.sonatype.nexus.api.repository.v3.impl.rest.SearchComponentsResponseHandler;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
+import org.apache.http.StatusLine;
 import org.apache.http.client.AuthCache;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.ContentBody;
+import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.entity.mime.content.StringBody;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 
 import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static java.util.stream.Collectors.toMap;
 import static org.apache.http.entity.ContentType.APPLICATION_OCTET_STREAM;
 import static org.apache.http.entity.ContentType.TEXT_PLAIN;
 import static org.sonatype.nexus.api.common.ArgumentUtils.checkArgument;
-import static org.sonatype.nexus.api.common.NexusStringUtils.isBlank;
 import static org.sonatype.nexus.api.common.NexusStringUtils.isNotBlank;
+import static org.sonatype.nexus.api.repository.v3.impl.NexusRepositoryHttpClient.NOOP_RESPONSE_HANDLER;
 import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHandlerFactory.newAssociateHandler;
 import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHandlerFactory.newDeleteHandler;
 import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHandlerFactory.newDisassociateHandler;
@@ -73,7 +94,7 @@ import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHand
  * @since 3.0
  */
 public class DefaultNexusRepositoryV3Client
-    implements RepositoryManagerV3Client
+    implements RepositoryManagerV3Client, Closeable
 {
 
   static final String BASE_API_PATH = "service/rest";
@@ -94,6 +115,12 @@ public class DefaultNexusRepositoryV3Client
 
   static final String DELETE_API = STAGING_API + "/delete";
 
+  static final String SEARCH_COMPONENTS_API = BASE_API_PATH + "/v1/search";
+
+  static final String SEARCH_ASSETS_API = BASE_API_PATH + "/v1/search/assets";
+
+  static final String CONTINUATION_TOKEN = "continuationToken";
+
   static final String TAG_NAME_IS_REQUIRED = "Tag name is required";
 
   static final String SEARCH_PARAMETERS_ARE_REQUIRED = "Search parameters are required";
@@ -102,7 +129,15 @@ public class DefaultNexusRepositoryV3Client
 
   private final NexusRepositoryHttpClient nxrmClient;
 
-  private final Optional<HttpContext> httpClientContext;
+  private final Optional<AuthCache> authCache;
+
+  private final AdaptiveLimiter uploadLimiter;
+
+  private final long maxUploadBytesPerSecond;
+
+  private final UploadThrottle uploadThrottle;
+
+  private final AtomicBoolean closed = new AtomicBoolean();
 
   /**
    * Constructs a client using the specified configuration options
@@ -111,34 +146,147 @@ public class DefaultNexusRepositoryV3Client
    * @param httpClient {@link HttpClient} to use for executing the REST API calls
    */
   public DefaultNexusRepositoryV3Client(final ServerConfig serverConfig, final HttpClient httpClient) {
+    this(serverConfig, httpClient, RetryPolicy.none(), ConcurrencyLimit.unlimited(), 0,
+        CircuitBreakerPolicy.disabled());
+  }
+
+  /**
+   * Creates a client with the options of a {@link RepositoryManagerV3ClientBuilder}, which should be used instead.
+   *
+   * @param serverConfig {@link ServerConfig} for the target NXRM3 server
+   * @param httpClient {@link HttpClient} to use for executing the REST API calls
+   * @param retryPolicy {@link RetryPolicy} for requests failing with a transient error
+   * @param uploadConcurrency {@link ConcurrencyLimit} on the uploads sent at once, shared by all callers of this client
+   * @param maxUploadBytesPerSecond the rate which the uploads of all clients of the JVM together may not exceed, or
+   *          {@code 0} for no limit; the lowest rate of the open clients applies
+   * @param circuitBreakerPolicy {@link CircuitBreakerPolicy} for failing fast while NXRM is down, shared by all
+   *          callers of this client
+   * @since 1.0.14
+   */
+  public static DefaultNexusRepositoryV3Client create(
+      final ServerConfig serverConfig,
+      final HttpClient httpClient,
+      final RetryPolicy retryPolicy,
+      final ConcurrencyLimit uploadConcurrency,
+      final long maxUploadBytesPerSecond,
+      final CircuitBreakerPolicy circuitBreakerPolicy)
+  {
+    return new DefaultNexusRepositoryV3Client(serverConfig, httpClient, retryPolicy, uploadConcurrency,
+        maxUploadBytesPerSecond, circuitBreakerPolicy);
+  }
+
+  private DefaultNexusRepositoryV3Client(
+      final ServerConfig serverConfig,
+      final HttpClient httpClient,
+      final RetryPolicy retryPolicy,
+      final ConcurrencyLimit uploadConcurrency,
+      final long maxUploadBytesPerSecond,
+      final CircuitBreakerPolicy circuitBreakerPolicy)
+  {
+    checkArgument(maxUploadBytesPerSecond >= 0, "Maximum upload rate must not be negative");
     this.serverConfig = requireNonNull(serverConfig, "Nexus server configuration is required");
-    this.nxrmClient = new NexusRepositoryHttpClient(requireNonNull(httpClient, "HttpClient is required"));
+    requireNonNull(httpClient, "HttpClient is required");
+    this.nxrmClient = new NexusRepositoryHttpClient(httpClient, retryPolicy,
+        requireNonNull(circuitBreakerPolicy, "Circuit breaker policy is required").isEnabled()
+            ? new CircuitBreaker(circuitBreakerPolicy, versionProbe(httpClient, serverConfig.getAddress()))
+            : null);
+    this.uploadLimiter = requireNonNull(uploadConcurrency, "Upload concurrency limit is required").isAdaptive()
+        ? new AdaptiveLimiter(uploadConcurrency)
+        : null;
+    this.maxUploadBytesPerSecond = maxUploadBytesPerSecond;
+    this.uploadThrottle = maxUploadBytesPerSecond > 0 ? UploadThrottle.register(maxUploadBytesPerSecond) : null;
 
     if (serverConfig.getAuthentication() != null) { // setup preemptive auth when auth is provided
       URI nexusUri = serverConfig.getAddress();
-      AuthCache authCache = new BasicAuthCache();
+      AuthCache cache = new BasicAuthCache();
       BasicScheme basicAuth = new BasicScheme();
-      authCache.put(new HttpHost(nexusUri.getHost(), nexusUri.getPort(), nexusUri.getScheme()), basicAuth);
-
-      HttpClientContext context = HttpClientContext.create();
-      context.setAuthCache(authCache);
-      httpClientContext = of(context);
+      cache.put(new HttpHost(nexusUri.getHost(), nexusUri.getPort(), nexusUri.getScheme()), basicAuth);
+      authCache = of(cache);
     }
     else {
-      httpClientContext = empty();
+      authCache = empty();
     }
   }
 
+  /**
+   * Returns a probe asking NXRM for its version, which succeeds as soon as NXRM answers without a server error; the
+   * version endpoint does not require authentication.
+   */
+  private static CircuitBreaker.Probe versionProbe(final HttpClient httpClient, final URI nexusUri) {
+    return () -> httpClient.execute(new HttpGet(nexusUri.resolve(VERSION_API)), response -> {
+      EntityUtils.consume(response.getEntity());
+      StatusLine statusLine = response.getStatusLine();
+      if (statusLine.getStatusCode() >= 500) {
+        throw new HttpResponseException(statusLine.getStatusCode(), statusLine.getReasonPhrase());
+      }
+      return null;
+    });
+  }
+
+  /**
+   * An {@link HttpContext} holds per-execution state and must not be shared by concurrent requests, so each request
+   * gets its own context; only the (thread-safe) preemptive auth cache is shared.
+   */
+  private Optional<HttpContext> httpClientContext() {
+    return authCache.map(cache -> {
+      HttpClientContext context = HttpClientContext.create();
+      context.setAuthCache(cache);
+      return context;
+    });
+  }
+
   @Override
   public NxrmVersion getVersion() throws RepositoryManagerException {
     return nxrmClient.execute(new HttpGet(serverConfig.getAddress().resolve(VERSION_API)),
-        new GetVersionResponseHandler(), httpClientContext, of("Get server version"));
+        new GetVersionResponseHandler(), httpClientContext(), of("Get server version"));
   }
 
   @Override
   public List<Repository> getRepositories() throws RepositoryManagerException {
     return nxrmClient.execute(new HttpGet(serverConfig.getAddress().resolve(REPOSITORIES_API)),
-        new GetRepositoriesResponseHandler(), httpClientContext, of("Get repositories"));
+        new GetRepositoriesResponseHandler(), httpClientContext(), of("Get repositories"));
+  }
+
+  @Override
+  public List<AssetInfo> searchAssets(final Map<String, String> searchParameters) throws RepositoryManagerException {
+    checkArgument(searchParameters != null && !searchParameters.isEmpty(), SEARCH_PARAMETERS_ARE_REQUIRED);
+
+    List<AssetInfo> assets = new ArrayList<>();
+    Map<String, String> pageParameters = new HashMap<>(searchParameters);
+    SearchAssetsResponseHandler.Page page;
+    do {
+      URI searchUri = buildUri(serverConfig.getAddress().resolve(SEARCH_ASSETS_API),
+          getRequestParameters(pageParameters));
+      page = nxrmClient.execute(new HttpGet(searchUri), new SearchAssetsResponseHandler(), httpClientContext(),
+          of("Search assets"));
+      assets.addAll(page.getItems());
+      pageParameters.put(CONTINUATION_TOKEN, page.getContinuationToken());
+    }
+    while (page.getContinuationToken() != null);
+
+    return assets;
+  }
+
+  @Override
+  public List<ComponentInfo> searchComponents(final Map<String, String> searchParameters)
+      throws RepositoryManagerException
+  {
+    checkArgument(searchParameters != null && !searchParameters.isEmpty(), SEARCH_PARAMETERS_ARE_REQUIRED);
+
+    List<ComponentInfo> components = new ArrayList<>();
+    Map<String, String> pageParameters = new HashMap<>(searchParameters);
+    SearchComponentsResponseHandler.Page page;
+    do {
+      URI searchUri = buildUri(serverConfig.getAddress().resolve(SEARCH_COMPONENTS_API),
+          getRequestParameters(pageParameters));
+      page = nxrmClient.execute(new HttpGet(searchUri), new SearchComponentsResponseHandler(), httpClientContext(),
+          of("Search components"));
+      components.addAll(page.getItems());
+      pageParameters.put(CONTINUATION_TOKEN, page.getContinuationToken());
+    }
+    while (page.getContinuationToken() != null);
+
+    return components;
   }
 
   @Override
@@ -151,6 +299,16 @@ public class DefaultNexusRepositoryV3Client
       final String repositoryName,
       final Component component,
       final String tagName) throws RepositoryManagerException
+  {
+    upload(repositoryName, component, tagName, null);
+  }
+
+  @Override
+  public void upload(
+      final String repositoryName,
+      final Component component,
+      final String tagName,
+      final UploadListener listener) throws RepositoryManagerException
   {
     checkArgument(isNotBlank(repositoryName), "Repository name is required");
     requireNonNull(component, "Component is required");
@@ -160,9 +318,14 @@ public class DefaultNexusRepositoryV3Client
     URI uploadUri =
         buildUri(serverConfig.getAddress().resolve(UPLOAD_API), new BasicNameValuePair("repository", repositoryName));
     HttpPost post = new HttpPost(uploadUri);
-    post.setEntity(buildUploadEntity(component, tagName));
+    HttpEntity entity = buildUploadEntity(component, tagName);
+    if (uploadThrottle != null) {
+      entity = throttled(entity, uploadThrottle);
+    }
+    post.setEntity(listener == null ? entity : observed(entity, listener));
 
-    nxrmClient.execute(post, httpClientContext, of("Upload component"));
+    nxrmClient.execute(post, NOOP_RESPONSE_HANDLER, httpClientContext(), of("Upload component"), false,
+        uploadLimiter);
   }
 
   @Override
@@ -170,7 +333,7 @@ public class DefaultNexusRepositoryV3Client
     checkArgument(isNotBlank(name), TAG_NAME_IS_REQUIRED);
     URI getTagUri = buildUri(serverConfig.getAddress().resolve(TAGS_API + "/" + name));
     HttpGet get = new HttpGet(getTagUri);
-    return nxrmClient.execute(get, new GetTagResponseHandler(), httpClientContext, of("Get tag"));
+    return nxrmClient.execute(get, new GetTagResponseHandler(), httpClientContext(), of("Get tag"));
   }
 
   @Override
@@ -187,7 +350,7 @@ public class DefaultNexusRepositoryV3Client
     URI createUri = buildUri(serverConfig.getAddress().resolve(TAGS_API));
     HttpPost createPost = new HttpPost(createUri);
     createPost.setEntity(new StringEntity(tag.toJson(), ContentType.APPLICATION_JSON));
-    nxrmClient.execute(createPost, httpClientContext, of("Create tag"));
+    nxrmClient.execute(createPost, httpClientContext(), of("Create tag"));
 
     return tag;
   }
@@ -204,7 +367,8 @@ public class DefaultNexusRepositoryV3Client
         getRequestParameters(searchParameters));
     HttpPost post = new HttpPost(associateUri);
 
-    return nxrmClient.execute(post, newAssociateHandler(), httpClientContext, of("Associate tag"));
+    // associating a tag again has no further effect
+    return nxrmClient.execute(post, newAssociateHandler(), httpClientContext(), of("Associate tag"), true);
   }
 
   @Override
@@ -219,7 +383,7 @@ public class DefaultNexusRepositoryV3Client
         getRequestParameters(searchParameters));
     HttpDelete delete = new HttpDelete(disassociateUrl);
 
-    return nxrmClient.execute(delete, newDisassociateHandler(), httpClientContext, of("Disassociate tag"));
+    return nxrmClient.execute(delete, newDisassociateHandler(), httpClientContext(), of("Disassociate tag"));
   }
 
   @Override
@@ -233,14 +397,18 @@ public class DefaultNexusRepositoryV3Client
       final String destination,
       final Map<String, String> searchParameters) throws RepositoryManagerException
   {
-    checkArgument(isNotBlank(destination), "Destination repository is required");
-    checkArgument(searchParameters != null && !searchParameters.isEmpty(), SEARCH_PARAMETERS_ARE_REQUIRED);
-
-    URI moveUri = buildUri(serverConfig.getAddress().resolve(MOVE_API + "/" + destination),
-        getRequestParameters(searchParameters));
-    HttpPost post = new HttpPost(moveUri);
+    HttpPost post = newMoveRequest(destination, searchParameters);
+    return nxrmClient.execute(post, newMoveHandler(), httpClientContext(), of("Move components"));
+  }
 
-    return nxrmClient.execute(post, newMoveHandler(), httpClientContext, of("Move components"));
+  @Override
+  public void move(
+      final String destination,
+      final Map<String, String> searchParameters,
+      final Consumer<ComponentInfo> consumer) throws RepositoryManagerException
+  {
+    HttpPost post = newMoveRequest(destination, searchParameters);
+    nxrmClient.execute(post, newMoveHandler(consumer), httpClientContext(), of("Move components"));
   }
 
   @Override
@@ -251,12 +419,36 @@ public class DefaultNexusRepositoryV3Client
 
   @Override
   public List<ComponentInfo> delete(final Map<String, String> searchParameters) throws RepositoryManagerException {
+    HttpPost post = newDeleteRequest(searchParameters);
+    return nxrmClient.execute(post, newDeleteHandler(), httpClientContext(), of("Delete components"));
+  }
+
+  @Override
+  public void delete(
+      final Map<String, String> searchParameters,
+      final Consumer<ComponentInfo> consumer) throws RepositoryManagerException
+  {
+    HttpPost post = newDeleteRequest(searchParameters);
+    nxrmClient.execute(post, newDeleteHandler(consumer), httpClientContext(), of("Delete components"));
+  }
+
+  private HttpPost newMoveRequest(
+      final String destination,
+      final Map<String, String> searchParameters) throws RepositoryManagerException
+  {
+    checkArgument(isNotBlank(destination), "Destination repository is required");
     checkArgument(searchParameters != null && !searchParameters.isEmpty(), SEARCH_PARAMETERS_ARE_REQUIRED);
 
-    URI deleteUri = buildUri(serverConfig.getAddress().resolve(DELETE_API), getRequestParameters(searchParameters));
-    HttpPost post = new HttpPost(deleteUri);
+    URI moveUri = buildUri(serverConfig.getAddress().resolve(MOVE_API + "/" + destination),
+        getRequestParameters(searchParameters));
+    return new HttpPost(moveUri);
+  }
+
+  private HttpPost newDeleteRequest(final Map<String, String> searchParameters) throws RepositoryManagerException {
+    checkArgument(searchParameters != null && !searchParameters.isEmpty(), SEARCH_PARAMETERS_ARE_REQUIRED);
 
-    return nxrmClient.execute(post, newDeleteHandler(), httpClientContext, of("Delete components"));
+    URI deleteUri = buildUri(serverConfig.getAddress().resolve(DELETE_API), getRequestParameters(searchParameters));
+    return new HttpPost(deleteUri);
   }
 
   private URI buildUri(
@@ -273,50 +465,102 @@ public class DefaultNexusRepositoryV3Client
     }
   }
 
-  private HttpEntity buildUploadEntity(Component upload, String tagName) {
-    String format = upload.getFormat();
-    int assetNum = 0;
+  /**
+   * Builds the multipart form of an upload; package visible for the upload benchmarks.
+   */
+  HttpEntity buildUploadEntity(Component upload, String tagName) throws RepositoryManagerException {
+    UploadForm form = UploadForm.of(upload, tagName);
     MultipartEntityBuilder entityBuilder = MultipartEntityBuilder.create();
-    addAllAttributes(entityBuilder, upload.getAttributes(), format);
-
-    for (Asset asset : upload.getAssets()) {
-      String assetName = "asset" + assetNum++;
-      String attrPrefix = isBlank(format) ? assetName : format + "." + assetName;
 
-      entityBuilder.addBinaryBody(assetName, asset.getData(), APPLICATION_OCTET_STREAM, asset.getFilename());
-
-      addAllAttributes(entityBuilder, asset.getAttributes(), attrPrefix);
+    for (UploadForm.Part part : form.getParts()) {
+      Asset asset = part.getAsset();
+      if (asset == null) {
+        entityBuilder.addPart(part.getName(), new StringBody(part.getValue(), TEXT_PLAIN));
+      }
+      else {
+        entityBuilder.addPart(part.getName(), assetBody(asset));
+      }
     }
 
-    if (isNotBlank(tagName)) {
-      String tagKey = isBlank(format) ? "tag" : upload.getFormat() + ".tag";
-      entityBuilder.addPart(tagKey, new StringBody(tagName, TEXT_PLAIN));
-    }
+    HttpEntity entity = entityBuilder.build();
+    // a multipart entity of known length claims to be repeatable, which does not hold for a part read from a stream
+    return form.isRepeatable() ? entity : new HttpEntityWrapper(entity)
+    {
+      @Override
+      public boolean isRepeatable() {
+        return false;
+      }
+    };
+  }
 
-    return entityBuilder.build();
+  /**
+   * Wraps the entity so that its body is written no faster than the throttle allows.
+   */
+  private static HttpEntity throttled(final HttpEntity entity, final UploadThrottle throttle) {
+    return new HttpEntityWrapper(entity)
+    {
+      @Override
+      public void writeTo(final OutputStream out) throws IOException {
+        super.writeTo(throttle.throttle(out));
+      }
+    };
   }
 
-  private static void addAllAttributes(
-      final MultipartEntityBuilder builder,
-      final Map<String, String> attributes,
-      final String attributePrefix)
-  {
-    Map<String, String> prefixedAttributes;
-
-    if (isNotBlank(attributePrefix)) {
-      String prefix = attributePrefix + ".";
-      prefixedAttributes = new HashMap<>(attributes.entrySet().stream().collect(toMap(e -> {
-        String key = e.getKey();
-        return key.startsWith(prefix) ? key : prefix + key;
-      }, Entry::getValue)));
+  /**
+   * Wraps the entity so that the listener learns when the body of each attempt has been written.
+   */
+  private static HttpEntity observed(final HttpEntity entity, final UploadListener listener) {
+    return new HttpEntityWrapper(entity)
+    {
+      @Override
+      public void writeTo(final OutputStream out) throws IOException {
+        long[] written = new long[1];
+        super.writeTo(new FilterOutputStream(out)
+        {
+          @Override
+          public void write(final int b) throws IOException {
+            out.write(b);
+            written[0]++;
+          }
+
+          @Override
+          public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            written[0] += len;
+          }
+        });
+        listener.requestSent(written[0]);
+      }
+    };
+  }
+
+  /**
+   * Returns a body of known length for assets read from a file, so that the upload is not chunked. Assets read from a
+   * file or a source are only opened while their part is written.
+   */
+  private static ContentBody assetBody(final Asset asset) throws RepositoryManagerException {
+    if (asset.getFile() != null) {
+      return new FileChannelBody(asset.getFile(), APPLICATION_OCTET_STREAM, asset.getFilename());
     }
-    else {
-      prefixedAttributes = attributes;
+    if (asset.getSource() != null) {
+      try {
+        return new AssetSourceBody(asset.getSource(), APPLICATION_OCTET_STREAM, asset.getFilename());
+      }
+      catch (IOException e) {
+        throw new RepositoryManagerException("Unable to read asset " + asset.getFilename(), e);
+      }
     }
-
-    for (Entry<String, String> attr : prefixedAttributes.entrySet()) {
-      builder.addPart(attr.getKey(), new StringBody(attr.getValue(), TEXT_PLAIN));
+    InputStream data = asset.getData();
+    if (data instanceof FileInputStream) {
+      try {
+        return new FileChannelBody(((FileInputStream) data).getChannel(), APPLICATION_OCTET_STREAM,
+            asset.getFilename());
+      }
+      catch (IOException e) {
+        throw new RepositoryManagerException("Unable to read asset " + asset.getFilename(), e);
+      }
     }
+    return new InputStreamBody(data, APPLICATION_OCTET_STREAM, asset.getFilename());
   }
 
   private static BasicNameValuePair[] getRequestParameters(final Map<String, String> searchParameters) {
@@ -324,6 +568,21 @@ public class DefaultNexusRepositoryV3Client
         .toArray(BasicNameValuePair[]::new);
   }
 
+  /**
+   * Releases the pooled connections of the underlying {@link HttpClient}, if it can be closed, and stops applying the
+   * upload rate of this client to the other clients of the JVM.
+   */
+  @Override
+  public void close() throws IOException {
+    if (uploadThrottle != null && closed.compareAndSet(false, true)) {
+      UploadThrottle.unregister(maxUploadBytesPerSecond);
+    }
+    HttpClient httpClient = nxrmClient.httpClient();
+    if (httpClient instanceof Closeable) {
+      ((Closeable) httpClient).close();
+    }
+  }
+
   // Visible for testing
   public HttpClient getHttpClient() {
     return nxrmClient.httpClient();
@@ -336,6 +595,6 @@ public class DefaultNexusRepositoryV3Client
 
   // Visible for testing
   public HttpContext getHttpClientContext() {
-    return httpClientContext.orElse(null);
+    return httpClientContext().orElse(null);
   }
 }
@@ -0,0 +1,131 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Multipart body part reading its content through a {@link FileChannel}, so that its length is known up front: the
+ * upload is sent with a {@code Content-Length} rather than chunked.
+ *
+ * A part created from a {@link File} opens the file again for every write and can be sent again, for instance after an
+ * authentication challenge or by a retry. A part created from an already open channel is sent from the current
+ * position of the channel and only once.
+ *
+ * Content is copied to the connection through a {@value #BUFFER_SIZE} byte buffer; the blocking transport writes to
+ * an {@link OutputStream}, so the channel cannot hand the file to the socket directly.
+ *
+ * @since 1.0.14
+ */
+class FileChannelBody
+    extends AbstractContentBody
+{
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  private final File file;
+
+  private final FileChannel channel;
+
+  private final long length;
+
+  private final String filename;
+
+  FileChannelBody(final File file, final ContentType contentType, final String filename) {
+    super(contentType);
+    this.file = requireNonNull(file, "File is required");
+    this.channel = null;
+    this.length = file.length();
+    this.filename = filename;
+  }
+
+  FileChannelBody(final FileChannel channel, final ContentType contentType, final String filename)
+      throws IOException
+  {
+    super(contentType);
+    this.file = null;
+    this.channel = requireNonNull(channel, "Channel is required");
+    this.length = channel.size() - channel.position();
+    this.filename = filename;
+  }
+
+  @Override
+  public String getFilename() {
+    return filename;
+  }
+
+  @Override
+  public void writeTo(final OutputStream out) throws IOException {
+    requireNonNull(out, "Output stream is required");
+    if (file != null) {
+      try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        copy(fileChannel, length, out, file);
+      }
+    }
+    else {
+      copy(channel, length, out, "asset");
+    }
+  }
+
+  /**
+   * Copies {@code length} bytes from the channel to the stream, or the whole channel if the length is not known
+   * ({@code -1}).
+   *
+   * @param description the content, as described by the failure of a short read
+   * @throws IOException if the channel ends before {@code length} bytes have been read
+   */
+  static void copy(
+      final ReadableByteChannel source,
+      final long length,
+      final OutputStream out,
+      final Object description) throws IOException
+  {
+    boolean known = length >= 0;
+    ByteBuffer buffer = ByteBuffer.allocate(known ? (int) Math.min(BUFFER_SIZE, Math.max(length, 1)) : BUFFER_SIZE);
+    long remaining = known ? length : Long.MAX_VALUE;
+    while (remaining > 0) {
+      buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+      int read = source.read(buffer);
+      if (read < 0) {
+        if (!known) {
+          break;
+        }
+        throw new IOException("Unexpected end of " + description + ", " + remaining + " bytes missing");
+      }
+      out.write(buffer.array(), 0, read);
+      remaining -= read;
+    }
+    out.flush();
+  }
+
+  @Override
+  public String getTransferEncoding() {
+    return MIME.ENC_BINARY;
+  }
+
+  @Override
+  public long getContentLength() {
+    return length;
+  }
+}
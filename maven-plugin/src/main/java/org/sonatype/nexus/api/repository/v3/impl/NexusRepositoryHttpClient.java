@@ -13,34 +13,59 @@
 package org.sonatype.nexus.api.repository.v3.impl;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
 import org.sonatype.nexus.api.repository.v3.impl.rest.NxrmResponseException;
 import org.sonatype.nexus.api.repository.v3.impl.rest.NxrmResponseHandler;
 
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.NoHttpResponseException;
 import org.apache.http.StatusLine;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.impl.client.BasicResponseHandler;
 import org.apache.http.protocol.HttpContext;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Simple wrapper for a {@link org.apache.http.client.HttpClient} that provides request executions that will wrap
  * exceptions into {@link RepositoryManagerException}s
  *
+ * Requests failing with a transient error are retried according to a {@link RetryPolicy}. Idempotent requests are
+ * retried when the connection fails, times out or is closed before the response is complete, and after a {@code 429},
+ * {@code 502}, {@code 503} or {@code 504} response, but not when the response cannot be handled. Other requests
+ * are only retried when the server cannot have processed them: the connection could not be established, or the server
+ * answered {@code 429} or {@code 503}. A request whose entity is not repeatable is never retried. A retry after a
+ * response with a {@code Retry-After} header waits at least as long as the header asks for. An optional
+ * {@link CircuitBreaker} fails attempts without sending them while NXRM appears to be down; it counts requests once
+ * their retries are exhausted, and a retry waits for it to close as long as the retry policy allows.
+ *
  * @since 3.0
  */
 class NexusRepositoryHttpClient
 {
   private static final String GENERIC_REQUEST_NAME = "Request";
 
-  private static final NxrmResponseHandler<Void> NOOP_RESPONSE_HANDLER = new NxrmResponseHandler<Void>()
+  static final NxrmResponseHandler<Void> NOOP_RESPONSE_HANDLER = new NxrmResponseHandler<Void>()
   {
     @Override
     protected Void handle(final String responseBody, final StatusLine statusLine) {
@@ -48,10 +73,35 @@ class NexusRepositoryHttpClient
     }
   };
 
+  private static final Set<String> IDEMPOTENT_METHODS =
+      new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE"));
+
   private final HttpClient delegate;
 
+  private final RetryPolicy retryPolicy;
+
+  private final CircuitBreaker circuitBreaker;
+
   public NexusRepositoryHttpClient(final HttpClient delegate) {
+    this(delegate, RetryPolicy.none());
+  }
+
+  public NexusRepositoryHttpClient(final HttpClient delegate, final RetryPolicy retryPolicy) {
+    this(delegate, retryPolicy, null);
+  }
+
+  /**
+   * @param circuitBreaker the circuit breaker checked before every attempt, may be {@code null}
+   * @since 1.0.14
+   */
+  NexusRepositoryHttpClient(
+      final HttpClient delegate,
+      final RetryPolicy retryPolicy,
+      final CircuitBreaker circuitBreaker)
+  {
     this.delegate = requireNonNull(delegate, "Delegate HttpClient is required");
+    this.retryPolicy = requireNonNull(retryPolicy, "Retry policy is required");
+    this.circuitBreaker = circuitBreaker;
   }
 
   public HttpClient httpClient() {
@@ -74,42 +124,253 @@ class NexusRepositoryHttpClient
   /**
    * Executes a {@link HttpUriRequest} using the provided {@link ResponseHandler} and optional {@link HttpContext}.
    * Exceptions are wrapped into a {@link RepositoryManagerException} and referenced by the supplied request name.
+   * The request is considered idempotent if its HTTP method is.
    */
   public <T> T execute(
       final HttpUriRequest request,
       final NxrmResponseHandler<T> responseHandler,
       final Optional<HttpContext> context,
       final Optional<String> requestName) throws RepositoryManagerException
+  {
+    requireNonNull(request, "HTTP request is required");
+    return execute(request, responseHandler, context, requestName, isIdempotent(request.getMethod()));
+  }
+
+  /**
+   * Executes a {@link HttpUriRequest} using the provided {@link ResponseHandler} and optional {@link HttpContext},
+   * retrying it according to the {@link RetryPolicy} of this client. Exceptions are wrapped into a
+   * {@link RepositoryManagerException} and referenced by the supplied request name.
+   *
+   * @param idempotent whether repeating the request after it was processed has the same effect as processing it once
+   */
+  public <T> T execute(
+      final HttpUriRequest request,
+      final NxrmResponseHandler<T> responseHandler,
+      final Optional<HttpContext> context,
+      final Optional<String> requestName,
+      final boolean idempotent) throws RepositoryManagerException
+  {
+    return execute(request, responseHandler, context, requestName, idempotent, null);
+  }
+
+  /**
+   * Executes a {@link HttpUriRequest} like {@link #execute(HttpUriRequest, NxrmResponseHandler, Optional, Optional,
+   * boolean)}, sending each attempt only once the given limiter allows it and reporting the outcome of the attempt to
+   * it. A {@code Retry-After} header on a {@code 429} or {@code 503} response extends the backoff before the retry.
+   *
+   * @param limiter the limiter of concurrent requests, may be {@code null}
+   * @since 1.0.14
+   */
+  <T> T execute(
+      final HttpUriRequest request,
+      final NxrmResponseHandler<T> responseHandler,
+      final Optional<HttpContext> context,
+      final Optional<String> requestName,
+      final boolean idempotent,
+      final AdaptiveLimiter limiter) throws RepositoryManagerException
   {
     requireNonNull(request, "HTTP request is required");
     requireNonNull(responseHandler, "Response handler is required");
 
     String requestNameStr = requestName.orElse(GENERIC_REQUEST_NAME);
+    long start = System.nanoTime();
 
+    for (int attempt = 1; ; attempt++) {
+      if (circuitBreaker != null) {
+        long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+        circuitBreaker.beforeAttempt(requestNameStr,
+            attempt > 1 ? Math.max(0, retryPolicy.getMaxElapsedMillis() - elapsedMillis) : 0);
+      }
+      AdaptiveLimiter.Permit permit = limiter != null ? acquire(requestNameStr, limiter) : null;
+      HttpEntity entity = permit != null ? observe(request, permit) : null;
+      try {
+        T result = delegate.execute(request, responseHandler, context.orElse(null));
+        if (circuitBreaker != null) {
+          circuitBreaker.succeeded();
+        }
+        if (permit != null) {
+          permit.succeeded(contentLength(request));
+        }
+        return result;
+      }
+      catch (IOException e) {
+        if (permit != null) {
+          if (isOverloaded(e)) {
+            permit.overloaded(((HttpResponseException) e).getStatusCode(), retryAfterMillis(e));
+          }
+          else {
+            permit.failed();
+          }
+        }
+        if (attempt >= retryPolicy.getMaxAttempts() || !isRepeatable(request) || !isRetryable(e, idempotent)) {
+          throw failed(requestNameStr, e);
+        }
+        long backoffMillis = Math.max(retryPolicy.backoffMillis(attempt), retryAfterMillis(e));
+        long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (elapsedMillis + backoffMillis > retryPolicy.getMaxElapsedMillis()) {
+          throw failed(requestNameStr, e);
+        }
+        sleep(requestNameStr, backoffMillis, e);
+      }
+      catch (RuntimeException | Error e) {
+        if (permit != null) {
+          permit.failed();
+        }
+        throw e;
+      }
+      finally {
+        if (entity != null) {
+          ((HttpEntityEnclosingRequest) request).setEntity(entity);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reports a request which failed after its last attempt to the circuit breaker.
+   */
+  private RepositoryManagerException failed(final String requestName, final IOException e) {
+    if (circuitBreaker != null) {
+      circuitBreaker.failed(e);
+    }
+    return wrap(requestName, e);
+  }
+
+  /**
+   * Tells the permit when the body of the request has been sent, so that the limiter compares the time NXRM takes to
+   * respond rather than the time the body takes to transfer.
+   *
+   * @return the entity of the request, to be restored once the attempt is done, or {@code null} if it has none
+   */
+  private static HttpEntity observe(final HttpUriRequest request, final AdaptiveLimiter.Permit permit) {
+    if (!(request instanceof HttpEntityEnclosingRequest)) {
+      return null;
+    }
+    HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+    HttpEntity entity = enclosing.getEntity();
+    if (entity == null) {
+      return null;
+    }
+    enclosing.setEntity(new HttpEntityWrapper(entity)
+    {
+      @Override
+      public void writeTo(final OutputStream out) throws IOException {
+        super.writeTo(out);
+        permit.sent();
+      }
+    });
+    return entity;
+  }
+
+  private static AdaptiveLimiter.Permit acquire(
+      final String requestName,
+      final AdaptiveLimiter limiter) throws RepositoryManagerException
+  {
     try {
-      return delegate.execute(request, responseHandler, context.orElse(null));
+      return limiter.acquire();
     }
-    catch (NxrmResponseException e) {
-      throw unsuccessfulEx(requestNameStr, e, e.getNxrmMessage().orElse(null));
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RepositoryManagerException(requestName + " was interrupted while waiting to be sent", e);
     }
-    catch (HttpResponseException e) {
-      throw unsuccessfulEx(requestNameStr, e, null);
+  }
+
+  private static long contentLength(final HttpUriRequest request) {
+    if (request instanceof HttpEntityEnclosingRequest) {
+      HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+      return entity != null ? entity.getContentLength() : 0;
+    }
+    return 0;
+  }
+
+  /**
+   * Returns {@code true} if the given failure is NXRM rejecting a request because it is too busy.
+   */
+  static boolean isOverloaded(final IOException e) {
+    if (e instanceof HttpResponseException) {
+      int statusCode = ((HttpResponseException) e).getStatusCode();
+      return statusCode == 429 || statusCode == 503;
+    }
+    return false;
+  }
+
+  private static long retryAfterMillis(final IOException e) {
+    return e instanceof NxrmResponseException && isOverloaded(e)
+        ? ((NxrmResponseException) e).getRetryAfterMillis().orElse(0L)
+        : 0;
+  }
+
+  private static boolean isRepeatable(final HttpUriRequest request) {
+    if (request instanceof HttpEntityEnclosingRequest) {
+      HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+      return entity == null || entity.isRepeatable();
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if a request which can be sent again may be retried after the given failure.
+   */
+  static boolean isRetryable(final IOException e, final boolean idempotent) {
+    if (e instanceof HttpResponseException) {
+      int statusCode = ((HttpResponseException) e).getStatusCode();
+      // busy servers reject requests with these before processing them
+      if (isOverloaded(e)) {
+        return true;
+      }
+      return idempotent && (statusCode == 502 || statusCode == 504);
+    }
+    if (e instanceof ConnectException || e instanceof ConnectTimeoutException
+        || e instanceof HttpConnectTimeoutException) {
+      return true; // the request was never sent
+    }
+    // only the connection failing is transient; a response which could not be parsed would fail the same way again
+    return idempotent && (e instanceof SocketException || e instanceof SocketTimeoutException
+        || e instanceof NoHttpResponseException || e instanceof ConnectionClosedException);
+  }
+
+  static boolean isIdempotent(final String method) {
+    return IDEMPOTENT_METHODS.contains(method);
+  }
+
+  private static void sleep(
+      final String requestName,
+      final long millis,
+      final IOException cause) throws RepositoryManagerException
+  {
+    try {
+      Thread.sleep(millis);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      RepositoryManagerException interrupted =
+          new RepositoryManagerException(requestName + " was interrupted while waiting to retry", e);
+      interrupted.addSuppressed(cause);
+      throw interrupted;
+    }
+  }
+
+  static RepositoryManagerException wrap(final String requestName, final IOException e) {
+    if (e instanceof NxrmResponseException) {
+      return unsuccessfulEx(requestName, (NxrmResponseException) e,
+          ((NxrmResponseException) e).getNxrmMessage().orElse(null));
     }
-    catch (ClientProtocolException e) {
-      throw new RepositoryManagerException(requestNameStr + " was unsuccessful", e);
+    if (e instanceof HttpResponseException) {
+      return unsuccessfulEx(requestName, (HttpResponseException) e, null);
     }
-    catch (IOException e) {
-      throw new RepositoryManagerException(requestNameStr + " was unable to complete", e);
+    if (e instanceof ClientProtocolException) {
+      return new RepositoryManagerException(requestName + " was unsuccessful", e);
     }
+    return new RepositoryManagerException(requestName + " was unable to complete", e);
   }
 
-  private RepositoryManagerException unsuccessfulEx(
+  private static RepositoryManagerException unsuccessfulEx(
       final String request,
       final HttpResponseException cause,
-      final String message) throws RepositoryManagerException
+      final String message)
   {
     int statusCode = cause.getStatusCode();
-    throw new RepositoryManagerException(request + " was unsuccessful (" + statusCode + " response from server)", cause,
-        statusCode, message);
+    return new RepositoryManagerException(request + " was unsuccessful (" + statusCode + " response from server)",
+        cause, statusCode, message);
   }
 }
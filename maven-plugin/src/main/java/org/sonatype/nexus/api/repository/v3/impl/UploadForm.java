@@ -0,0 +1,130 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.sonatype.nexus.api.repository.v3.Asset;
+import org.sonatype.nexus.api.repository.v3.Component;
+
+import static java.util.stream.Collectors.toMap;
+import static org.sonatype.nexus.api.common.NexusStringUtils.isBlank;
+import static org.sonatype.nexus.api.common.NexusStringUtils.isNotBlank;
+
+/**
+ * The parts of the multipart form uploading a {@link Component}, in the order they are sent, independent of the HTTP
+ * transport sending them.
+ *
+ * @since 1.0.14
+ */
+final class UploadForm
+{
+  private final List<Part> parts;
+
+  private UploadForm(final List<Part> parts) {
+    this.parts = Collections.unmodifiableList(parts);
+  }
+
+  static UploadForm of(final Component upload, final String tagName) {
+    String format = upload.getFormat();
+    int assetNum = 0;
+    List<Part> parts = new ArrayList<>();
+    addAllAttributes(parts, upload.getAttributes(), format);
+
+    for (Asset asset : upload.getAssets()) {
+      String assetName = "asset" + assetNum++;
+      String attrPrefix = isBlank(format) ? assetName : format + "." + assetName;
+
+      parts.add(new Part(assetName, null, asset));
+
+      addAllAttributes(parts, asset.getAttributes(), attrPrefix);
+    }
+
+    if (isNotBlank(tagName)) {
+      String tagKey = isBlank(format) ? "tag" : upload.getFormat() + ".tag";
+      parts.add(new Part(tagKey, tagName, null));
+    }
+
+    return new UploadForm(parts);
+  }
+
+  List<Part> getParts() {
+    return parts;
+  }
+
+  /**
+   * @return {@code true} if every asset is read from a file or a source, so that the form can be sent again.
+   */
+  boolean isRepeatable() {
+    return parts.stream().allMatch(part -> part.getAsset() == null || part.getAsset().getFile() != null
+        || part.getAsset().getSource() != null);
+  }
+
+  private static void addAllAttributes(
+      final List<Part> parts,
+      final Map<String, String> attributes,
+      final String attributePrefix)
+  {
+    Map<String, String> prefixedAttributes;
+
+    if (isNotBlank(attributePrefix)) {
+      String prefix = attributePrefix + ".";
+      prefixedAttributes = new HashMap<>(attributes.entrySet().stream().collect(toMap(e -> {
+        String key = e.getKey();
+        return key.startsWith(prefix) ? key : prefix + key;
+      }, Entry::getValue)));
+    }
+    else {
+      prefixedAttributes = attributes;
+    }
+
+    for (Entry<String, String> attr : prefixedAttributes.entrySet()) {
+      parts.add(new Part(attr.getKey(), attr.getValue(), null));
+    }
+  }
+
+  /**
+   * A form field, holding either a text value or an asset payload.
+   */
+  static final class Part
+  {
+    private final String name;
+
+    private final String value;
+
+    private final Asset asset;
+
+    private Part(final String name, final String value, final Asset asset) {
+      this.name = name;
+      this.value = value;
+      this.asset = asset;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    String getValue() {
+      return value;
+    }
+
+    Asset getAsset() {
+      return asset;
+    }
+  }
+}
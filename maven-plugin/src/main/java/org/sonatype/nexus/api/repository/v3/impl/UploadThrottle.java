@@ -0,0 +1,156 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.sonatype.nexus.api.common.ArgumentUtils.checkArgument;
+
+/**
+ * Token bucket limiting the rate at which upload bodies are written, shared by all clients of the JVM so that
+ * concurrent uploads together stay below the rate, whatever client, module or build they belong to. Every client
+ * limiting its uploads registers its rate; the shared bucket applies the lowest rate of the clients not closed yet.
+ *
+ * The bucket holds a tenth of a second's worth of bytes, and at least {@link #CHUNK_SIZE}, so that uploads starting
+ * together do not burst far beyond the rate. Writers reserve their bytes before sleeping, which serves them in turn
+ * without holding a lock while waiting.
+ *
+ * @since 1.0.14
+ */
+class UploadThrottle
+{
+  /**
+   * Largest number of bytes written at once by a throttled stream.
+   */
+  static final int CHUNK_SIZE = 16 * 1024;
+
+  private static final UploadThrottle SHARED = new UploadThrottle();
+
+  /**
+   * The number of registered clients per rate, guarded by {@link #SHARED}.
+   */
+  private static final NavigableMap<Long, Integer> RATES = new TreeMap<>();
+
+  private long bytesPerSecond;
+
+  private double capacity;
+
+  private double tokens;
+
+  private long refilledNanos = System.nanoTime();
+
+  private UploadThrottle() {
+  }
+
+  UploadThrottle(final long bytesPerSecond) {
+    setRate(bytesPerSecond);
+  }
+
+  /**
+   * Registers a client limited to the given rate and returns the throttle shared by the JVM.
+   */
+  static UploadThrottle register(final long bytesPerSecond) {
+    checkArgument(bytesPerSecond > 0, "Upload rate must be greater than zero");
+    synchronized (SHARED) {
+      RATES.merge(bytesPerSecond, 1, Integer::sum);
+      SHARED.setRate(RATES.firstKey());
+    }
+    return SHARED;
+  }
+
+  /**
+   * Unregisters a client registered with the given rate, once it is closed.
+   */
+  static void unregister(final long bytesPerSecond) {
+    synchronized (SHARED) {
+      RATES.computeIfPresent(bytesPerSecond, (rate, clients) -> clients > 1 ? clients - 1 : null);
+      if (!RATES.isEmpty()) {
+        SHARED.setRate(RATES.firstKey());
+      }
+    }
+  }
+
+  private synchronized void setRate(final long bytesPerSecond) {
+    checkArgument(bytesPerSecond > 0, "Upload rate must be greater than zero");
+    if (bytesPerSecond != this.bytesPerSecond) {
+      refill();
+      this.bytesPerSecond = bytesPerSecond;
+      this.capacity = Math.max(bytesPerSecond / 10.0, CHUNK_SIZE);
+      this.tokens = Math.min(tokens, capacity);
+    }
+  }
+
+  synchronized long getRate() {
+    return bytesPerSecond;
+  }
+
+  /**
+   * Waits until the given number of bytes may be written without exceeding the rate.
+   */
+  void acquire(final int bytes) throws InterruptedIOException {
+    long waitNanos;
+    synchronized (this) {
+      refill();
+      tokens -= bytes;
+      waitNanos = tokens >= 0 ? 0 : (long) (-tokens * SECONDS.toNanos(1) / bytesPerSecond);
+    }
+    if (waitNanos > 0) {
+      try {
+        NANOSECONDS.sleep(waitNanos);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for upload bandwidth");
+      }
+    }
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    if (bytesPerSecond > 0) {
+      tokens = Math.min(capacity, tokens + (now - refilledNanos) * (double) bytesPerSecond / SECONDS.toNanos(1));
+    }
+    refilledNanos = now;
+  }
+
+  /**
+   * Returns a stream writing to the given one no faster than this throttle allows.
+   */
+  OutputStream throttle(final OutputStream out) {
+    return new FilterOutputStream(out)
+    {
+      @Override
+      public void write(final int b) throws IOException {
+        acquire(1);
+        out.write(b);
+      }
+
+      @Override
+      public void write(final byte[] b, final int off, final int len) throws IOException {
+        for (int written = 0; written < len; ) {
+          int chunk = Math.min(CHUNK_SIZE, len - written);
+          acquire(chunk);
+          out.write(b, off + written, chunk);
+          written += chunk;
+        }
+      }
+    };
+  }
+}
@@ -12,38 +12,51 @@
  */
 package org.sonatype.nexus.api.repository.v3.impl.rest;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 import org.sonatype.nexus.api.repository.v3.ComponentInfo;
-import org.sonatype.nexus.api.repository.v3.rest.RestResponse;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.apache.http.StatusLine;
 
 import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
 
 /**
  * Simple {@link org.apache.http.client.ResponseHandler} that parses a Nexus Repository Manager 3.x REST response for
  * a list of {@link ComponentInfo}
  *
+ * The response is parsed in a single pass: the parser seeks to {@code data[componentListKey]} and binds each
+ * component as it is read. When constructed with a {@link Consumer} each component is handed to it and an empty list
+ * is returned, so callers do not have to hold every component in memory.
+ *
  * @since 3.1
  */
 public class ComponentInfoResponseHandler
-    extends NxrmResponseHandler<List<ComponentInfo>>
+    extends NxrmStreamingResponseHandler<List<ComponentInfo>>
 {
-  private static final Gson GSON = new Gson();
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
-  private static final Type COMPONENT_INFO_LIST_TYPE = new TypeToken<List<ComponentInfo>>()
-  {
-  }.getType();
+  private static final String DATA_KEY = "data";
 
   private final String componentListKey;
 
+  private final Consumer<ComponentInfo> consumer;
+
   ComponentInfoResponseHandler(final String componentListKey) {
     this.componentListKey = componentListKey;
+    this.consumer = null;
+  }
+
+  ComponentInfoResponseHandler(final String componentListKey, final Consumer<ComponentInfo> consumer) {
+    this.componentListKey = componentListKey;
+    this.consumer = requireNonNull(consumer);
   }
 
   public String getComponentListKey() {
@@ -51,13 +64,74 @@ public class ComponentInfoResponseHandler
   }
 
   @Override
-  protected List<ComponentInfo> handle(final String responseBody, final StatusLine statusLine) {
-    Map<String, Object> tagResponseData = RestResponse.parseJson(responseBody).getData();
+  protected List<ComponentInfo> handle(final Reader responseBody, final StatusLine statusLine) throws IOException {
+    List<ComponentInfo> components = consumer == null ? new ArrayList<>() : emptyList();
+    Consumer<ComponentInfo> sink = consumer == null ? components::add : consumer;
+
+    try (JsonParser parser = JSON_FACTORY.createParser(responseBody)) {
+      if (seekToField(parser, DATA_KEY) && seekToField(parser, componentListKey)
+          && parser.currentToken() == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          sink.accept(readComponentInfo(parser));
+        }
+      }
+    }
+    return components;
+  }
 
-    if (tagResponseData == null || !tagResponseData.containsKey(componentListKey)) {
-      return emptyList();
+  /**
+   * Advances the parser to the value of the named field of the object the parser is positioned at (or, at the start
+   * of the document, the root object), skipping the values of all other fields.
+   *
+   * @return {@code true} if the field was found and the parser is positioned at its value
+   */
+  private static boolean seekToField(final JsonParser parser, final String name) throws IOException {
+    if (parser.currentToken() == null) {
+      parser.nextToken();
+    }
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      return false;
     }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      if (name.equals(field)) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
 
-    return GSON.fromJson(GSON.toJson(tagResponseData.get(componentListKey)), COMPONENT_INFO_LIST_TYPE);
+  /**
+   * Reads the component object the parser is positioned at, ignoring every field but its coordinates.
+   */
+  static ComponentInfo readComponentInfo(final JsonParser parser) throws IOException {
+    String group = null;
+    String name = null;
+    String version = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if (value == JsonToken.VALUE_STRING) {
+        switch (field) {
+          case "group":
+            group = parser.getText();
+            break;
+          case "name":
+            name = parser.getText();
+            break;
+          case "version":
+            version = parser.getText();
+            break;
+          default:
+            break;
+        }
+      }
+      else {
+        parser.skipChildren();
+      }
+    }
+    return new ComponentInfo(group, name, version);
   }
 }
@@ -13,6 +13,7 @@
 package org.sonatype.nexus.api.repository.v3.impl.rest;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 
 import org.sonatype.nexus.api.repository.v3.Repository;
@@ -28,7 +29,7 @@ import org.apache.http.StatusLine;
  * @since 3.0
  */
 public class GetRepositoriesResponseHandler
-    extends NxrmResponseHandler<List<Repository>>
+    extends NxrmStreamingResponseHandler<List<Repository>>
 {
   private static final ObjectReader READER = new ObjectMapper().readerFor(new TypeReference<List<Repository>>()
   {
@@ -38,7 +39,7 @@ public class GetRepositoriesResponseHandler
    * Parses the response body as a {@link List} of {@link Repository} objects
    */
   @Override
-  protected List<Repository> handle(final String responseBody, final StatusLine statusLine) throws IOException {
+  protected List<Repository> handle(final Reader responseBody, final StatusLine statusLine) throws IOException {
     return READER.readValue(responseBody);
   }
 }
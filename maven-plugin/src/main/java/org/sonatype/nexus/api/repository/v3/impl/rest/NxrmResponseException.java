@@ -30,15 +30,38 @@ public class NxrmResponseException
 
   private final String responseBody;
 
+  private final Long retryAfterMillis;
+
   public NxrmResponseException(final int statusCode, final String s, final String responseBody) {
+    this(statusCode, s, responseBody, null);
+  }
+
+  /**
+   * @param retryAfterMillis how long the {@code Retry-After} header of the response asked to wait, may be {@code null}
+   * @since 1.0.14
+   */
+  public NxrmResponseException(
+      final int statusCode,
+      final String s,
+      final String responseBody,
+      final Long retryAfterMillis)
+  {
     super(statusCode, s);
     this.responseBody = responseBody;
+    this.retryAfterMillis = retryAfterMillis;
   }
 
   public Optional<String> getResponseBody() {
     return ofNullable(responseBody);
   }
 
+  /**
+   * @since 1.0.14
+   */
+  public Optional<Long> getRetryAfterMillis() {
+    return ofNullable(retryAfterMillis);
+  }
+
   public Optional<String> getNxrmMessage() {
     return ofNullable(getResponseBody().map(body -> {
       try {
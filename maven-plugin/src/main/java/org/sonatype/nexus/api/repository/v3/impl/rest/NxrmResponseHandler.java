@@ -13,21 +13,35 @@
 package org.sonatype.nexus.api.repository.v3.impl.rest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Date;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.apache.http.annotation.Contract;
 import org.apache.http.annotation.ThreadingBehavior;
 import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.entity.ContentType;
 import org.apache.http.util.EntityUtils;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.http.HttpHeaders.RETRY_AFTER;
 import static org.apache.http.HttpStatus.SC_NOT_FOUND;
 
 /**
  * Simple response handler similar to {@link org.apache.http.impl.client.BasicResponseHandler}, but will throw a
  * {@link NxrmResponseException} for non 2xx responses. Allows for subclasses to specify if 404 (Not Found) responses
  * should be allowed.
+ *
+ * The body of a non 2xx response is only read up to {@link #MAX_ERROR_BODY_LENGTH} characters. Subclasses which
+ * expect large responses should extend {@link NxrmStreamingResponseHandler} rather than buffering the whole body.
  */
 @Contract(threading = ThreadingBehavior.IMMUTABLE)
 public abstract class NxrmResponseHandler<T>
@@ -35,6 +49,11 @@ public abstract class NxrmResponseHandler<T>
 {
   protected static final boolean ALLOW_NOT_FOUND_STATUS = true;
 
+  /**
+   * Maximum number of characters of an error response body kept for the {@link NxrmResponseException}.
+   */
+  static final int MAX_ERROR_BODY_LENGTH = 64 * 1024;
+
   private final boolean allowNotFoundStatus;
 
   protected NxrmResponseHandler() {
@@ -47,18 +66,74 @@ public abstract class NxrmResponseHandler<T>
 
   protected abstract T handle(String responseBody, StatusLine statusLine) throws IOException;
 
+  /**
+   * Handles the entity of an allowed response. By default the entity is read into a {@link String} and passed to
+   * {@link #handle(String, StatusLine)}.
+   *
+   * @param entity the response entity, may be {@code null}
+   */
+  protected T handleEntity(final HttpEntity entity, final StatusLine statusLine) throws IOException {
+    return handle(entity != null ? EntityUtils.toString(entity) : null, statusLine);
+  }
+
   @Override
   public T handleResponse(final HttpResponse response) throws IOException {
     final StatusLine statusLine = response.getStatusLine();
     final HttpEntity entity = response.getEntity();
-    final String body = entity != null ? EntityUtils.toString(entity) : null;
     final int statusCode = statusLine.getStatusCode();
 
     if (statusIsNotAllowed(statusCode)) {
-      throw new NxrmResponseException(statusCode, statusLine.getReasonPhrase(), body);
+      throw new NxrmResponseException(statusCode, statusLine.getReasonPhrase(), readErrorBody(entity),
+          retryAfterMillis(response));
+    }
+
+    return handleEntity(entity, statusLine);
+  }
+
+  /**
+   * Reads the {@code Retry-After} header of a response, given either as a number of seconds or as an HTTP date.
+   *
+   * @return the time to wait in milliseconds, or {@code null} if the header is missing or invalid
+   */
+  static Long retryAfterMillis(final HttpResponse response) {
+    Header header = response.getFirstHeader(RETRY_AFTER);
+    if (header == null || header.getValue() == null) {
+      return null;
     }
+    String value = header.getValue().trim();
+    try {
+      return SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+    }
+    catch (NumberFormatException e) {
+      Date date = DateUtils.parseDate(value);
+      return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : null;
+    }
+  }
+
+  private static String readErrorBody(final HttpEntity entity) throws IOException {
+    if (entity == null) {
+      return null;
+    }
+    try (InputStream content = entity.getContent()) {
+      if (content == null) {
+        return null;
+      }
+      Reader reader = new InputStreamReader(content, charsetOf(entity));
+      StringBuilder body = new StringBuilder();
+      char[] buffer = new char[4096];
+      int read;
+      while (body.length() < MAX_ERROR_BODY_LENGTH
+          && (read = reader.read(buffer, 0, Math.min(buffer.length, MAX_ERROR_BODY_LENGTH - body.length()))) != -1) {
+        body.append(buffer, 0, read);
+      }
+      return body.toString();
+    }
+  }
 
-    return handle(body, statusLine);
+  static Charset charsetOf(final HttpEntity entity) {
+    ContentType contentType = ContentType.get(entity);
+    Charset charset = contentType != null ? contentType.getCharset() : null;
+    return charset != null ? charset : UTF_8;
   }
 
   private boolean statusIsNotAllowed(int statusCode) {
@@ -0,0 +1,64 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+
+/**
+ * Response handler which reads the body of allowed responses from the entity stream instead of buffering it into a
+ * {@link String} first, for responses which can be large. Error responses are handled as by
+ * {@link NxrmResponseHandler}.
+ */
+public abstract class NxrmStreamingResponseHandler<T>
+    extends NxrmResponseHandler<T>
+{
+  protected NxrmStreamingResponseHandler() {
+    super();
+  }
+
+  protected NxrmStreamingResponseHandler(final boolean allowNotFoundStatus) {
+    super(allowNotFoundStatus);
+  }
+
+  /**
+   * Handles the response body.
+   *
+   * @param body a reader over the response body, decoded using the charset of the response (UTF-8 by default); empty
+   *          when the response has no entity. The handler does not need to read it to the end or close it.
+   */
+  protected abstract T handle(Reader body, StatusLine statusLine) throws IOException;
+
+  @Override
+  protected T handleEntity(final HttpEntity entity, final StatusLine statusLine) throws IOException {
+    InputStream content = entity != null ? entity.getContent() : null;
+    if (content == null) {
+      return handle(new StringReader(""), statusLine);
+    }
+    // closing the content releases the connection, consuming whatever the handler did not read
+    try (Reader reader = new InputStreamReader(content, charsetOf(entity))) {
+      return handle(reader, statusLine);
+    }
+  }
+
+  @Override
+  protected T handle(final String responseBody, final StatusLine statusLine) throws IOException {
+    return handle(new StringReader(responseBody != null ? responseBody : ""), statusLine);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl.rest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sonatype.nexus.api.repository.v3.AssetInfo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.http.StatusLine;
+
+/**
+ * Response handler to parse a page of the NXRM 3.x asset search endpoint response
+ *
+ * @since 1.0.14
+ */
+public class SearchAssetsResponseHandler
+    extends NxrmStreamingResponseHandler<SearchAssetsResponseHandler.Page>
+{
+  private static final ObjectReader READER = new ObjectMapper().readerFor(Page.class);
+
+  @Override
+  protected Page handle(final Reader responseBody, final StatusLine statusLine) throws IOException {
+    return READER.readValue(responseBody);
+  }
+
+  /**
+   * A page of search results; {@link #getContinuationToken()} is {@code null} on the last page.
+   */
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Page
+  {
+    private List<AssetInfo> items = new ArrayList<>();
+
+    private String continuationToken;
+
+    public List<AssetInfo> getItems() {
+      return items;
+    }
+
+    public void setItems(final List<AssetInfo> items) {
+      this.items = items;
+    }
+
+    public String getContinuationToken() {
+      return continuationToken;
+    }
+
+    public void setContinuationToken(final String continuationToken) {
+      this.continuationToken = continuationToken;
+    }
+  }
+}
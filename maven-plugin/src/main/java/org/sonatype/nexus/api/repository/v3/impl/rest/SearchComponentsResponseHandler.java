@@ -0,0 +1,83 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl.rest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.http.StatusLine;
+
+import static org.sonatype.nexus.api.repository.v3.impl.rest.ComponentInfoResponseHandler.readComponentInfo;
+
+/**
+ * Response handler to parse a page of the NXRM 3.x component search endpoint response. Only the coordinates of each
+ * component are kept; its assets are skipped as they are read.
+ *
+ * @since 1.0.14
+ */
+public class SearchComponentsResponseHandler
+    extends NxrmStreamingResponseHandler<SearchComponentsResponseHandler.Page>
+{
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  @Override
+  protected Page handle(final Reader responseBody, final StatusLine statusLine) throws IOException {
+    Page page = new Page();
+    try (JsonParser parser = JSON_FACTORY.createParser(responseBody)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return page;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            page.items.add(readComponentInfo(parser));
+          }
+        }
+        else if ("continuationToken".equals(field) && value == JsonToken.VALUE_STRING) {
+          page.continuationToken = parser.getText();
+        }
+        else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return page;
+  }
+
+  /**
+   * A page of search results; {@link #getContinuationToken()} is {@code null} on the last page.
+   */
+  public static class Page
+  {
+    private final List<ComponentInfo> items = new ArrayList<>();
+
+    private String continuationToken;
+
+    public List<ComponentInfo> getItems() {
+      return items;
+    }
+
+    public String getContinuationToken() {
+      return continuationToken;
+    }
+  }
+}
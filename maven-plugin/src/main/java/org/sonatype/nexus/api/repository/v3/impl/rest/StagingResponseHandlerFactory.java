@@ -12,6 +12,10 @@
  */
 package org.sonatype.nexus.api.repository.v3.impl.rest;
 
+import java.util.function.Consumer;
+
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+
 /**
  * Factory class to construct NXRM3 REST response handlers
  */
@@ -43,4 +47,12 @@ public class StagingResponseHandlerFactory
   public static ComponentInfoResponseHandler newDeleteHandler() {
     return new ComponentInfoResponseHandler(DELETE_KEY);
   }
+
+  public static ComponentInfoResponseHandler newMoveHandler(final Consumer<ComponentInfo> consumer) {
+    return new ComponentInfoResponseHandler(MOVE_KEY, consumer);
+  }
+
+  public static ComponentInfoResponseHandler newDeleteHandler(final Consumer<ComponentInfo> consumer) {
+    return new ComponentInfoResponseHandler(DELETE_KEY, consumer);
+  }
 }
@@ -0,0 +1,146 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.sonatype.nexus.api.repository.v3.CircuitBreakerPolicy;
+import org.sonatype.nexus.api.repository.v3.ConcurrencyLimit;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3ClientBuilder;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_IDLE_CONNECTION_TIMEOUT_MILLIS;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_KEEP_ALIVE_MILLIS;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_MAX_CONNECTIONS;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
+/**
+ * Connection settings for the NXRM 3 client, as configured on the staging MOJOs.
+ *
+ * @since 1.0.14
+ */
+public class ClientSettings
+{
+  private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+  private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+  private long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+
+  private long validateAfterInactivityMillis = DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
+  private long idleConnectionTimeoutMillis = DEFAULT_IDLE_CONNECTION_TIMEOUT_MILLIS;
+
+  private RetryPolicy retryPolicy = RetryPolicy.none();
+
+  private ConcurrencyLimit uploadConcurrency = ConcurrencyLimit.unlimited();
+
+  private long maxUploadBytesPerSecond;
+
+  private CircuitBreakerPolicy circuitBreakerPolicy = CircuitBreakerPolicy.disabled();
+
+  public ClientSettings withMaxConnections(final int maxConnections, final int maxConnectionsPerRoute) {
+    this.maxConnections = maxConnections;
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    return this;
+  }
+
+  public ClientSettings withKeepAliveMillis(final long keepAliveMillis) {
+    this.keepAliveMillis = keepAliveMillis;
+    return this;
+  }
+
+  public ClientSettings withValidateAfterInactivityMillis(final long validateAfterInactivityMillis) {
+    this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+    return this;
+  }
+
+  public ClientSettings withIdleConnectionTimeoutMillis(final long idleConnectionTimeoutMillis) {
+    this.idleConnectionTimeoutMillis = idleConnectionTimeoutMillis;
+    return this;
+  }
+
+  public ClientSettings withRetryPolicy(final RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+    return this;
+  }
+
+  public ClientSettings withUploadConcurrency(final ConcurrencyLimit uploadConcurrency) {
+    this.uploadConcurrency = uploadConcurrency;
+    return this;
+  }
+
+  public ClientSettings withMaxUploadBytesPerSecond(final long maxUploadBytesPerSecond) {
+    this.maxUploadBytesPerSecond = maxUploadBytesPerSecond;
+    return this;
+  }
+
+  public ClientSettings withCircuitBreakerPolicy(final CircuitBreakerPolicy circuitBreakerPolicy) {
+    this.circuitBreakerPolicy = circuitBreakerPolicy;
+    return this;
+  }
+
+  /**
+   * Settings are equal when clients built from them behave the same; the listener of an upload concurrency limit only
+   * observes it and is not compared.
+   */
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ClientSettings that = (ClientSettings) o;
+    return maxConnections == that.maxConnections && maxConnectionsPerRoute == that.maxConnectionsPerRoute &&
+        keepAliveMillis == that.keepAliveMillis &&
+        validateAfterInactivityMillis == that.validateAfterInactivityMillis &&
+        idleConnectionTimeoutMillis == that.idleConnectionTimeoutMillis &&
+        maxUploadBytesPerSecond == that.maxUploadBytesPerSecond &&
+        Objects.equals(retryPolicy, that.retryPolicy) &&
+        Objects.equals(circuitBreakerPolicy, that.circuitBreakerPolicy) &&
+        Objects.equals(limitSettings(uploadConcurrency), limitSettings(that.uploadConcurrency));
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(maxConnections, maxConnectionsPerRoute, keepAliveMillis, validateAfterInactivityMillis,
+        idleConnectionTimeoutMillis, maxUploadBytesPerSecond, retryPolicy, circuitBreakerPolicy,
+        limitSettings(uploadConcurrency));
+  }
+
+  private static List<Object> limitSettings(final ConcurrencyLimit limit) {
+    return limit == null ? null : Arrays.asList(limit.isAdaptive(), limit.getInitialLimit(), limit.getMaxLimit(),
+        limit.getBackoffRatio(), limit.getLatencyTolerance());
+  }
+
+  /**
+   * Applies these settings to the given client builder.
+   */
+  RepositoryManagerV3ClientBuilder applyTo(final RepositoryManagerV3ClientBuilder builder) {
+    return builder
+        .withMaxConnections(maxConnections, maxConnectionsPerRoute)
+        .withKeepAlive(keepAliveMillis, MILLISECONDS)
+        .withValidateAfterInactivity(validateAfterInactivityMillis, MILLISECONDS)
+        .withIdleConnectionTimeout(idleConnectionTimeoutMillis, MILLISECONDS)
+        .withRetryPolicy(retryPolicy)
+        .withUploadConcurrency(uploadConcurrency)
+        .withMaxUploadBytesPerSecond(maxUploadBytesPerSecond)
+        .withCircuitBreakerPolicy(circuitBreakerPolicy);
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Runs a set of uploads on an {@link UploadExecutor}, with a bounded number of uploads in flight, and reports every
+ * failed upload in a single {@link MojoExecutionException}.
+ *
+ * In fail-fast mode uploads which have not started yet are skipped as soon as one upload fails; uploads which are
+ * already in flight are allowed to finish. Otherwise every upload is attempted.
+ *
+ * @since 1.0.14
+ */
+class ConcurrentUploader
+{
+  /**
+   * A single unit of upload work, usually one component.
+   */
+  @FunctionalInterface
+  interface Upload
+  {
+    void run() throws Exception;
+  }
+
+  private final int threads;
+
+  private final boolean failFast;
+
+  private final UploadExecutor.Mode mode;
+
+  private final Log log;
+
+  /**
+   * @param threads the maximum number of uploads in flight
+   * @param mode the kind of threads running the uploads
+   */
+  ConcurrentUploader(final int threads, final boolean failFast, final UploadExecutor.Mode mode, final Log log) {
+    checkArgument(threads > 0, "Upload threads must be greater than zero");
+    this.threads = threads;
+    this.failFast = failFast;
+    this.mode = mode;
+    this.log = log;
+  }
+
+  /**
+   * Executes the given uploads largest first, by the given number of bytes of each, and waits for all of them to
+   * complete. Starting the largest uploads first keeps a large upload arriving last from stretching the whole run,
+   * while the small uploads fill the threads freed in the meantime.
+   *
+   * @throws MojoExecutionException if one or more uploads failed
+   */
+  void upload(final Map<String, Upload> uploads, final Map<String, Long> sizes) throws MojoExecutionException {
+    upload(largestFirst(uploads, sizes));
+  }
+
+  /**
+   * Executes the given uploads, keyed by a human readable description, and waits for all of them to complete.
+   *
+   * @throws MojoExecutionException if one or more uploads failed
+   */
+  void upload(final Map<String, Upload> uploads) throws MojoExecutionException {
+    if (uploads.isEmpty()) {
+      return;
+    }
+
+    int concurrency = Math.min(threads, uploads.size());
+    UploadExecutor executor = UploadExecutor.create(mode, concurrency);
+    if (mode == UploadExecutor.Mode.VIRTUAL && !executor.isVirtual()) {
+      log.warn(String.format("Virtual threads are not supported by Java %s, uploading using platform threads",
+          System.getProperty("java.version")));
+    }
+    log.debug(String.format("Uploading %d components, %d at a time, using %s threads", uploads.size(), concurrency,
+        executor.isVirtual() ? "virtual" : "platform"));
+
+    AtomicBoolean aborted = new AtomicBoolean();
+    Map<String, Throwable> failures = new LinkedHashMap<>();
+    AtomicInteger skipped = new AtomicInteger();
+
+    try {
+      List<Future<Void>> futures = new ArrayList<>(uploads.size());
+      for (Entry<String, Upload> entry : uploads.entrySet()) {
+        futures.add(executor.submit(() -> {
+          if (aborted.get()) {
+            skipped.incrementAndGet();
+            return null;
+          }
+          try {
+            entry.getValue().run();
+          }
+          catch (Exception e) {
+            if (failFast) {
+              aborted.set(true);
+            }
+            synchronized (failures) {
+              failures.put(entry.getKey(), e);
+            }
+          }
+          return null;
+        }));
+      }
+
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+      throw new MojoExecutionException("Interrupted while uploading components", e);
+    }
+    catch (ExecutionException e) {
+      throw new MojoExecutionException("Unexpected error while uploading components", e.getCause());
+    }
+    finally {
+      executor.close();
+    }
+
+    if (!failures.isEmpty()) {
+      throw failureException(failures, uploads.size(), skipped.get());
+    }
+  }
+
+  /**
+   * Orders the uploads by decreasing size, keeping the order of uploads of the same or an unknown size.
+   */
+  @VisibleForTesting
+  static Map<String, Upload> largestFirst(final Map<String, Upload> uploads, final Map<String, Long> sizes) {
+    List<Entry<String, Upload>> entries = new ArrayList<>(uploads.entrySet());
+    entries.sort(Comparator.comparingLong((Entry<String, Upload> entry) -> sizes.getOrDefault(entry.getKey(), 0L))
+        .reversed());
+
+    Map<String, Upload> ordered = new LinkedHashMap<>();
+    entries.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+    return ordered;
+  }
+
+  private static MojoExecutionException failureException(
+      final Map<String, Throwable> failures,
+      final int total,
+      final int skipped)
+  {
+    StringBuilder message = new StringBuilder(
+        String.format("Failed to upload %d of %d components", failures.size(), total));
+    if (skipped > 0) {
+      message.append(String.format(" (%d not attempted)", skipped));
+    }
+    message.append(':');
+
+    List<Throwable> causes = new ArrayList<>();
+    for (Entry<String, Throwable> failure : failures.entrySet()) {
+      message.append(System.lineSeparator()).append("  - ").append(failure.getKey()).append(": ")
+          .append(failure.getValue().getLocalizedMessage());
+      causes.add(failure.getValue());
+    }
+
+    MojoExecutionException exception = new MojoExecutionException(message.toString(), causes.get(0));
+    causes.stream().skip(1).forEach(exception::addSuppressed);
+    return exception;
+  }
+}
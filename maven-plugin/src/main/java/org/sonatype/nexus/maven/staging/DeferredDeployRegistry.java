@@ -0,0 +1,130 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Collects the deployables of every module of a reactor build so they can be uploaded together once every module
+ * using this plugin is done. One registry exists per {@link MavenSession}, shared by its clones.
+ *
+ * Modules are counted rather than ordered: with the multi-threaded builder the last module of the reactor may finish
+ * before earlier ones. A module which fails to build never finishes, so nothing is uploaded.
+ *
+ * @since 1.0.14
+ */
+class DeferredDeployRegistry
+{
+  private final List<DeferredDeployment> deployments = new ArrayList<>();
+
+  private final Set<String> finished = new HashSet<>();
+
+  private boolean drained;
+
+  static DeferredDeployRegistry forSession(final MavenSession session) {
+    return SessionScope.of(session).get(DeferredDeployRegistry.class, DeferredDeployRegistry::new);
+  }
+
+  /**
+   * Records that a module is done, together with its deployment.
+   *
+   * @param module     the id of the module
+   * @param modules    the ids of all modules of the build using this plugin
+   * @param deployment the deployment of the module, {@code null} if it has nothing to deploy
+   * @return the deployments of all modules once every one of them is done, otherwise nothing
+   * @throws IllegalStateException if the deployments have already been handed out
+   */
+  synchronized Optional<List<DeferredDeployment>> finish(
+      final String module,
+      final Collection<String> modules,
+      final DeferredDeployment deployment)
+  {
+    if (drained) {
+      throw new IllegalStateException("The deferred deployments have already been uploaded");
+    }
+    if (deployment != null) {
+      deployments.add(deployment);
+    }
+    finished.add(module);
+    if (!finished.containsAll(modules)) {
+      return Optional.empty();
+    }
+    drained = true;
+    List<DeferredDeployment> result = new ArrayList<>(deployments);
+    deployments.clear();
+    return Optional.of(result);
+  }
+
+  /**
+   * The deployables of a single module together with the tag to apply and where the module deploys to: modules of a
+   * build may use different repositories, servers or client settings.
+   */
+  static class DeferredDeployment
+  {
+    private final String nexusUrl;
+
+    private final String repository;
+
+    private final RepositoryManagerV3Client client;
+
+    private final String tag;
+
+    private final List<Artifact> deployables;
+
+    DeferredDeployment(
+        final String nexusUrl,
+        final String repository,
+        final RepositoryManagerV3Client client,
+        final String tag,
+        final List<Artifact> deployables)
+    {
+      this.nexusUrl = nexusUrl;
+      this.repository = repository;
+      this.client = client;
+      this.tag = tag;
+      this.deployables = unmodifiableList(new ArrayList<>(deployables));
+    }
+
+    String getNexusUrl() {
+      return nexusUrl;
+    }
+
+    String getRepository() {
+      return repository;
+    }
+
+    RepositoryManagerV3Client getClient() {
+      return client;
+    }
+
+    String getTag() {
+      return tag;
+    }
+
+    List<Artifact> getDeployables() {
+      return deployables;
+    }
+  }
+}
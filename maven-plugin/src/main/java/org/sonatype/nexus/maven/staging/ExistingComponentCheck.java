@@ -0,0 +1,114 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.AssetInfo;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.SearchBuilder;
+
+import org.apache.maven.artifact.Artifact;
+
+/**
+ * Detects components whose assets are all already stored, with identical content, in the target repository, so that
+ * a retried upload only has to re-apply the tag instead of sending every file again.
+ *
+ * The assets of a component are fetched with a single (paged) asset search. Each local file is matched with the asset
+ * stored under its repository file name and their SHA-1 are compared; a file is only read when such an asset exists.
+ * Snapshots are stored under timestamped names, so they never match and are always uploaded.
+ *
+ * @since 1.0.14
+ */
+class ExistingComponentCheck
+{
+  private final RepositoryManagerV3Client client;
+
+  private final String repository;
+
+  ExistingComponentCheck(final RepositoryManagerV3Client client, final String repository) {
+    this.client = client;
+    this.repository = repository;
+  }
+
+  /**
+   * Returns {@code true} if the repository already holds, under its file name, an asset with the content of every
+   * given artifact of the component.
+   */
+  boolean isUploaded(
+      final String groupId,
+      final String artifactId,
+      final String version,
+      final Collection<Artifact> artifacts) throws IOException, RepositoryManagerException
+  {
+    if (artifacts.isEmpty()) {
+      return false;
+    }
+
+    Map<String, String> remoteChecksums = new HashMap<>();
+    for (AssetInfo asset : client.searchAssets(search(groupId, artifactId, version))) {
+      asset.getSha1().ifPresent(sha1 -> remoteChecksums.put(fileName(asset.getPath()), sha1));
+    }
+    if (remoteChecksums.isEmpty()) {
+      return false;
+    }
+
+    for (Artifact artifact : artifacts) {
+      String remoteChecksum = remoteChecksums.get(fileName(artifact));
+      if (remoteChecksum == null || !remoteChecksum.equalsIgnoreCase(Checksums.sha1(artifact.getFile()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Applies the tag to an already uploaded component.
+   */
+  void tag(
+      final String groupId,
+      final String artifactId,
+      final String version,
+      final String tag) throws RepositoryManagerException
+  {
+    client.associate(tag, search(groupId, artifactId, version));
+  }
+
+  private Map<String, String> search(final String groupId, final String artifactId, final String version) {
+    return SearchBuilder.create()
+        .withRepository(repository)
+        .withGroup(groupId)
+        .withName(artifactId)
+        .withVersion(version)
+        .build();
+  }
+
+  /**
+   * Returns the name under which a maven repository stores the artifact.
+   */
+  private static String fileName(final Artifact artifact) {
+    StringBuilder name = new StringBuilder(artifact.getArtifactId()).append('-').append(artifact.getBaseVersion());
+    if (artifact.getClassifier() != null && !artifact.getClassifier().isEmpty()) {
+      name.append('-').append(artifact.getClassifier());
+    }
+    return name.append('.').append(artifact.getArtifactHandler().getExtension()).toString();
+  }
+
+  private static String fileName(final String path) {
+    return path == null ? "" : path.substring(path.lastIndexOf('/') + 1);
+  }
+}
@@ -24,6 +24,10 @@ import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3ClientBuilder;
 public class Nxrm3ClientFactory
 {
   public RepositoryManagerV3Client build(final ServerConfig serverConfig) {
-    return RepositoryManagerV3ClientBuilder.create().withServerConfig(serverConfig).build();
+    return build(serverConfig, new ClientSettings());
+  }
+
+  public RepositoryManagerV3Client build(final ServerConfig serverConfig, final ClientSettings clientSettings) {
+    return clientSettings.applyTo(RepositoryManagerV3ClientBuilder.create()).withServerConfig(serverConfig).build();
   }
 }
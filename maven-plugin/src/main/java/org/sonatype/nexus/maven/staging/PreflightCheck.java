@@ -0,0 +1,201 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.NxrmVersion;
+import org.sonatype.nexus.api.repository.v3.Repository;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Checks, concurrently with the preparation of the local files, that an upload can succeed before any of it is sent:
+ * that the credentials are accepted and the repository is a hosted maven2 repository, that the tag exists, and which
+ * version of NXRM is being talked to. The first failed check fails the whole pre-flight without waiting for the
+ * others.
+ *
+ * NXRM only lists the repositories a user may browse, so a repository which is not listed is reported as a warning:
+ * a user allowed to deploy to it but not to browse it can still upload.
+ *
+ * @since 1.0.14
+ */
+class PreflightCheck
+    implements AutoCloseable
+{
+  /**
+   * A single check, failing by throwing.
+   */
+  @FunctionalInterface
+  interface Check
+  {
+    void run() throws Exception;
+  }
+
+  private static final String THREAD_NAME_PREFIX = "nxrm3-preflight-";
+
+  private final Log log;
+
+  private final ExecutorService executor;
+
+  private final List<CompletableFuture<Void>> checks = new ArrayList<>();
+
+  private final long start = System.nanoTime();
+
+  PreflightCheck(final Log log) {
+    this.log = log;
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts the checks of the server, the repository and the tag, the latter made by the given check.
+   */
+  static PreflightCheck start(
+      final RepositoryManagerV3Client client,
+      final String repository,
+      final String tag,
+      final Check tagCheck,
+      final Log log)
+  {
+    return new PreflightCheck(log)
+        .submit("NXRM version", () -> checkVersion(client, log))
+        .submit(String.format("repository '%s'", repository), () -> checkRepository(client, repository, log))
+        .submit(String.format("tag '%s'", tag), tagCheck);
+  }
+
+  /**
+   * Starts the given check.
+   */
+  PreflightCheck submit(final String description, final Check check) {
+    checks.add(CompletableFuture.runAsync(() -> {
+      try {
+        check.run();
+      }
+      catch (MojoFailureException e) {
+        throw new CompletionException(e);
+      }
+      catch (Exception e) {
+        throw new CompletionException(new MojoFailureException(
+            String.format("Pre-flight check of %s failed: %s", description, e.getLocalizedMessage()), e));
+      }
+    }, executor));
+    return this;
+  }
+
+  /**
+   * Waits until every check has passed or one has failed.
+   *
+   * @throws MojoFailureException describing the first failed check
+   */
+  void await() throws MojoFailureException {
+    CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+    for (CompletableFuture<Void> check : checks) {
+      check.whenComplete((result, failure) -> {
+        if (failure != null) {
+          firstFailure.completeExceptionally(failure);
+        }
+      });
+    }
+
+    try {
+      CompletableFuture.anyOf(CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])), firstFailure).get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoFailureException("Interrupted while running pre-flight checks", e);
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+      if (cause instanceof MojoFailureException) {
+        throw (MojoFailureException) cause;
+      }
+      throw new MojoFailureException("Pre-flight checks failed: " + cause.getLocalizedMessage(), cause);
+    }
+    log.debug(String.format("Pre-flight checks passed in %d ms", NANOSECONDS.toMillis(System.nanoTime() - start)));
+  }
+
+  /**
+   * Stops any check still running.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private static void checkVersion(final RepositoryManagerV3Client client, final Log log) {
+    // informational only, NXRM may not expose its version to this user
+    try {
+      NxrmVersion version = client.getVersion();
+      if (version != null) {
+        log.debug(String.format("Uploading to NXRM %s %s", version.getEdition(), version.getVersion()));
+      }
+    }
+    catch (RepositoryManagerException e) {
+      log.debug(String.format("Unable to determine the version of NXRM: %s", e.getLocalizedMessage()));
+    }
+  }
+
+  private static void checkRepository(final RepositoryManagerV3Client client, final String repository, final Log log)
+      throws RepositoryManagerException, MojoFailureException
+  {
+    List<Repository> repositories;
+    try {
+      repositories = client.getRepositories();
+    }
+    catch (RepositoryManagerException e) {
+      Optional<Integer> status = e.getResponseStatus();
+      if (status.isPresent() && (status.get() == 401 || status.get() == 403)) {
+        throw new MojoFailureException(String.format(
+            "Pre-flight check failed: NXRM rejected the credentials (%d response from server)", status.get()), e);
+      }
+      throw e;
+    }
+
+    Optional<Repository> listed = repositories.stream()
+        .filter(candidate -> repository.equals(candidate.getName()))
+        .findFirst();
+    if (!listed.isPresent()) {
+      log.warn(String.format("Repository '%s' does not exist or is not visible to this user; uploading to it anyway",
+          repository));
+      return;
+    }
+    Repository found = listed.get();
+    if (found.getFormat() != null && !"maven2".equals(found.getFormat())) {
+      throw new MojoFailureException(String.format(
+          "Pre-flight check failed: repository '%s' is a %s repository, not maven2", repository, found.getFormat()));
+    }
+    if (found.getType() != null && !"hosted".equals(found.getType())) {
+      throw new MojoFailureException(String.format(
+          "Pre-flight check failed: repository '%s' is a %s repository, components can only be uploaded to hosted " +
+              "repositories", repository, found.getType()));
+    }
+  }
+}
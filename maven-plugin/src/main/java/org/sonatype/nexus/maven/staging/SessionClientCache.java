@@ -0,0 +1,117 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.settings.Proxy;
+
+/**
+ * Caches {@link RepositoryManagerV3Client}s, and with them their connection pools, for the life of a
+ * {@link MavenSession} so that every module of a reactor build talking to the same NXRM with the same
+ * {@link ClientSettings} reuses the same client. The cached clients are closed when the session ends.
+ *
+ * @since 1.0.14
+ */
+class SessionClientCache
+{
+  private final Map<ClientKey, RepositoryManagerV3Client> clients = new HashMap<>();
+
+  static SessionClientCache forSession(final MavenSession session) {
+    SessionScope scope = SessionScope.of(session);
+    return scope.get(SessionClientCache.class, () -> {
+      SessionClientCache cache = new SessionClientCache();
+      scope.onSessionEnd(cache::close);
+      return cache;
+    });
+  }
+
+  /**
+   * Returns the cached client for the given NXRM and settings, creating it with the given factory on first use.
+   * Modules configured with different settings get different clients.
+   */
+  synchronized RepositoryManagerV3Client get(
+      final String nexusUrl,
+      final String serverId,
+      final Proxy proxy,
+      final ClientSettings settings,
+      final Supplier<RepositoryManagerV3Client> factory)
+  {
+    return clients.computeIfAbsent(new ClientKey(nexusUrl, serverId, proxy, settings), key -> factory.get());
+  }
+
+  /**
+   * Closes and forgets all cached clients.
+   */
+  synchronized void close() {
+    List<RepositoryManagerV3Client> toClose = new ArrayList<>(clients.values());
+    clients.clear();
+    for (RepositoryManagerV3Client client : toClose) {
+      if (client instanceof Closeable) {
+        try {
+          ((Closeable) client).close();
+        }
+        catch (IOException e) { // NOSONAR
+          // nothing useful to do at the end of the session
+        }
+      }
+    }
+  }
+
+  private static class ClientKey
+  {
+    private final String nexusUrl;
+
+    private final String serverId;
+
+    private final String proxy;
+
+    private final ClientSettings settings;
+
+    ClientKey(final String nexusUrl, final String serverId, final Proxy proxy, final ClientSettings settings) {
+      this.nexusUrl = nexusUrl;
+      this.serverId = serverId;
+      this.proxy = proxy == null ? null
+          : proxy.getProtocol() + "://" + proxy.getUsername() + "@" + proxy.getHost() + ":" + proxy.getPort();
+      this.settings = settings;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ClientKey that = (ClientKey) o;
+      return Objects.equals(nexusUrl, that.nexusUrl) && Objects.equals(serverId, that.serverId) &&
+          Objects.equals(proxy, that.proxy) && Objects.equals(settings, that.settings);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(nexusUrl, serverId, proxy, settings);
+    }
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Holds the state shared by all modules of a build for the life of a {@link MavenSession}.
+ *
+ * The multi-threaded builder gives every module its own clone of the session, and sessions are only equal to
+ * themselves, so the state is kept per {@link MavenExecutionRequest}, which all clones share. A session without a
+ * request gets state of its own.
+ *
+ * @since 1.0.14
+ */
+class SessionScope
+{
+  private static final Map<Object, SessionScope> SCOPES = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final Map<Class<?>, Object> values = new HashMap<>();
+
+  private final List<Runnable> endCallbacks = new ArrayList<>();
+
+  /**
+   * Returns the scope of the given session. The first call for a request registers a single listener on it which
+   * ends the scope once the session has ended.
+   */
+  static SessionScope of(final MavenSession session) {
+    MavenExecutionRequest request = session.getRequest();
+    if (request == null) {
+      return SCOPES.computeIfAbsent(session, key -> new SessionScope());
+    }
+    synchronized (SCOPES) {
+      SessionScope scope = SCOPES.get(request);
+      if (scope == null) {
+        SessionScope created = new SessionScope();
+        request.setExecutionListener(new SessionEndListener(request.getExecutionListener(), () -> {
+          SCOPES.remove(request);
+          created.end();
+        }));
+        SCOPES.put(request, created);
+        scope = created;
+      }
+      return scope;
+    }
+  }
+
+  /**
+   * Returns the session's instance of the given type, creating it with the given factory on first use.
+   */
+  synchronized <T> T get(final Class<T> type, final Supplier<T> factory) {
+    Object value = values.get(type);
+    if (value == null) {
+      value = factory.get();
+      values.put(type, value);
+    }
+    return type.cast(value);
+  }
+
+  /**
+   * Runs the given callback once the session has ended; callbacks run in the order they were added. Sessions without
+   * a request never end.
+   */
+  synchronized void onSessionEnd(final Runnable callback) {
+    endCallbacks.add(callback);
+  }
+
+  private void end() {
+    List<Runnable> callbacks;
+    synchronized (this) {
+      callbacks = new ArrayList<>(endCallbacks);
+      endCallbacks.clear();
+      values.clear();
+    }
+    RuntimeException failure = null;
+    for (Runnable callback : callbacks) {
+      try {
+        callback.run();
+      }
+      catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+        else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Forwards every event to the listener it replaces and runs a callback once the session has ended.
+   */
+  private static class SessionEndListener
+      implements ExecutionListener
+  {
+    private final ExecutionListener delegate;
+
+    private final Runnable onSessionEnded;
+
+    SessionEndListener(final ExecutionListener delegate, final Runnable onSessionEnded) {
+      this.delegate = delegate;
+      this.onSessionEnded = onSessionEnded;
+    }
+
+    @Override
+    public void sessionEnded(final ExecutionEvent event) {
+      try {
+        if (delegate != null) {
+          delegate.sessionEnded(event);
+        }
+      }
+      finally {
+        onSessionEnded.run();
+      }
+    }
+
+    @Override
+    public void projectDiscoveryStarted(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.projectDiscoveryStarted(event);
+      }
+    }
+
+    @Override
+    public void sessionStarted(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.sessionStarted(event);
+      }
+    }
+
+    @Override
+    public void projectSkipped(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.projectSkipped(event);
+      }
+    }
+
+    @Override
+    public void projectStarted(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.projectStarted(event);
+      }
+    }
+
+    @Override
+    public void projectSucceeded(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.projectSucceeded(event);
+      }
+    }
+
+    @Override
+    public void projectFailed(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.projectFailed(event);
+      }
+    }
+
+    @Override
+    public void mojoSkipped(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.mojoSkipped(event);
+      }
+    }
+
+    @Override
+    public void mojoStarted(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.mojoStarted(event);
+      }
+    }
+
+    @Override
+    public void mojoSucceeded(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.mojoSucceeded(event);
+      }
+    }
+
+    @Override
+    public void mojoFailed(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.mojoFailed(event);
+      }
+    }
+
+    @Override
+    public void forkStarted(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.forkStarted(event);
+      }
+    }
+
+    @Override
+    public void forkSucceeded(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.forkSucceeded(event);
+      }
+    }
+
+    @Override
+    public void forkFailed(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.forkFailed(event);
+      }
+    }
+
+    @Override
+    public void forkedProjectStarted(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.forkedProjectStarted(event);
+      }
+    }
+
+    @Override
+    public void forkedProjectSucceeded(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.forkedProjectSucceeded(event);
+      }
+    }
+
+    @Override
+    public void forkedProjectFailed(final ExecutionEvent event) {
+      if (delegate != null) {
+        delegate.forkedProjectFailed(event);
+      }
+    }
+  }
+}
+
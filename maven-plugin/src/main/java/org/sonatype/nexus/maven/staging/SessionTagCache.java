@@ -0,0 +1,64 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Remembers, for the life of a {@link MavenSession}, which tags are known to exist on which NXRM so that every module
+ * of a reactor build after the first skips the tag request entirely. Modules ensuring the same tag concurrently wait
+ * for the first of them; a failed attempt is not remembered, so the next module tries again.
+ *
+ * @since 1.0.14
+ */
+class SessionTagCache
+{
+  private final Set<String> ensured = ConcurrentHashMap.newKeySet();
+
+  private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+  static SessionTagCache forSession(final MavenSession session) {
+    return SessionScope.of(session).get(SessionTagCache.class, SessionTagCache::new);
+  }
+
+  /**
+   * Ensures the tag exists on the given NXRM using the given client, unless that was already done in this session.
+   *
+   * @return {@code true} if the tag was ensured by this call, {@code false} if it was already known to exist
+   */
+  boolean ensureTag(
+      final RepositoryManagerV3Client client,
+      final String nexusUrl,
+      final String tag) throws RepositoryManagerException
+  {
+    String key = nexusUrl + "#" + tag;
+    if (ensured.contains(key)) {
+      return false;
+    }
+    synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+      if (ensured.contains(key)) {
+        return false;
+      }
+      client.ensureTag(tag);
+      ensured.add(key);
+      return true;
+    }
+  }
+}
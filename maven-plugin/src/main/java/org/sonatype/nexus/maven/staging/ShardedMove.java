@@ -0,0 +1,287 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+import org.sonatype.nexus.api.repository.v3.SearchBuilder;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Moves the components of a tag in shards instead of a single request, so that no request has to move more than a
+ * bounded number of components. The components are partitioned by group, and groups larger than the shard size by
+ * name; the shards are moved a bounded number at a time.
+ *
+ * The client does not retry a move NXRM may already have processed, but moving a shard again only moves what is left of
+ * it, so a shard failing with a server error or a lost connection is moved again on its own; other failures, such as
+ * rejected credentials, are not. A shard failing after the server has moved its components is retried by a request
+ * finding nothing to move (404); that is taken as success for every attempt but the first.
+ *
+ * @since 1.0.14
+ */
+class ShardedMove
+{
+  private static final String THREAD_NAME_PREFIX = "nxrm3-move-";
+
+  /**
+   * The components moved by a single request.
+   */
+  static class Shard
+  {
+    private final String description;
+
+    private final Map<String, String> searchCriteria;
+
+    private final int size;
+
+    Shard(final String description, final Map<String, String> searchCriteria, final int size) {
+      this.description = description;
+      this.searchCriteria = searchCriteria;
+      this.size = size;
+    }
+
+    String getDescription() {
+      return description;
+    }
+
+    Map<String, String> getSearchCriteria() {
+      return searchCriteria;
+    }
+
+    int getSize() {
+      return size;
+    }
+  }
+
+  private final RepositoryManagerV3Client client;
+
+  private final int threads;
+
+  private final RetryPolicy retryPolicy;
+
+  private final Log log;
+
+  ShardedMove(final RepositoryManagerV3Client client, final int threads, final RetryPolicy retryPolicy, final Log log) {
+    checkArgument(threads > 0, "Move threads must be greater than zero");
+    this.client = client;
+    this.threads = threads;
+    this.retryPolicy = retryPolicy;
+    this.log = log;
+  }
+
+  /**
+   * Partitions the given components of the tag in the repository into shards of at most {@code shardSize} components,
+   * unless a single name has more versions than that. Components without a group are left to a last shard covering the
+   * whole tag, which must only be moved once the others have been.
+   */
+  static List<Shard> plan(
+      final String repository,
+      final String tag,
+      final Collection<ComponentInfo> components,
+      final int shardSize)
+  {
+    checkArgument(shardSize > 0, "Move shard size must be greater than zero");
+
+    Map<String, Map<String, Integer>> groups = new TreeMap<>();
+    int ungrouped = 0;
+    for (ComponentInfo component : components) {
+      if (component.getGroup().isPresent() && component.getName().isPresent()) {
+        groups.computeIfAbsent(component.getGroup().get(), group -> new TreeMap<>())
+            .merge(component.getName().get(), 1, Integer::sum);
+      }
+      else {
+        ungrouped++;
+      }
+    }
+
+    List<Shard> shards = new ArrayList<>();
+    for (Entry<String, Map<String, Integer>> group : groups.entrySet()) {
+      int groupSize = group.getValue().values().stream().mapToInt(Integer::intValue).sum();
+      if (groupSize <= shardSize) {
+        shards.add(new Shard(group.getKey(),
+            SearchBuilder.create().withRepository(repository).withTag(tag).withGroup(group.getKey()).build(),
+            groupSize));
+        continue;
+      }
+      for (Entry<String, Integer> name : group.getValue().entrySet()) {
+        shards.add(new Shard(group.getKey() + ":" + name.getKey(),
+            SearchBuilder.create().withRepository(repository).withTag(tag).withGroup(group.getKey())
+                .withName(name.getKey()).build(),
+            name.getValue()));
+      }
+    }
+    if (ungrouped > 0) {
+      shards.add(new Shard("remaining components",
+          SearchBuilder.create().withRepository(repository).withTag(tag).build(), ungrouped));
+    }
+    return shards;
+  }
+
+  /**
+   * Moves the given shards to the destination repository and returns every component moved.
+   *
+   * @throws MojoExecutionException if one or more shards could not be moved
+   */
+  List<ComponentInfo> move(final String destination, final List<Shard> shards) throws MojoExecutionException {
+    List<ComponentInfo> moved = Collections.synchronizedList(new ArrayList<>());
+    Map<String, Throwable> failures = new LinkedHashMap<>();
+    AtomicInteger completed = new AtomicInteger();
+
+    // the whole-tag shard would race the others for their components
+    List<Shard> parallel = new ArrayList<>(shards);
+    List<Shard> last = new ArrayList<>();
+    if (!parallel.isEmpty() && !parallel.get(parallel.size() - 1).getSearchCriteria().containsKey("group")) {
+      last.add(parallel.remove(parallel.size() - 1));
+    }
+
+    int concurrency = Math.max(1, Math.min(threads, parallel.size()));
+    log.debug(String.format("Moving %d shards, %d at a time", shards.size(), concurrency));
+
+    ExecutorService executor = newExecutor(concurrency);
+    try {
+      List<Future<Void>> futures = new ArrayList<>(parallel.size());
+      for (Shard shard : parallel) {
+        futures.add(executor.submit(() -> {
+          moveShard(destination, shard, shards.size(), moved, completed, failures);
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while moving components", e);
+    }
+    catch (ExecutionException e) {
+      throw new MojoExecutionException("Unexpected error while moving components", e.getCause());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    if (failures.isEmpty()) {
+      for (Shard shard : last) {
+        moveShard(destination, shard, shards.size(), moved, completed, failures);
+      }
+    }
+
+    if (!failures.isEmpty()) {
+      throw failureException(failures, shards.size());
+    }
+    return new ArrayList<>(moved);
+  }
+
+  private void moveShard(
+      final String destination,
+      final Shard shard,
+      final int total,
+      final List<ComponentInfo> moved,
+      final AtomicInteger completed,
+      final Map<String, Throwable> failures)
+  {
+    AtomicInteger shardMoved = new AtomicInteger();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        client.move(destination, shard.getSearchCriteria(), component -> {
+          moved.add(component);
+          shardMoved.incrementAndGet();
+        });
+        break;
+      }
+      catch (RepositoryManagerException e) {
+        if (attempt > 1 && e.getResponseStatus().orElse(0) == 404) {
+          // an earlier attempt moved everything that was left
+          break;
+        }
+        if (!isTransient(e) || attempt >= retryPolicy.getMaxAttempts()
+            || !sleep(retryPolicy.backoffMillis(attempt))) {
+          synchronized (failures) {
+            failures.put(shard.getDescription(), e);
+          }
+          return;
+        }
+        log.warn(String.format("Moving shard '%s' failed, retrying (attempt %d of %d): %s", shard.getDescription(),
+            attempt + 1, retryPolicy.getMaxAttempts(), e.getMessage()));
+      }
+    }
+    log.info(String.format("Moved shard %d of %d '%s' (%d components)", completed.incrementAndGet(), total,
+        shard.getDescription(), shardMoved.get()));
+  }
+
+  /**
+   * Returns {@code true} if moving the shard again may succeed: the server failed, or the connection was lost, while
+   * the shard was being moved. The client has already retried the failures it can.
+   */
+  private static boolean isTransient(final RepositoryManagerException e) {
+    Optional<Integer> status = e.getResponseStatus();
+    return !status.isPresent() || status.get() == 500 || status.get() == 502 || status.get() == 504;
+  }
+
+  private static ExecutorService newExecutor(final int threads) {
+    AtomicInteger counter = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private static boolean sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+      return true;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static MojoExecutionException failureException(final Map<String, Throwable> failures, final int total) {
+    StringBuilder message = new StringBuilder(
+        String.format("Failed to move %d of %d shards:", failures.size(), total));
+    List<Throwable> causes = new ArrayList<>();
+    for (Entry<String, Throwable> failure : failures.entrySet()) {
+      message.append(System.lineSeparator()).append("  - ").append(failure.getKey()).append(": ")
+          .append(failure.getValue().getLocalizedMessage());
+      causes.add(failure.getValue());
+    }
+
+    MojoExecutionException exception = new MojoExecutionException(message.toString(), causes.get(0));
+    causes.stream().skip(1).forEach(exception::addSuppressed);
+    return exception;
+  }
+}
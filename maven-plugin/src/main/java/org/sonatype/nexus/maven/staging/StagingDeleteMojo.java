@@ -12,10 +12,10 @@
  */
 package org.sonatype.nexus.maven.staging;
 
-import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.sonatype.nexus.api.repository.v3.ComponentInfo;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.SearchBuilder;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -26,7 +26,8 @@ import org.apache.maven.plugins.annotations.Mojo;
  *
  * @since 1.0.0
  */
-@Mojo(name = "staging-delete", requiresOnline = true, threadSafe = true, requiresDirectInvocation=true, requiresProject=false)
+@Mojo(name = "staging-delete", requiresOnline = true, threadSafe = true, requiresDirectInvocation=true,
+    requiresProject=false)
 public class StagingDeleteMojo
     extends StagingActionMojo
 {
@@ -38,11 +39,14 @@ public class StagingDeleteMojo
 
     RepositoryManagerV3Client client = getRepositoryManagerV3Client();
     try {
-      List<ComponentInfo> deletedComponents = client.delete(tag);
-      getLog().info(String.format("'%d' components deleted with tag '%s' ", deletedComponents.size(), tag));
-      if (getLog().isDebugEnabled()) {
-        getLog().debug(String.format("Deleted components: %s with tag: %s", deletedComponents, tag));
-      }
+      AtomicInteger deletedComponents = new AtomicInteger();
+      client.delete(SearchBuilder.create().withTag(tag).build(), component -> {
+        deletedComponents.incrementAndGet();
+        if (getLog().isDebugEnabled()) {
+          getLog().debug(String.format("Deleted component: %s with tag: %s", component, tag));
+        }
+      });
+      getLog().info(String.format("'%d' components deleted with tag '%s' ", deletedComponents.get(), tag));
     }
     catch (Exception ex) {
       throw new MojoFailureException(ex.getMessage(), ex);
@@ -13,14 +13,16 @@
 package org.sonatype.nexus.maven.staging;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 
@@ -28,10 +30,8 @@ import org.sonatype.nexus.api.exception.RepositoryManagerException;
 import org.sonatype.nexus.api.repository.v3.DefaultAsset;
 import org.sonatype.nexus.api.repository.v3.DefaultComponent;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
-import org.sonatype.nexus.api.repository.v3.Tag;
+import org.sonatype.nexus.maven.staging.DeferredDeployRegistry.DeferredDeployment;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.installer.ArtifactInstallationException;
@@ -46,6 +46,7 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.artifact.ProjectArtifactMetadata;
 import org.apache.maven.repository.RepositorySystem;
 
@@ -60,6 +61,8 @@ public class StagingDeployMojo
 {
   private static final String FORMAT = "maven2";
 
+  private static final String DEPLOY_GOAL = "staging-deploy";
+
   @Parameter(property = "repository")
   private String repository;
 
@@ -75,6 +78,14 @@ public class StagingDeployMojo
   @Parameter(property = "stageLocally")
   private boolean stageLocally;
 
+  /**
+   * When {@code true} the artifacts of every module are collected and uploaded together once every module of the
+   * reactor using this plugin has been built, instead of uploading each module as soon as it is built. Nothing is
+   * uploaded if one of these modules fails.
+   */
+  @Parameter(property = "deployAtEnd")
+  private boolean deployAtEnd;
+
   @Parameter(defaultValue = "${project.artifact}", readonly = true, required = true)
   private Artifact artifact;
 
@@ -102,24 +113,16 @@ public class StagingDeployMojo
   @Component
   private ArtifactRepositoryLayout artifactRepositoryLayout;
 
-  private final Lock readWriteLock;
-
-  private final ObjectMapper objectMapper;
-
-  public StagingDeployMojo() {
-    super();
-    this.readWriteLock = new ReentrantLock();
-    this.objectMapper = new ObjectMapper();
-  }
-
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
     if (skipNexusStagingDeployMojo) {
       getLog().info("Skipping NXRM Staging Deploy Mojo at user's demand.");
+      finishSkippedModule();
       return;
     }
     if (artifact.isSnapshot()) {
       getLog().info("Skipping NXRM Staging Deploy Mojo as " + artifact.getVersion() + " is a SNAPSHOT version");
+      finishSkippedModule();
       return;
     }
 
@@ -135,28 +138,130 @@ public class StagingDeployMojo
     if (stageLocally) {
       deployLocally(deployables, tag);
     }
+    else if (deployAtEnd) {
+      deployAtEnd(deployables, tag);
+    }
     else {
       deployToRemote(deployables, tag);
     }
   }
 
+  private void deployAtEnd(final List<Artifact> deployables, final String tag)
+      throws MojoFailureException, MojoExecutionException
+  {
+    Optional<List<DeferredDeployment>> deployments = finishModule(
+        new DeferredDeployment(getNexusUrl(), repository, getRepositoryManagerV3Client(), tag, deployables));
+    if (deployments.isPresent()) {
+      deployDeferred(deployments.get());
+    }
+    else {
+      getLog().info(String.format("Deferring deployment of %s until every module using this plugin has been built",
+          artifact));
+    }
+  }
+
+  /**
+   * Counts a module which deploys nothing towards the modules a deferred deployment waits for, and deploys them if it
+   * was the last one.
+   */
+  private void finishSkippedModule() throws MojoFailureException, MojoExecutionException {
+    if (deployAtEnd && !stageLocally) {
+      Optional<List<DeferredDeployment>> deployments = finishModule(null);
+      if (deployments.isPresent()) {
+        deployDeferred(deployments.get());
+      }
+    }
+  }
+
+  private Optional<List<DeferredDeployment>> finishModule(final DeferredDeployment deployment)
+      throws MojoExecutionException
+  {
+    MavenProject project = getMavenSession().getCurrentProject();
+    String module = project != null ? project.getId() : artifact.getId();
+    Set<String> modules = new LinkedHashSet<>(getProjectsWithThisPluginDefined());
+    modules.add(module);
+    try {
+      return DeferredDeployRegistry.forSession(getMavenSession()).finish(module, modules, deployment);
+    }
+    catch (IllegalStateException e) {
+      throw new MojoExecutionException(String.format(
+          "%s was built after the deferred deployment of this build was uploaded; not deploying it", module), e);
+    }
+  }
+
+  private void deployDeferred(final List<DeferredDeployment> deployments)
+      throws MojoFailureException, MojoExecutionException
+  {
+    if (deployments.isEmpty()) {
+      return;
+    }
+
+    failIfOffline();
+
+    // every module is uploaded to the repository and server it was configured with
+    Map<String, List<DeferredDeployment>> byTarget = new LinkedHashMap<>();
+    for (DeferredDeployment deployment : deployments) {
+      String target = String.format("repository '%s' at %s", deployment.getRepository(), deployment.getNexusUrl());
+      byTarget.computeIfAbsent(target, key -> new ArrayList<>()).add(deployment);
+    }
+
+    UploadStatistics statistics = getSessionUploadStatistics();
+    Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+    Map<String, Long> sizes = new HashMap<>();
+    for (Map.Entry<String, List<DeferredDeployment>> target : byTarget.entrySet()) {
+      Set<String> tags = new LinkedHashSet<>();
+      for (DeferredDeployment deployment : target.getValue()) {
+        tags.add(deployment.getTag());
+        try {
+          ensureTag(deployment.getClient(), deployment.getNexusUrl(), deployment.getTag());
+        }
+        catch (RepositoryManagerException ex) {
+          throw new MojoFailureException(ex.getMessage(), ex);
+        }
+
+        List<Artifact> moduleDeployables = deployment.getDeployables();
+        Artifact moduleArtifact = moduleDeployables.get(0);
+        String module = String.join(":", moduleArtifact.getGroupId(), moduleArtifact.getArtifactId(),
+            moduleArtifact.getBaseVersion());
+        uploads.put(module, () -> doUpload(deployment.getClient(), statistics, deployment.getRepository(),
+            moduleDeployables, deployment.getTag()));
+        sizes.put(module, moduleDeployables.stream()
+            .map(Artifact::getFile)
+            .filter(Objects::nonNull)
+            .mapToLong(File::length)
+            .sum());
+      }
+      getLog().info(String.format("Deploying %d modules to %s with tag '%s'", target.getValue().size(),
+          target.getKey(), String.join(", ", tags)));
+    }
+    newConcurrentUploader().upload(uploads, sizes);
+  }
+
   private void deployToRemote(final List<Artifact> deployables, final String tag)
       throws MojoFailureException
   {
-    RepositoryManagerV3Client client = getClientFactory().build(getServerConfiguration(getMavenSession()));
+    RepositoryManagerV3Client client = getRepositoryManagerV3Client();
 
     failIfOffline();
 
+    UploadStatistics statistics = getSessionUploadStatistics();
     try {
-      maybeCreateTag(client, tag);
+      ensureTag(client, tag);
       getLog().info(String.format("Deploying to repository '%s' with tag '%s'", repository, tag));
-      doUpload(client, deployables, tag);
+      doUpload(client, statistics, repository, deployables, tag);
     }
     catch (Exception ex) {
       throw new MojoFailureException(ex.getMessage(), ex);
     }
   }
 
+  /**
+   * The statistics of every module deployed in this session, reported once the session has ended.
+   */
+  private UploadStatistics getSessionUploadStatistics() {
+    return UploadStatistics.forSession(getMavenSession(), statistics -> reportUploads(statistics, DEPLOY_GOAL));
+  }
+
   private void deployLocally(final List<Artifact> deployables, @Nonnull final String tag)
       throws MojoExecutionException
   {
@@ -202,25 +307,18 @@ public class StagingDeployMojo
       final ArtifactRepository artifactRepository,
       final String tag) throws ArtifactInstallationException
   {
+    // the index guards itself against concurrent modules and processes sharing the staging directory
     try {
-      //lock to make thread safe code since working with IO
-      readWriteLock.lock();
-
-      try {
-        artifactInstaller.install(artifact.getFile(), artifact, artifactRepository);
-        attachToIndex(index, artifact, tag, artifactRepository);
-      }
-      catch (IOException e) {
-        getLog().error("error accessing files for local installation: ", e);
-        throw new ArtifactInstallationException(e);
-      }
-      catch (ArtifactInstallationException e) {
-        getLog().error("error installing artifact: ", e);
-        throw e;
-      }
+      artifactInstaller.install(artifact.getFile(), artifact, artifactRepository);
+      attachToIndex(index, artifact, tag, artifactRepository);
     }
-    finally {
-      readWriteLock.unlock();
+    catch (IOException e) {
+      getLog().error("error accessing files for local installation: ", e);
+      throw new ArtifactInstallationException(e);
+    }
+    catch (ArtifactInstallationException e) {
+      getLog().error("error installing artifact: ", e);
+      throw e;
     }
   }
 
@@ -259,18 +357,7 @@ public class StagingDeployMojo
     artifactInfo.setPomFileName(pomFileName);
     artifactInfo.setPluginPrefix(pluginPrefix);
 
-    if (index.exists()) {
-      List<ArtifactInfo> currentData = objectMapper.readValue(index, new TypeReference<List<ArtifactInfo>>() { });
-      currentData.add(artifactInfo);
-
-      objectMapper.writeValue(index, currentData);
-    }
-    else {
-      List<ArtifactInfo> data = new ArrayList<>();
-      data.add(artifactInfo);
-
-      objectMapper.writeValue(index, data);
-    }
+    new StagingIndex(index).append(artifactInfo);
   }
 
   private String getProvidedOrGeneratedTag() {
@@ -284,22 +371,6 @@ public class StagingDeployMojo
     return tag;
   }
 
-  private void maybeCreateTag(final RepositoryManagerV3Client client, final String tag)
-      throws RepositoryManagerException
-  {
-    Optional<Tag> existingTag = client.getTag(tag);
-
-    if (!existingTag.isPresent()) {
-      getLog().info(String.format("Creating tag %s as it does not already exist", tag));
-      client.createTag(tag);
-    }
-    else {
-      getLog().info(String.format("Tag %s already exists, skipping creation", tag));
-    }
-
-    storeTagInPropertiesFile(tag);
-  }
-
   private DefaultComponent getDefaultComponent(Artifact artifact) {
     DefaultComponent component = new DefaultComponent(FORMAT);
     component.addAttribute("version", artifact.getBaseVersion());
@@ -310,35 +381,42 @@ public class StagingDeployMojo
 
   private void doUpload(
       final RepositoryManagerV3Client client,
+      final UploadStatistics statistics,
+      final String repository,
       final List<Artifact> deployables,
       final String tag) throws IOException, RepositoryManagerException
   {
-    List<InputStream> streams = new ArrayList<>();
-
-    try {
-      DefaultComponent component = getDefaultComponent(deployables.get(0));
+    Artifact componentArtifact = deployables.get(0);
+    if (skipIfAlreadyUploaded(client, repository, componentArtifact.getGroupId(), componentArtifact.getArtifactId(),
+        componentArtifact.getBaseVersion(), deployables, tag)) {
+      statistics.skipped();
+      return;
+    }
 
-      for (Artifact deployableArtifact : deployables) {
-        FileInputStream stream = new FileInputStream(deployableArtifact.getFile());
-        streams.add(stream);
+    DefaultComponent component = getDefaultComponent(componentArtifact);
 
-        DefaultAsset asset = new DefaultAsset(deployableArtifact.getFile().getName(), stream);
+    for (Artifact deployableArtifact : deployables) {
+      // a file backed asset can be sent again if the upload is retried
+      DefaultAsset asset = new DefaultAsset(deployableArtifact.getFile().getName(), deployableArtifact.getFile());
 
-        // NEXUS-22246 - just like the maven class DefaultArtifactDeployer use the ArtifactHandler#getExtension()
-        asset.addAttribute("extension", deployableArtifact.getArtifactHandler().getExtension());
+      // NEXUS-22246 - just like the maven class DefaultArtifactDeployer use the ArtifactHandler#getExtension()
+      asset.addAttribute("extension", deployableArtifact.getArtifactHandler().getExtension());
 
-        if (deployableArtifact.getClassifier() != null) {
-          asset.addAttribute("classifier", deployableArtifact.getClassifier());
-        }
-        component.addAsset(asset);
+      if (deployableArtifact.getClassifier() != null) {
+        asset.addAttribute("classifier", deployableArtifact.getClassifier());
       }
+      component.addAsset(asset);
+    }
 
-      client.upload(repository, component, tag);
+    UploadStatistics.Upload upload = statistics.start(String.join(":", componentArtifact.getGroupId(),
+        componentArtifact.getArtifactId(), componentArtifact.getBaseVersion()));
+    boolean succeeded = false;
+    try {
+      client.upload(repository, component, tag, upload);
+      succeeded = true;
     }
     finally {
-      for (InputStream stream : streams) {
-        stream.close();
-      }
+      upload.finish(succeeded);
     }
   }
 
@@ -424,6 +502,16 @@ public class StagingDeployMojo
     this.tagGenerator = tagGenerator;
   }
 
+  @VisibleForTesting
+  void setRepository(final String repository) {
+    this.repository = repository;
+  }
+
+  @VisibleForTesting
+  void setDeployAtEnd(final boolean deployAtEnd) {
+    this.deployAtEnd = deployAtEnd;
+  }
+
   @VisibleForTesting
   void setStageLocally() {
     this.stageLocally = !this.stageLocally;
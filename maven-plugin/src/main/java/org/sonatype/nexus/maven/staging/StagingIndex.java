@@ -0,0 +1,253 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * The index of locally staged artifacts, stored as one JSON {@link ArtifactInfo} record per line so that staging an
+ * artifact only appends to the file.
+ *
+ * Index files written by earlier versions of the plugin hold a single JSON array; they can still be read and are
+ * converted to the line format the first time a record is appended.
+ *
+ * Every modification holds an exclusive {@link FileLock} on a {@code .lock} file next to the index, so that several
+ * Maven processes sharing a staging directory do not corrupt it. Since a JVM cannot hold overlapping file locks,
+ * threads of the same JVM first take a lock striped by index file. Whole file rewrites go through a temporary file
+ * which is then atomically renamed. A partially written last record, left by a killed build, is ignored when reading
+ * and dropped by the next append.
+ *
+ * @since 1.0.14
+ */
+class StagingIndex
+{
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final ObjectReader READER = OBJECT_MAPPER.readerFor(ArtifactInfo.class);
+
+  private static final byte[] LINE_SEPARATOR = "\n".getBytes(UTF_8);
+
+  private static final ConcurrentMap<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+  private final File file;
+
+  StagingIndex(final File file) {
+    this.file = file;
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  boolean exists() {
+    return file.exists();
+  }
+
+  /**
+   * Appends a record to the index, creating the index if needed.
+   */
+  void append(final ArtifactInfo artifactInfo) throws IOException {
+    byte[] record = OBJECT_MAPPER.writeValueAsBytes(artifactInfo);
+    withLock(() -> {
+      if (isLegacyFormat()) {
+        convertLegacyFormat();
+      }
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        // drop a record left incomplete by an interrupted build
+        channel.truncate(endOfLastRecord(channel));
+        channel.position(channel.size());
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+        out.write(record);
+        out.write(LINE_SEPARATOR);
+        out.flush();
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Hands every record of the index, in the order they were appended, to the given consumer without reading the whole
+   * index into memory.
+   */
+  void forEach(final Consumer<ArtifactInfo> consumer) throws IOException {
+    // no lock needed: records are only ever appended and whole file rewrites are atomic renames
+    if (isLegacyFormat()) {
+      // a root level JSON array is unwrapped into its elements
+      try (MappingIterator<ArtifactInfo> records = READER.readValues(file)) {
+        while (records.hasNextValue()) {
+          consumer.accept(records.nextValue());
+        }
+      }
+    }
+    else {
+      readLines(consumer);
+    }
+  }
+
+  /**
+   * Returns every record of the index.
+   */
+  List<ArtifactInfo> readAll() throws IOException {
+    List<ArtifactInfo> records = new ArrayList<>();
+    forEach(records::add);
+    return records;
+  }
+
+  private void readLines(final Consumer<ArtifactInfo> consumer) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
+      String line = reader.readLine();
+      while (line != null) {
+        String next = reader.readLine();
+        if (!line.trim().isEmpty()) {
+          ArtifactInfo record;
+          try {
+            record = READER.readValue(line);
+          }
+          catch (JsonProcessingException e) {
+            if (next == null) {
+              break; // incomplete last record of an interrupted build
+            }
+            throw e;
+          }
+          consumer.accept(record);
+        }
+        line = next;
+      }
+    }
+  }
+
+  private boolean isLegacyFormat() throws IOException {
+    if (!file.exists()) {
+      return false;
+    }
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      int c;
+      while ((c = in.read()) != -1) {
+        if (!Character.isWhitespace(c)) {
+          return c == '[';
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Returns the position just after the last line separator of the index, or 0 if it has none.
+   */
+  private static long endOfLastRecord(final FileChannel channel) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    long end = channel.size();
+    while (end > 0) {
+      long start = Math.max(0, end - buffer.capacity());
+      buffer.clear().limit((int) (end - start));
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, start + buffer.position()) < 0) {
+          break;
+        }
+      }
+      for (int i = buffer.position() - 1; i >= 0; i--) {
+        if (buffer.get(i) == '\n') {
+          return start + i + 1;
+        }
+      }
+      end = start;
+    }
+    return 0;
+  }
+
+  private void convertLegacyFormat() throws IOException {
+    List<ArtifactInfo> records = new ArrayList<>();
+    try (MappingIterator<ArtifactInfo> legacy = READER.readValues(file)) {
+      while (legacy.hasNextValue()) {
+        records.add(legacy.nextValue());
+      }
+    }
+
+    Path target = file.toPath();
+    Path temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+        for (ArtifactInfo record : records) {
+          out.write(OBJECT_MAPPER.writeValueAsBytes(record));
+          out.write(LINE_SEPARATOR);
+        }
+      }
+      try {
+        Files.move(temp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+      }
+      catch (AtomicMoveNotSupportedException e) { // NOSONAR
+        Files.move(temp, target, REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Runs the given action holding the lock of this index, first within the JVM and then across processes.
+   */
+  private <T> T withLock(final IndexAction<T> action) throws IOException {
+    Path indexPath = file.getCanonicalFile().toPath();
+    Files.createDirectories(indexPath.getParent());
+    ReentrantLock lock = LOCKS.computeIfAbsent(indexPath, p -> new ReentrantLock());
+    lock.lock();
+    try (FileChannel channel = FileChannel.open(lockFile(indexPath), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+         FileLock ignored = channel.lock()) {
+      return action.run();
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  private static Path lockFile(final Path indexPath) {
+    return indexPath.resolveSibling(indexPath.getFileName() + ".lock");
+  }
+
+  @FunctionalInterface
+  private interface IndexAction<T>
+  {
+    T run() throws IOException;
+  }
+}
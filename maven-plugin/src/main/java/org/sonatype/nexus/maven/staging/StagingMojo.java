@@ -17,29 +17,48 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.sonatype.maven.mojo.execution.MojoExecution;
 import org.sonatype.maven.mojo.settings.MavenSettings;
 import org.sonatype.nexus.api.common.Authentication;
 import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.CircuitBreakerPolicy;
+import org.sonatype.nexus.api.repository.v3.ConcurrencyLimit;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Server;
+import org.apache.maven.settings.Settings;
 import org.apache.maven.settings.crypto.DefaultSettingsDecryptionRequest;
 import org.apache.maven.settings.crypto.SettingsDecrypter;
 import org.apache.maven.settings.crypto.SettingsDecryptionResult;
 
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_IDLE_CONNECTION_TIMEOUT_MILLIS;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_KEEP_ALIVE_MILLIS;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_MAX_CONNECTIONS;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+import static org.sonatype.nexus.api.repository.AbstractRepositoryManagerClientBuilder.DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
 /**
  * Parent for all staging MOJOs (goals)
  * 
@@ -74,6 +93,120 @@ public abstract class StagingMojo
 
   private String stagingIndexFilename = ".index";
 
+  /**
+   * Number of components to upload concurrently.
+   */
+  @Parameter(property = "uploadThreads", defaultValue = "4")
+  private int uploadThreads = 4;
+
+  /**
+   * The kind of threads running the uploads: {@code auto} (the default) uses virtual threads when running on Java 21
+   * or later and platform threads otherwise, {@code virtual} or {@code platform} ask for one kind. At most
+   * {@code uploadThreads} components are uploaded at once whatever the kind.
+   */
+  @Parameter(property = "uploadExecutor", defaultValue = "auto")
+  private String uploadExecutor = "auto";
+
+  /**
+   * When {@code true} (the default) no further components are uploaded once an upload has failed. When {@code false}
+   * every component is attempted and all failures are reported at the end.
+   */
+  @Parameter(property = "uploadFailFast", defaultValue = "true")
+  private boolean uploadFailFast = true;
+
+  /**
+   * When {@code true} components whose assets are all already stored in the repository with identical content (by
+   * SHA-1) are not uploaded again; only the tag is applied to them. Useful when retrying a partially failed upload.
+   */
+  @Parameter(property = "skipExisting", defaultValue = "false")
+  private boolean skipExisting;
+
+  /**
+   * When {@code true} the number of components uploaded at once adapts to how busy NXRM is: it starts at half of
+   * {@code uploadThreads} and grows up to it while uploads succeed, and is halved when NXRM answers {@code 429} or
+   * {@code 503} or uploads slow down. The changes are logged at debug level.
+   */
+  @Parameter(property = "adaptiveUploadConcurrency", defaultValue = "false")
+  private boolean adaptiveUploadConcurrency;
+
+  /**
+   * Maximum number of bytes per second sent by all uploads of the build together, for instance to leave bandwidth to
+   * other jobs sharing the network link; {@code 0} (the default) does not limit uploads. The limit is shared by every
+   * upload of the JVM, whatever NXRM it goes to; when modules configure different limits, the lowest applies.
+   */
+  @Parameter(property = "maxUploadBytesPerSecond", defaultValue = "0")
+  private long maxUploadBytesPerSecond;
+
+  /**
+   * Maximum number of pooled HTTP connections to NXRM.
+   */
+  @Parameter(property = "maxConnections", defaultValue = "20")
+  private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+  /**
+   * Maximum number of pooled HTTP connections to a single NXRM host.
+   */
+  @Parameter(property = "maxConnectionsPerRoute", defaultValue = "10")
+  private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+  /**
+   * How long, in milliseconds, an idle connection is kept alive for reuse unless the server asks for less.
+   */
+  @Parameter(property = "connectionKeepAlive", defaultValue = "30000")
+  private long connectionKeepAlive = DEFAULT_KEEP_ALIVE_MILLIS;
+
+  /**
+   * How long, in milliseconds, a pooled connection may be inactive before it is validated prior to reuse.
+   */
+  @Parameter(property = "validateConnectionAfterInactivity", defaultValue = "2000")
+  private long validateConnectionAfterInactivity = DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
+  /**
+   * How long, in milliseconds, a pooled connection may be idle before it is closed in the background.
+   */
+  @Parameter(property = "idleConnectionTimeout", defaultValue = "60000")
+  private long idleConnectionTimeout = DEFAULT_IDLE_CONNECTION_TIMEOUT_MILLIS;
+
+  /**
+   * Maximum number of attempts of a request to NXRM failing with a transient error, such as a dropped connection or a
+   * {@code 503} response; {@code 1} disables retries.
+   */
+  @Parameter(property = "retryMaxAttempts", defaultValue = "3")
+  private int retryMaxAttempts = RetryPolicy.DEFAULT_MAX_ATTEMPTS;
+
+  /**
+   * Upper bound, in milliseconds, of the randomized backoff before the first retry; doubled for every further retry.
+   */
+  @Parameter(property = "retryInitialBackoff", defaultValue = "1000")
+  private long retryInitialBackoff = RetryPolicy.DEFAULT_INITIAL_BACKOFF_MILLIS;
+
+  /**
+   * Upper bound, in milliseconds, of the backoff before any retry.
+   */
+  @Parameter(property = "retryMaxBackoff", defaultValue = "30000")
+  private long retryMaxBackoff = RetryPolicy.DEFAULT_MAX_BACKOFF_MILLIS;
+
+  /**
+   * Time, in milliseconds, after the first attempt of a request beyond which it is not retried any more.
+   */
+  @Parameter(property = "retryMaxElapsed", defaultValue = "300000")
+  private long retryMaxElapsed = RetryPolicy.DEFAULT_MAX_ELAPSED_MILLIS;
+
+  /**
+   * Number of consecutive requests failing after all their retries because NXRM cannot be reached or answers with a
+   * server error, after which all modules of the build fail further requests immediately instead of sending them;
+   * {@code 0} disables this.
+   */
+  @Parameter(property = "circuitBreakerThreshold", defaultValue = "5")
+  private int circuitBreakerThreshold = CircuitBreakerPolicy.DEFAULT_FAILURE_THRESHOLD;
+
+  /**
+   * Time, in milliseconds, requests fail immediately once the {@code circuitBreakerThreshold} was reached, before NXRM
+   * is asked for its version to find out whether it is back.
+   */
+  @Parameter(property = "circuitBreakerOpenTime", defaultValue = "30000")
+  private long circuitBreakerOpenTime = CircuitBreakerPolicy.DEFAULT_OPEN_MILLIS;
+
   @Parameter(defaultValue = "${plugin.groupId}", readonly = true, required = true)
   private String pluginGroupId;
 
@@ -131,6 +264,32 @@ public abstract class StagingMojo
     }
   }
 
+  /**
+   * Makes sure the tag exists on NXRM, at most once per session for every module sharing it, and records it in the
+   * staging properties file.
+   */
+  protected void ensureTag(final RepositoryManagerV3Client client, final String tag)
+      throws RepositoryManagerException
+  {
+    ensureTag(client, getNexusUrl(), tag);
+  }
+
+  /**
+   * Makes sure the tag exists on the given NXRM, like {@link #ensureTag(RepositoryManagerV3Client, String)}.
+   */
+  protected void ensureTag(final RepositoryManagerV3Client client, final String nexusUrl, final String tag)
+      throws RepositoryManagerException
+  {
+    if (SessionTagCache.forSession(getMavenSession()).ensureTag(client, nexusUrl, tag)) {
+      getLog().info(String.format("Ensured tag '%s' exists", tag));
+    }
+    else {
+      getLog().debug(String.format("Tag '%s' was already ensured in this build, skipping", tag));
+    }
+
+    storeTagInPropertiesFile(tag);
+  }
+
   protected void storeTagInPropertiesFile(final String tag) {
     Map<String, String> properties = new HashMap<>();
 
@@ -169,6 +328,25 @@ public abstract class StagingMojo
     return MojoExecution.getFirstProjectWithMojoInExecution(mavenSession, pluginGroupId, pluginArtifactId, null);
   }
 
+  /**
+   * Returns the ids of the projects in reactor that have this plugin defined, or of all projects if none has because
+   * the goal was invoked from the command line.
+   */
+  protected Set<String> getProjectsWithThisPluginDefined() {
+    List<MavenProject> projects = mavenSession.getSortedProjects();
+    if (projects == null) {
+      return Collections.emptySet();
+    }
+    Set<String> withThisPlugin = projects.stream()
+        .filter(project -> MojoExecution.findPlugin(project.getBuild(), pluginGroupId, pluginArtifactId, null) != null)
+        .map(MavenProject::getId)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (withThisPlugin.isEmpty()) {
+      return projects.stream().map(MavenProject::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+    return withThisPlugin;
+  }
+
   /**
    * Returns the staging directory root, that is either set explicitly by the user in the plugin configuration
    * (see {@link #altStagingDirectory} parameter), or its location is calculated taking as base the first project in
@@ -179,10 +357,99 @@ public abstract class StagingMojo
   }
 
   /**
-   * Returns an instance of the {@link RepositoryManagerV3Client}
+   * Returns an instance of the {@link RepositoryManagerV3Client}, shared by all modules of the current session that
+   * use the same NXRM, server and proxy.
    */
   protected RepositoryManagerV3Client getRepositoryManagerV3Client() {
-    return getClientFactory().build(getServerConfiguration(getMavenSession()));
+    final MavenSession session = getMavenSession();
+    final Settings settings = session.getSettings();
+    final ClientSettings clientSettings = getClientSettings();
+    return SessionClientCache.forSession(session).get(getNexusUrl(), getServerId(),
+        settings != null ? settings.getActiveProxy() : null, clientSettings,
+        () -> getClientFactory().build(getServerConfiguration(session), clientSettings));
+  }
+
+  /**
+   * Returns the {@link ClientSettings} configured on this MOJO.
+   */
+  protected ClientSettings getClientSettings() {
+    return new ClientSettings()
+        .withMaxConnections(maxConnections, maxConnectionsPerRoute)
+        .withKeepAliveMillis(connectionKeepAlive)
+        .withValidateAfterInactivityMillis(validateConnectionAfterInactivity)
+        .withIdleConnectionTimeoutMillis(idleConnectionTimeout)
+        .withRetryPolicy(getRetryPolicy())
+        .withUploadConcurrency(getUploadConcurrency())
+        .withMaxUploadBytesPerSecond(maxUploadBytesPerSecond)
+        .withCircuitBreakerPolicy(getCircuitBreakerPolicy());
+  }
+
+  /**
+   * Returns the {@link RetryPolicy} configured by the {@code retry*} parameters of this MOJO.
+   */
+  protected RetryPolicy getRetryPolicy() {
+    return RetryPolicy.defaults()
+        .withMaxAttempts(retryMaxAttempts)
+        .withBackoff(retryInitialBackoff, retryMaxBackoff)
+        .withMaxElapsedMillis(retryMaxElapsed);
+  }
+
+  /**
+   * Returns the {@link CircuitBreakerPolicy} configured by the {@code circuitBreaker*} parameters of this MOJO.
+   */
+  protected CircuitBreakerPolicy getCircuitBreakerPolicy() {
+    return CircuitBreakerPolicy.defaults()
+        .withOpenMillis(circuitBreakerOpenTime)
+        .withFailureThreshold(circuitBreakerThreshold);
+  }
+
+  /**
+   * Returns the {@link ConcurrencyLimit} on uploads configured by the {@code adaptiveUploadConcurrency} and
+   * {@code uploadThreads} parameters of this MOJO.
+   */
+  protected ConcurrencyLimit getUploadConcurrency() {
+    if (!adaptiveUploadConcurrency) {
+      return ConcurrencyLimit.unlimited();
+    }
+    final Log log = getLog();
+    return ConcurrencyLimit.adaptive(uploadThreads).withListener((previousLimit, newLimit, reason) -> log
+        .debug("Upload concurrency limit changed from " + previousLimit + " to " + newLimit + ": " + reason));
+  }
+
+  /**
+   * Returns a {@link ConcurrentUploader} configured from the {@code uploadThreads}, {@code uploadFailFast} and
+   * {@code uploadExecutor} parameters.
+   */
+  protected ConcurrentUploader newConcurrentUploader() {
+    return new ConcurrentUploader(uploadThreads, uploadFailFast, UploadExecutor.Mode.parse(uploadExecutor), getLog());
+  }
+
+  /**
+   * When the {@code skipExisting} parameter is set and the repository already holds every given artifact of the
+   * component, applies the tag to the existing component instead of uploading it.
+   *
+   * @return {@code true} if the component does not need to be uploaded
+   */
+  protected boolean skipIfAlreadyUploaded(
+      final RepositoryManagerV3Client client,
+      final String repository,
+      final String groupId,
+      final String artifactId,
+      final String version,
+      final Collection<Artifact> artifacts,
+      final String tag) throws IOException, RepositoryManagerException
+  {
+    if (!skipExisting) {
+      return false;
+    }
+    ExistingComponentCheck check = new ExistingComponentCheck(client, repository);
+    if (!check.isUploaded(groupId, artifactId, version, artifacts)) {
+      return false;
+    }
+    getLog().info(String.format("Component %s:%s:%s is already uploaded to '%s', applying tag '%s' only", groupId,
+        artifactId, version, repository, tag));
+    check.tag(groupId, artifactId, version, tag);
+    return true;
   }
 
   protected String getNexusUrl() {
@@ -203,6 +470,31 @@ public abstract class StagingMojo
 
   protected File getStagingIndexFile() { return new File(getWorkDirectoryRoot(), stagingIndexFilename); }
 
+  /**
+   * The JSON report of the uploads made by the given goal, kept in the staging directory.
+   */
+  protected File getUploadReportFile(final String goal) {
+    return new File(getWorkDirectoryRoot(), goal + "-report.json");
+  }
+
+  /**
+   * Logs the summary of the uploads and writes the upload report of the given goal. Failing to write the report does
+   * not fail the build.
+   */
+  void reportUploads(final UploadStatistics statistics, final String goal) {
+    if (statistics.isEmpty()) {
+      return;
+    }
+    statistics.logSummary(getLog());
+    File report = getUploadReportFile(goal);
+    try {
+      statistics.writeReport(report, goal);
+    }
+    catch (IOException e) {
+      getLog().warn(String.format("Unable to write the upload report %s: %s", report, e.getLocalizedMessage()));
+    }
+  }
+
   /**
    * Throws {@link MojoFailureException} if Maven is invoked offline, as this plugin MUST WORK online.
    *
@@ -239,9 +531,30 @@ public abstract class StagingMojo
     this.offline = offline;
   }
 
+  @VisibleForTesting
+  void setSkipExisting(final boolean skipExisting) {
+    this.skipExisting = skipExisting;
+  }
+
+  @VisibleForTesting
+  void setUploadThreads(final int uploadThreads) {
+    this.uploadThreads = uploadThreads;
+  }
+
+  @VisibleForTesting
+  void setUploadFailFast(final boolean uploadFailFast) {
+    this.uploadFailFast = uploadFailFast;
+  }
+
   @VisibleForTesting
   void setStagingIndexFilename(final String filename) {
     this.stagingIndexFilename = filename;
   }
 
+  @VisibleForTesting
+  void setPlugin(final String pluginGroupId, final String pluginArtifactId) {
+    this.pluginGroupId = pluginGroupId;
+    this.pluginArtifactId = pluginArtifactId;
+  }
+
 }
@@ -12,13 +12,17 @@
  */
 package org.sonatype.nexus.maven.staging;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
 import org.sonatype.nexus.api.repository.v3.SearchBuilder;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -43,6 +47,27 @@ public class StagingMoveMojo
   @Parameter(property = "sourceRepository")
   private String sourceRepository;
 
+  /**
+   * When {@code true} the components of the tag are found with a search and moved in shards of at most
+   * {@code moveShardSize} components, {@code moveThreads} at a time, instead of by a single request. Useful for tags
+   * with so many components that a single move runs into timeouts.
+   */
+  @Parameter(property = "shardedMove", defaultValue = "false")
+  private boolean shardedMove;
+
+  /**
+   * Maximum number of components moved by a single request of a sharded move. Components are sharded by group, and by
+   * name within groups exceeding this size.
+   */
+  @Parameter(property = "moveShardSize", defaultValue = "500")
+  private int moveShardSize = 500;
+
+  /**
+   * Number of shards moved concurrently by a sharded move.
+   */
+  @Parameter(property = "moveThreads", defaultValue = "4")
+  private int moveThreads = 4;
+
   @Override
   public void execute() throws MojoFailureException {
     RepositoryManagerV3Client client = getRepositoryManagerV3Client();
@@ -61,7 +86,8 @@ public class StagingMoveMojo
       getLog().info(format("Moving artifacts with tag '%s' from '%s' to '%s'", tag, sourceRepository,
           destinationRepository));
 
-      client.move(destinationRepository, createSearchCriteria(sourceRepository, tag));
+      int movedComponents = shardedMove ? moveSharded(client) : moveAll(client);
+      getLog().info(format("'%d' components moved to '%s'", movedComponents, destinationRepository));
     }
     catch (RepositoryManagerException e) {
       String reason = format("%s. Reason: %s", e.getMessage(), e.getResponseMessage().isPresent() ?
@@ -74,6 +100,40 @@ public class StagingMoveMojo
     }
   }
 
+  private int moveAll(final RepositoryManagerV3Client client) throws RepositoryManagerException {
+    AtomicInteger movedComponents = new AtomicInteger();
+    client.move(destinationRepository, createSearchCriteria(sourceRepository, tag), component -> {
+      movedComponents.incrementAndGet();
+      if (getLog().isDebugEnabled()) {
+        getLog().debug(format("Moved component: %s", component));
+      }
+    });
+    return movedComponents.get();
+  }
+
+  private int moveSharded(final RepositoryManagerV3Client client)
+      throws RepositoryManagerException, MojoExecutionException, MojoFailureException
+  {
+    List<ComponentInfo> components = client.searchComponents(createSearchCriteria(sourceRepository, tag));
+    if (components.isEmpty()) {
+      throw new MojoFailureException(format("No components with tag '%s' found in '%s'", tag, sourceRepository));
+    }
+
+    List<ShardedMove.Shard> shards = ShardedMove.plan(sourceRepository, tag, components, moveShardSize);
+    getLog().info(format("Moving %d components in %d shards, %d at a time", components.size(), shards.size(),
+        moveThreads));
+
+    List<ComponentInfo> moved = new ShardedMove(client, moveThreads, getRetryPolicy(), getLog())
+        .move(destinationRepository, shards);
+    if (getLog().isDebugEnabled()) {
+      moved.forEach(component -> getLog().debug(format("Moved component: %s", component)));
+    }
+    if (moved.size() != components.size()) {
+      getLog().warn(format("Found %d components with tag '%s' but moved %d", components.size(), tag, moved.size()));
+    }
+    return moved.size();
+  }
+
   @VisibleForTesting
   String getSourceRepository() {
     if (sourceRepository == null || sourceRepository.isEmpty()) {
@@ -93,6 +153,13 @@ public class StagingMoveMojo
     this.sourceRepository = sourceRepository;
   }
 
+  @VisibleForTesting
+  void setShardedMove(final boolean shardedMove, final int moveShardSize, final int moveThreads) {
+    this.shardedMove = shardedMove;
+    this.moveShardSize = moveShardSize;
+    this.moveThreads = moveThreads;
+  }
+
   @VisibleForTesting
   void setDestinationRepository(final String destinationRepository) {
     this.destinationRepository = destinationRepository;
@@ -13,18 +13,14 @@
 package org.sonatype.nexus.maven.staging;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 
@@ -32,10 +28,7 @@ import org.sonatype.nexus.api.exception.RepositoryManagerException;
 import org.sonatype.nexus.api.repository.v3.DefaultAsset;
 import org.sonatype.nexus.api.repository.v3.DefaultComponent;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
-import org.sonatype.nexus.api.repository.v3.Tag;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
@@ -65,6 +58,8 @@ public class StagingUploadMojo
 {
   private static final String FORMAT = "maven2";
 
+  private static final String UPLOAD_GOAL = "upload";
+
   @Parameter(property = "repository", required = true)
   private String repository;
 
@@ -74,6 +69,21 @@ public class StagingUploadMojo
   @Parameter(property = "tag")
   private String tag;
 
+  /**
+   * When {@code true} the components recorded as completely uploaded by a previous, interrupted, run to the same
+   * repository and NXRM, with the same tag and unchanged files, are not uploaded again. When {@code false} the upload
+   * journal is started afresh.
+   */
+  @Parameter(property = "resume", defaultValue = "false")
+  private boolean resume;
+
+  /**
+   * When {@code true} the checks of the credentials, repository and tag, which otherwise run while the staged files
+   * are prepared and fail the upload before anything is sent, are skipped; only the tag is created.
+   */
+  @Parameter(property = "skipPreflight", defaultValue = "false")
+  private boolean skipPreflight;
+
   @Parameter(defaultValue = "${project.artifact}", readonly = true, required = true)
   private Artifact artifact;
 
@@ -86,29 +96,32 @@ public class StagingUploadMojo
   @Component
   private ArtifactRepositoryLayout artifactRepositoryLayout;
 
-  private final Lock readWriteLock;
-
-  private final ObjectMapper objectMapper;
-
   private final Log log;
 
   public StagingUploadMojo() {
     super();
-    this.readWriteLock = new ReentrantLock();
-    this.objectMapper = new ObjectMapper();
     this.log = getLog();
   }
 
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
-    Map<DefaultComponent, List<ArtifactInfo>> deployables = prepareDeployables();
-
-    RepositoryManagerV3Client client = getClientFactory().build(getServerConfiguration(getMavenSession()));
+    RepositoryManagerV3Client client = getRepositoryManagerV3Client();
 
     failIfOffline();
 
     String tagToUse = getTag();
-    ensureTagIsSet(client, tagToUse);
+    Map<DefaultComponent, List<ArtifactInfo>> deployables;
+    if (skipPreflight) {
+      deployables = prepareDeployables();
+      ensureTagIsSet(client, tagToUse);
+    }
+    else {
+      try (PreflightCheck preflight = PreflightCheck.start(client, repository, tagToUse,
+          () -> ensureTagIsSet(client, tagToUse), log)) {
+        deployables = prepareDeployables();
+        preflight.await();
+      }
+    }
     log.info(String.format("Uploading to repository '%s' with tagToUse '%s'", repository, tagToUse));
     uploadComponents(client, deployables, tagToUse);
   }
@@ -121,27 +134,24 @@ public class StagingUploadMojo
 
   @VisibleForTesting
   List<ArtifactInfo> readStoredArtifactsFromIndex() {
-    File index = getStagingIndexFile();
+    StagingIndex index = new StagingIndex(getStagingIndexFile());
     List<ArtifactInfo> artifacts = new ArrayList<>();
     try {
-      readWriteLock.lock();
       if (index.exists()) {
-        artifacts.addAll(objectMapper.readValue(index, new TypeReference<List<ArtifactInfo>>() { }));
+        index.forEach(artifacts::add);
       }
       else {
-        log.warn(String.format("index file not found: %s", index));
+        log.warn(String.format("index file not found: %s", index.getFile()));
       }
     }
     catch (IOException ex) {
-      log.error(String.format("Exception whilst reading stored artifacts from index file: %s", index), ex);
-    }
-    finally {
-      readWriteLock.unlock();
+      log.error(String.format("Exception whilst reading stored artifacts from index file: %s", index.getFile()), ex);
     }
     return artifacts;
   }
 
-  private Map<DefaultComponent, List<ArtifactInfo>> groupArtifactsByComponent(final List<ArtifactInfo> artifacts) {
+  @VisibleForTesting
+  Map<DefaultComponent, List<ArtifactInfo>> groupArtifactsByComponent(final List<ArtifactInfo> artifacts) {
     Map<ArtifactInfoKey, List<ArtifactInfo>> groupedArtifacts = new HashMap<>();
 
     for (ArtifactInfo info : artifacts) {
@@ -177,22 +187,13 @@ public class StagingUploadMojo
       throws MojoFailureException
   {
     try {
-      Optional<Tag> existingTag = client.getTag(tag);
-
-      if (!existingTag.isPresent()) {
-        log.debug(String.format("Creating tag '%s' as it does not already exist", tag));
-        client.createTag(tag);
-      }
-      else {
-        log.debug(String.format("Tag '%s' already exists, skipping creation", tag));
-      }
+      ensureTag(client, tag);
     }
     catch (RepositoryManagerException ex) {
       log.error(String.format("Unable to create tag '%s': %s", tag, ex.getLocalizedMessage()),
           log.isDebugEnabled() ? ex : null);
       throw new MojoFailureException(ex);
     }
-    storeTagInPropertiesFile(tag);
   }
 
   private void uploadComponents(
@@ -205,36 +206,119 @@ public class StagingUploadMojo
     File target = getWorkDirectoryRoot();
     ArtifactRepository stagingRepository = createFileRepository(target);
 
-    for (Entry<DefaultComponent, List<ArtifactInfo>> entry : deployables.entrySet()) {
+    UploadStatistics statistics = new UploadStatistics();
+    try (UploadJournal journal = UploadJournal.open(getUploadJournalFile(), getNexusUrl(), repository, resume)) {
+      Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+      Map<String, Long> sizes = new HashMap<>();
+      for (Entry<DefaultComponent, List<ArtifactInfo>> entry : deployables.entrySet()) {
+        DefaultComponent component = entry.getKey();
+        uploads.put(describe(component), () -> uploadComponent(client, journal, statistics, target,
+            stagingRepository, component, entry.getValue(), tag));
+        sizes.put(describe(component), entry.getValue().stream()
+            .mapToLong(info -> toArtifact(target, stagingRepository, info).getFile().length())
+            .sum());
+      }
 
-      List<InputStream> streams = new ArrayList<>();
-      DefaultComponent component = entry.getKey();
-      try {
-        for (ArtifactInfo info : entry.getValue()) {
-          addArtifactToComponent(target, stagingRepository, streams, component, info);
-        }
-        client.upload(repository, component, tag);
+      newConcurrentUploader().upload(uploads, sizes);
+    }
+    catch (IOException ex) {
+      throw new MojoExecutionException(
+          String.format("Unable to open the upload journal %s", getUploadJournalFile()), ex);
+    }
+    finally {
+      reportUploads(statistics, UPLOAD_GOAL);
+    }
+  }
+
+  /**
+   * The journal of completely uploaded components, kept next to the staging index.
+   */
+  @VisibleForTesting
+  File getUploadJournalFile() {
+    File index = getStagingIndexFile();
+    return new File(index.getParentFile(), index.getName() + ".journal");
+  }
+
+  private void uploadComponent(
+      final RepositoryManagerV3Client client,
+      final UploadJournal journal,
+      final UploadStatistics statistics,
+      final File target,
+      final ArtifactRepository stagingRepository,
+      final DefaultComponent component,
+      final List<ArtifactInfo> artifactInfos,
+      final String tag)
+      throws MojoExecutionException
+  {
+    try {
+      List<Artifact> artifacts = artifactInfos.stream()
+          .map(info -> toArtifact(target, stagingRepository, info))
+          .filter(staged -> staged.getFile().exists())
+          .collect(Collectors.toList());
+      List<File> files = artifacts.stream().map(Artifact::getFile).collect(Collectors.toList());
+      String fingerprint = UploadJournal.fingerprint(files);
+      if (journal.isCompleted(describe(component), tag, fingerprint)) {
+        log.info(String.format("Skipping component %s uploaded by a previous run", describe(component)));
+        statistics.skipped();
+        return;
       }
-      catch (RepositoryManagerException ex) {
-        if (log.isDebugEnabled()) {
-          log.warn("Exception uploading component", ex);
+
+      Map<String, String> attributes = component.getAttributes();
+      if (!skipIfAlreadyUploaded(client, repository, attributes.get("groupId"), attributes.get("artifactId"),
+          attributes.get("version"), artifacts, tag)) {
+        for (ArtifactInfo info : artifactInfos) {
+          addArtifactToComponent(target, stagingRepository, component, info);
         }
-        else {
-          log.warn(String.format("Exception uploading component: %s", ex.getLocalizedMessage()));
+        UploadStatistics.Upload upload = statistics.start(describe(component));
+        boolean succeeded = false;
+        try {
+          client.upload(repository, component, tag, upload);
+          succeeded = true;
         }
-        throw (new MojoExecutionException(ex));
-      }
-      finally {
-        for (InputStream stream : streams) {
-          try {
-            stream.close();
-          }
-          catch (IOException ex) {
-            // Ignore as nothing we can do
-          }
+        finally {
+          upload.finish(succeeded);
         }
       }
+      else {
+        statistics.skipped();
+      }
+      recordCompleted(journal, component, tag, fingerprint);
+    }
+    catch (IOException ex) {
+      throw new MojoExecutionException(
+          String.format("Unable to read the files of component %s", describe(component)), ex);
     }
+    catch (RepositoryManagerException ex) {
+      if (log.isDebugEnabled()) {
+        log.warn(String.format("Exception uploading component %s", describe(component)), ex);
+      }
+      else {
+        log.warn(String.format("Exception uploading component %s: %s", describe(component),
+            ex.getLocalizedMessage()));
+      }
+      throw (new MojoExecutionException(ex));
+    }
+  }
+
+  private void recordCompleted(
+      final UploadJournal journal,
+      final DefaultComponent component,
+      final String tag,
+      final String fingerprint)
+  {
+    try {
+      journal.completed(describe(component), tag, fingerprint);
+    }
+    catch (IOException ex) {
+      // the component is uploaded; at worst a resumed run uploads it again
+      log.warn(String.format("Unable to record component %s in the upload journal: %s", describe(component),
+          ex.getLocalizedMessage()));
+    }
+  }
+
+  private static String describe(final DefaultComponent component) {
+    Map<String, String> attributes = component.getAttributes();
+    return String.join(":", attributes.get("groupId"), attributes.get("artifactId"), attributes.get("version"));
   }
 
   private ArtifactRepository createFileRepository(final File target) throws MojoExecutionException {
@@ -254,26 +338,32 @@ public class StagingUploadMojo
     }
   }
 
-  private void addArtifactToComponent(
+  private static DefaultArtifact toArtifact(
       final File target,
       final ArtifactRepository stagingRepository,
-      final List<InputStream> streams,
-      final DefaultComponent component,
       final ArtifactInfo info)
-      throws MojoExecutionException
   {
-
-    final String groupId = info.getGroup();
-    final String artifactId = info.getArtifactId();
     final String artifactType = info.getPackaging();
     final DefaultArtifact defaultArtifact =
-        new DefaultArtifact(groupId, artifactId,
+        new DefaultArtifact(info.getGroup(), info.getArtifactId(),
             VersionRange.createFromVersion(info.getVersion()), null, artifactType,
             info.getClassifier(), new FakeArtifactHandler(artifactType, info.getExtension()));
+    defaultArtifact.setFile(new File(target, stagingRepository.pathOf(defaultArtifact)));
+    return defaultArtifact;
+  }
+
+  private void addArtifactToComponent(
+      final File target,
+      final ArtifactRepository stagingRepository,
+      final DefaultComponent component,
+      final ArtifactInfo info)
+  {
+    final String groupId = info.getGroup();
+    final String artifactId = info.getArtifactId();
+    final DefaultArtifact defaultArtifact = toArtifact(target, stagingRepository, info);
     log.info(String.format("Artifact: %s", defaultArtifact));
 
-    File assetFile = new File(target, stagingRepository.pathOf(defaultArtifact));
-    defaultArtifact.setFile(assetFile);
+    File assetFile = defaultArtifact.getFile();
 
     if (info.getPomFileName() != null) {
       final File associatedPomFile = new File(assetFile.getParentFile(), info.getPomFileName());
@@ -288,7 +378,7 @@ public class StagingUploadMojo
 
     if (assetFile.exists()) {
       String assetName = assetFile.getName();
-      processAsset(component, defaultArtifact, assetName, streams);
+      processAsset(component, defaultArtifact, assetName);
     }
     else {
       log.warn(String.format("Skipping asset as file not found: %s", assetFile));
@@ -299,32 +389,18 @@ public class StagingUploadMojo
   private void processAsset(
       final DefaultComponent component,
       final Artifact deployableArtifact,
-      final String assetName,
-      final List<InputStream> streams)
-      throws MojoExecutionException
+      final String assetName)
   {
-    try {
-      FileInputStream stream = new FileInputStream(deployableArtifact.getFile());
-      streams.add(stream);
-      DefaultAsset asset = new DefaultAsset(assetName, stream);
+    // a file backed asset can be sent again if the upload is retried
+    DefaultAsset asset = new DefaultAsset(assetName, deployableArtifact.getFile());
 
-      // NEXUS-22246 - just like the maven class DefaultArtifactDeployer use the ArtifactHandler#getExtension()
-      asset.addAttribute("extension", deployableArtifact.getArtifactHandler().getExtension());
+    // NEXUS-22246 - just like the maven class DefaultArtifactDeployer use the ArtifactHandler#getExtension()
+    asset.addAttribute("extension", deployableArtifact.getArtifactHandler().getExtension());
 
-      if (deployableArtifact.getClassifier() != null) {
-        asset.addAttribute("classifier", deployableArtifact.getClassifier());
-      }
-      component.addAsset(asset);
-    }
-    catch (IOException ex) {
-      if (log.isDebugEnabled()) {
-        log.warn(String.format("Exception uploading asset %s", assetName), ex);
-      }
-      else {
-        log.warn(String.format("Exception uploading asset %s: %s", assetName, ex.getLocalizedMessage()));
-      }
-      throw (new MojoExecutionException(ex));
+    if (deployableArtifact.getClassifier() != null) {
+      asset.addAttribute("classifier", deployableArtifact.getClassifier());
     }
+    component.addAsset(asset);
   }
 
   public static class ArtifactInfoKey
@@ -391,6 +467,16 @@ public class StagingUploadMojo
     this.artifact = artifact;
   }
 
+  @VisibleForTesting
+  void setResume(final boolean resume) {
+    this.resume = resume;
+  }
+
+  @VisibleForTesting
+  void setSkipPreflight(final boolean skipPreflight) {
+    this.skipPreflight = skipPreflight;
+  }
+
   @VisibleForTesting
   void setTag(final String tag) {
     this.tag = tag;
@@ -0,0 +1,178 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Executes uploads on virtual threads when the Java runtime supports them (Java 21 and later) or on a bounded pool of
+ * platform threads otherwise. In both cases a semaphore bounds the number of uploads in flight, so that NXRM is not
+ * overwhelmed however cheap the threads are.
+ *
+ * A permit is taken by the submitting thread, so tasks start in submission order and {@link #submit(Callable)} blocks
+ * while the maximum number of uploads is in flight.
+ *
+ * @since 1.0.14
+ */
+class UploadExecutor
+    implements AutoCloseable
+{
+  private static final String THREAD_NAME_PREFIX = "nxrm3-upload-";
+
+  /**
+   * The kind of threads running the uploads.
+   */
+  enum Mode
+  {
+    /**
+     * Virtual threads if the runtime supports them, platform threads otherwise.
+     */
+    AUTO,
+    VIRTUAL,
+    PLATFORM;
+
+    static Mode parse(final String value) {
+      try {
+        return valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+      }
+      catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+            String.format("Unknown upload executor '%s', expected one of auto, virtual or platform", value), e);
+      }
+    }
+  }
+
+  private final ExecutorService delegate;
+
+  private final Semaphore uploadSlots;
+
+  private final boolean virtual;
+
+  private UploadExecutor(final ExecutorService delegate, final int maxConcurrent, final boolean virtual) {
+    this.delegate = delegate;
+    this.uploadSlots = new Semaphore(maxConcurrent, true);
+    this.virtual = virtual;
+  }
+
+  /**
+   * Creates an executor running at most the given number of uploads at once. Virtual threads are used unless the mode
+   * is {@link Mode#PLATFORM} or the runtime does not support them.
+   */
+  static UploadExecutor create(final Mode mode, final int maxConcurrent) {
+    checkArgument(maxConcurrent > 0, "Maximum concurrent uploads must be greater than zero");
+    if (mode != Mode.PLATFORM) {
+      ExecutorService virtualThreads = newVirtualThreadExecutor();
+      if (virtualThreads != null) {
+        return new UploadExecutor(virtualThreads, maxConcurrent, true);
+      }
+    }
+    return new UploadExecutor(Executors.newFixedThreadPool(maxConcurrent, new PlatformThreadFactory()),
+        maxConcurrent, false);
+  }
+
+  /**
+   * @return {@code true} if virtual threads are supported by the runtime.
+   */
+  static boolean isVirtualThreadSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    }
+    catch (NoSuchMethodException e) { // NOSONAR
+      return false;
+    }
+  }
+
+  boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Submits a task, waiting for an upload slot to become free first.
+   */
+  <T> Future<T> submit(final Callable<T> task) throws InterruptedException {
+    uploadSlots.acquire();
+    FutureTask<T> future = new FutureTask<T>(task)
+    {
+      @Override
+      protected void done() {
+        uploadSlots.release();
+      }
+    };
+    try {
+      delegate.execute(future);
+    }
+    catch (RejectedExecutionException e) {
+      uploadSlots.release();
+      throw e;
+    }
+    return future;
+  }
+
+  /**
+   * Stops the executor, interrupting running uploads.
+   */
+  void shutdownNow() {
+    delegate.shutdownNow();
+  }
+
+  @Override
+  public void close() {
+    delegate.shutdown();
+  }
+
+  /**
+   * The plugin is compiled for Java 17, so the Java 21 virtual thread API is looked up reflectively.
+   */
+  private static ExecutorService newVirtualThreadExecutor() {
+    if (!isVirtualThreadSupported()) {
+      return null;
+    }
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 1L);
+      ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+      Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) newExecutor.invoke(null, factory);
+    }
+    catch (ReflectiveOperationException | RuntimeException e) { // NOSONAR
+      return null;
+    }
+  }
+
+  private static class PlatformThreadFactory
+      implements ThreadFactory
+  {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Journal of the components completely uploaded from the staging directory, so that an interrupted upload can be
+ * resumed without sending those components again.
+ *
+ * Each completed component is recorded as a single
+ * {@code fingerprint<TAB>nexusUrl<TAB>repository<TAB>tag<TAB>component} line which is forced to disk before the upload
+ * of the next component is acknowledged. The fingerprint covers the name, size and modification time of every file of
+ * the component, so a component which was staged again is uploaded again without the content of any file having to
+ * be read. Only the components uploaded to the same repository of the same NXRM count as completed, so uploading to
+ * another one sends everything. A line left incomplete by a killed build is ignored.
+ *
+ * @since 1.0.14
+ */
+class UploadJournal
+    implements Closeable
+{
+  private static final String SEPARATOR = "\t";
+
+  private final String nexusUrl;
+
+  private final String repository;
+
+  private final Map<String, String> completed;
+
+  private final FileChannel channel;
+
+  private UploadJournal(
+      final String nexusUrl,
+      final String repository,
+      final Map<String, String> completed,
+      final FileChannel channel)
+  {
+    this.nexusUrl = nexusUrl;
+    this.repository = repository;
+    this.completed = completed;
+    this.channel = channel;
+  }
+
+  /**
+   * Opens the journal of the uploads to the given repository.
+   *
+   * @param resume {@code true} to keep the components recorded by a previous run, {@code false} to start afresh
+   */
+  static UploadJournal open(final File file, final String nexusUrl, final String repository, final boolean resume)
+      throws IOException
+  {
+    Map<String, String> completed = new HashMap<>();
+    if (resume && file.exists()) {
+      try (BufferedReader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          String[] record = line.split(SEPARATOR, 5);
+          if (record.length == 5 && record[1].equals(String.valueOf(nexusUrl))
+              && record[2].equals(String.valueOf(repository))) {
+            completed.put(key(record[4], record[3]), record[0]);
+          }
+        }
+      }
+    }
+    Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+    FileChannel channel = resume
+        ? FileChannel.open(file.toPath(), CREATE, READ, WRITE)
+        : FileChannel.open(file.toPath(), CREATE, WRITE, TRUNCATE_EXISTING);
+    channel.position(channel.size());
+    if (resume && !endsWithNewLine(channel)) {
+      // terminate the record a killed build was writing, so it stays ignored
+      write(channel, "\n");
+    }
+    return new UploadJournal(nexusUrl, repository, completed, channel);
+  }
+
+  /**
+   * Returns {@code true} if the component was completely uploaded with the given tag and files by a previous run.
+   */
+  synchronized boolean isCompleted(final String component, final String tag, final String fingerprint) {
+    return fingerprint.equals(completed.get(key(component, tag)));
+  }
+
+  /**
+   * Durably records that the component has been completely uploaded.
+   */
+  synchronized void completed(final String component, final String tag, final String fingerprint) throws IOException {
+    write(channel, String.join(SEPARATOR, fingerprint, nexusUrl, repository, tag, component) + "\n");
+    channel.force(false);
+    completed.put(key(component, tag), fingerprint);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Returns a fingerprint of the names, sizes and modification times of the given files.
+   */
+  static String fingerprint(final Collection<File> files) {
+    List<File> sorted = new ArrayList<>(files);
+    sorted.sort(Comparator.comparing(File::getName));
+
+    StringBuilder content = new StringBuilder();
+    for (File file : sorted) {
+      content.append(file.getName()).append(':').append(file.length()).append(':').append(file.lastModified())
+          .append('\n');
+    }
+    return Checksums.sha1(content.toString());
+  }
+
+  private static boolean endsWithNewLine(final FileChannel channel) throws IOException {
+    long size = channel.size();
+    if (size == 0) {
+      return true;
+    }
+    ByteBuffer last = ByteBuffer.allocate(1);
+    channel.read(last, size - 1);
+    return last.get(0) == '\n';
+  }
+
+  private static void write(final FileChannel channel, final String content) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(UTF_8));
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static String key(final String component, final String tag) {
+    return component + SEPARATOR + tag;
+  }
+}
@@ -0,0 +1,300 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.sonatype.nexus.api.repository.v3.UploadListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Records the size and duration of component uploads, and summarises them in the build log and in a JSON report
+ * which CI can use to track upload throughput over time.
+ *
+ * The latency of an upload is split at the moment its request body has been completely written: the time before is
+ * spent by the client building the request, connecting and sending the assets, the time after is spent by the server
+ * storing the component and responding. A retried upload is split at its last attempt.
+ *
+ * @since 1.0.14
+ */
+class UploadStatistics
+{
+  private static final double BYTES_PER_MEGABYTE = 1_000_000d;
+
+  private final LongSupplier nanoTime;
+
+  private final List<Sample> samples = new ArrayList<>();
+
+  private int skipped;
+
+  UploadStatistics() {
+    this(System::nanoTime);
+  }
+
+  @VisibleForTesting
+  UploadStatistics(final LongSupplier nanoTime) {
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Returns the statistics shared by all modules of a session, so that the report of a reactor build covers every
+   * module rather than only the last one. The given callback of the first caller reports them once, when the session
+   * has ended.
+   */
+  static UploadStatistics forSession(final MavenSession session, final Consumer<UploadStatistics> report) {
+    SessionScope scope = SessionScope.of(session);
+    return scope.get(UploadStatistics.class, () -> {
+      UploadStatistics statistics = new UploadStatistics();
+      scope.onSessionEnd(() -> report.accept(statistics));
+      return statistics;
+    });
+  }
+
+  /**
+   * Starts timing the upload of a component; the returned listener has to be passed to the client and finished once
+   * the upload completed or failed.
+   */
+  Upload start(final String component) {
+    return new Upload(component, nanoTime.getAsLong());
+  }
+
+  /**
+   * Counts a component which did not need to be uploaded.
+   */
+  synchronized void skipped() {
+    skipped++;
+  }
+
+  synchronized boolean isEmpty() {
+    return samples.isEmpty() && skipped == 0;
+  }
+
+  private synchronized void add(final Sample sample) {
+    samples.add(sample);
+  }
+
+  private synchronized List<Sample> samples() {
+    return new ArrayList<>(samples);
+  }
+
+  /**
+   * Logs a compact summary table of the recorded uploads.
+   */
+  void logSummary(final Log log) {
+    List<Sample> all = samples();
+    List<Sample> succeeded = all.stream().filter(sample -> sample.succeeded).collect(toList());
+    List<Long> latencies = succeeded.stream().map(Sample::latencyNanos).sorted().collect(toList());
+
+    log.info(String.format("Upload summary: %d uploaded, %d failed, %d skipped", succeeded.size(),
+        all.size() - succeeded.size(), getSkipped()));
+    if (all.isEmpty()) {
+      return;
+    }
+    log.info(String.format("  Sent            %.1f MB in %.2f s (%.2f MB/s)", bytes(succeeded) / BYTES_PER_MEGABYTE,
+        elapsedNanos(all) / 1e9, megabytesPerSecond(succeeded, all)));
+    if (!latencies.isEmpty()) {
+      log.info(String.format("  Latency         p50 %d ms, p95 %d ms, max %d ms", millis(percentile(latencies, 50)),
+          millis(percentile(latencies, 95)), millis(latencies.get(latencies.size() - 1))));
+    }
+    log.info(String.format("  Client/server   %.2f s sending, %.2f s waiting for the server",
+        all.stream().mapToLong(Sample::clientNanos).sum() / 1e9,
+        all.stream().mapToLong(Sample::serverNanos).sum() / 1e9));
+  }
+
+  /**
+   * Writes the recorded uploads as a JSON report, replacing an existing report.
+   */
+  void writeReport(final File file, final String goal) throws IOException {
+    List<Sample> all = samples();
+    List<Sample> succeeded = all.stream().filter(sample -> sample.succeeded).collect(toList());
+    List<Long> latencies = succeeded.stream().map(Sample::latencyNanos).sorted().collect(toList());
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("goal", goal);
+    report.put("timestamp", Instant.now().toString());
+    report.put("uploaded", succeeded.size());
+    report.put("failed", all.size() - succeeded.size());
+    report.put("skipped", getSkipped());
+    report.put("bytes", bytes(succeeded));
+    report.put("elapsedMillis", millis(elapsedNanos(all)));
+    report.put("megabytesPerSecond", megabytesPerSecond(succeeded, all));
+    if (!latencies.isEmpty()) {
+      Map<String, Object> latency = new LinkedHashMap<>();
+      latency.put("p50", millis(percentile(latencies, 50)));
+      latency.put("p95", millis(percentile(latencies, 95)));
+      latency.put("max", millis(latencies.get(latencies.size() - 1)));
+      report.put("latencyMillis", latency);
+    }
+    report.put("clientMillis", millis(all.stream().mapToLong(Sample::clientNanos).sum()));
+    report.put("serverMillis", millis(all.stream().mapToLong(Sample::serverNanos).sum()));
+
+    List<Map<String, Object>> uploads = new ArrayList<>();
+    for (Sample sample : all) {
+      Map<String, Object> upload = new LinkedHashMap<>();
+      upload.put("component", sample.component);
+      upload.put("succeeded", sample.succeeded);
+      upload.put("bytes", sample.bytes);
+      upload.put("attempts", sample.attempts);
+      upload.put("latencyMillis", millis(sample.latencyNanos()));
+      upload.put("clientMillis", millis(sample.clientNanos()));
+      upload.put("serverMillis", millis(sample.serverNanos()));
+      uploads.add(upload);
+    }
+    report.put("uploads", uploads);
+
+    File directory = file.getParentFile();
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Unable to create directory " + directory);
+    }
+    new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+  }
+
+  private synchronized int getSkipped() {
+    return skipped;
+  }
+
+  private static long bytes(final List<Sample> samples) {
+    return samples.stream().mapToLong(sample -> sample.bytes).sum();
+  }
+
+  /**
+   * The wall clock time from the first upload starting to the last one finishing, which is less than the sum of the
+   * latencies when components are uploaded concurrently.
+   */
+  private static long elapsedNanos(final List<Sample> samples) {
+    if (samples.isEmpty()) {
+      return 0;
+    }
+    long first = samples.stream().mapToLong(sample -> sample.startNanos).min().getAsLong();
+    long last = samples.stream().mapToLong(sample -> sample.endNanos).max().getAsLong();
+    return last - first;
+  }
+
+  private static double megabytesPerSecond(final List<Sample> succeeded, final List<Sample> all) {
+    long elapsed = elapsedNanos(all);
+    return elapsed == 0 ? 0 : bytes(succeeded) / BYTES_PER_MEGABYTE / (elapsed / 1e9);
+  }
+
+  /**
+   * Nearest-rank percentile of an ascending list.
+   */
+  private static long percentile(final List<Long> sorted, final int percentile) {
+    int rank = (int) Math.ceil(percentile / 100d * sorted.size());
+    return sorted.get(Math.max(rank, 1) - 1);
+  }
+
+  private static long millis(final long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+
+  /**
+   * Times the upload of a single component.
+   */
+  class Upload
+      implements UploadListener
+  {
+    private final String component;
+
+    private final long startNanos;
+
+    private long sentNanos;
+
+    private long bytes;
+
+    private int attempts;
+
+    private Upload(final String component, final long startNanos) {
+      this.component = component;
+      this.startNanos = startNanos;
+    }
+
+    @Override
+    public synchronized void requestSent(final long bytes) {
+      this.sentNanos = nanoTime.getAsLong();
+      this.bytes = bytes;
+      this.attempts++;
+    }
+
+    /**
+     * Stops timing and records the upload.
+     */
+    synchronized void finish(final boolean succeeded) {
+      long endNanos = nanoTime.getAsLong();
+      // a client which does not report the request attributes the whole upload to the server
+      add(new Sample(component, succeeded, bytes, Math.max(attempts, 1), startNanos,
+          attempts > 0 ? sentNanos : startNanos, endNanos));
+    }
+  }
+
+  private static class Sample
+  {
+    private final String component;
+
+    private final boolean succeeded;
+
+    private final long bytes;
+
+    private final int attempts;
+
+    private final long startNanos;
+
+    private final long sentNanos;
+
+    private final long endNanos;
+
+    private Sample(
+        final String component,
+        final boolean succeeded,
+        final long bytes,
+        final int attempts,
+        final long startNanos,
+        final long sentNanos,
+        final long endNanos)
+    {
+      this.component = component;
+      this.succeeded = succeeded;
+      this.bytes = bytes;
+      this.attempts = attempts;
+      this.startNanos = startNanos;
+      this.sentNanos = sentNanos;
+      this.endNanos = endNanos;
+    }
+
+    private long latencyNanos() {
+      return endNanos - startNanos;
+    }
+
+    private long clientNanos() {
+      return sentNanos - startNanos;
+    }
+
+    private long serverNanos() {
+      return endNanos - sentNanos;
+    }
+  }
+}
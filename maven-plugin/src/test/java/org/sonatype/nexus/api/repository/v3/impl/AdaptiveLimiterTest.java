@@ -0,0 +1,119 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import org.sonatype.nexus.api.repository.v3.ConcurrencyLimit;
+import org.sonatype.nexus.api.repository.v3.impl.AdaptiveLimiter.Permit;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class AdaptiveLimiterTest
+{
+  private final List<String> changes = new ArrayList<>();
+
+  private final AdaptiveLimiter limiter = new AdaptiveLimiter(ConcurrencyLimit.adaptive(4).withInitialLimit(2)
+      .withListener((previousLimit, newLimit, reason) -> changes.add(previousLimit + "->" + newLimit)));
+
+  @Test
+  public void limitGrowsByOnePerWindowOfSuccessesUpToTheMaximum() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      limiter.succeeded(limiter.acquire(), MILLISECONDS.toNanos(10), 1000);
+    }
+
+    assertThat(limiter.getLimit(), is(4));
+    assertThat(changes.toString(), is("[2->3, 3->4]"));
+  }
+
+  @Test
+  public void overloadedRequestsInFlightTogetherCutTheLimitOnce() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      limiter.succeeded(limiter.acquire(), MILLISECONDS.toNanos(10), 1000);
+    }
+    Permit first = limiter.acquire();
+    Permit second = limiter.acquire();
+
+    first.overloaded(503, 0);
+    second.overloaded(429, 0);
+
+    assertThat(limiter.getLimit(), is(2));
+    assertThat(changes.toString(), is("[2->3, 3->4, 4->2]"));
+  }
+
+  @Test
+  public void slowRequestCutsTheLimit() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      limiter.succeeded(limiter.acquire(), MILLISECONDS.toNanos(10), 1000);
+    }
+
+    // a larger request is only compared with other large requests
+    limiter.succeeded(limiter.acquire(), MILLISECONDS.toNanos(100), 1024 * 1024);
+    assertThat(limiter.getLimit(), is(4));
+
+    limiter.succeeded(limiter.acquire(), MILLISECONDS.toNanos(100), 1000);
+    assertThat(limiter.getLimit(), is(2));
+  }
+
+  @Test
+  public void smallRequestsAfterLargeOnesDoNotCutTheLimit() throws Exception {
+    // components are uploaded largest first, so the jars are followed by the poms
+    for (int i = 0; i < 10; i++) {
+      limiter.succeeded(limiter.acquire(), MILLISECONDS.toNanos(2000), 50 * 1024 * 1024);
+    }
+    for (int i = 0; i < 20; i++) {
+      limiter.succeeded(limiter.acquire(), MILLISECONDS.toNanos(20), 2000);
+    }
+
+    assertThat(limiter.getLimit(), is(4));
+    assertThat(changes.toString(), is("[2->3, 3->4]"));
+  }
+
+  @Test
+  public void acquireWaitsForAFreePermitAndRetryAfter() throws Exception {
+    Permit first = limiter.acquire();
+    long start = System.nanoTime();
+    limiter.acquire().overloaded(503, 200);
+    assertThat(limiter.getLimit(), is(1));
+
+    CompletableFuture<Permit> waiting = CompletableFuture.supplyAsync(() -> {
+      try {
+        return limiter.acquire();
+      }
+      catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    try {
+      waiting.get(100, MILLISECONDS);
+      fail("Expected the limit to be exhausted");
+    }
+    catch (TimeoutException expected) {
+      // still in flight
+    }
+
+    first.failed();
+    waiting.get(5, SECONDS);
+    assertThat(NANOSECONDS.toMillis(System.nanoTime() - start) >= 200, is(true));
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.CircuitBreakerPolicy;
+import org.sonatype.nexus.api.repository.v3.impl.rest.NxrmResponseException;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest
+{
+  private final AtomicInteger probes = new AtomicInteger();
+
+  private IOException probeFailure = new ConnectException("connection refused");
+
+  private final CircuitBreaker circuitBreaker =
+      new CircuitBreaker(CircuitBreakerPolicy.defaults().withFailureThreshold(3).withOpenMillis(100), () -> {
+        probes.incrementAndGet();
+        if (probeFailure != null) {
+          throw probeFailure;
+        }
+      });
+
+  @Test
+  public void opensAfterConsecutiveServerFailures() throws Exception {
+    circuitBreaker.failed(new NxrmResponseException(502, "Bad Gateway", null));
+    circuitBreaker.failed(new ConnectException("connection refused"));
+    circuitBreaker.beforeAttempt("Get tag");
+    circuitBreaker.failed(new NxrmResponseException(500, "Internal Server Error", null));
+
+    assertThat(circuitBreaker.isOpen(), is(true));
+    try {
+      circuitBreaker.beforeAttempt("Upload component");
+      fail("Expected the circuit to be open");
+    }
+    catch (RepositoryManagerException e) {
+      assertThat(e.getMessage().startsWith("Upload component was not sent because the last 3 requests to NXRM failed"),
+          is(true));
+      assertThat(e.getCause() instanceof NxrmResponseException, is(true));
+    }
+    assertThat(probes.get(), is(0));
+  }
+
+  @Test
+  public void rejectedRequestsAndSuccessesResetTheCount() {
+    circuitBreaker.failed(new ConnectException("connection refused"));
+    circuitBreaker.failed(new ConnectException("connection refused"));
+    circuitBreaker.failed(new NxrmResponseException(404, "Not Found", null));
+    circuitBreaker.failed(new ConnectException("connection refused"));
+    circuitBreaker.failed(new ConnectException("connection refused"));
+    circuitBreaker.succeeded();
+    circuitBreaker.failed(new ConnectException("connection refused"));
+
+    assertThat(circuitBreaker.isOpen(), is(false));
+  }
+
+  @Test
+  public void busyServerDoesNotCount() {
+    circuitBreaker.failed(new NxrmResponseException(503, "Service Unavailable", null));
+    circuitBreaker.failed(new NxrmResponseException(429, "Too Many Requests", null));
+    circuitBreaker.failed(new NxrmResponseException(503, "Service Unavailable", null));
+
+    assertThat(circuitBreaker.isOpen(), is(false));
+  }
+
+  @Test
+  public void localAndParsingFailuresDoNotCount() {
+    circuitBreaker.failed(new FileNotFoundException("target/artifact-1.0.jar (No such file or directory)"));
+    circuitBreaker.failed(new JsonParseException(null, "Unexpected character ('<')"));
+    circuitBreaker.failed(new FileNotFoundException("target/artifact-1.0.pom (No such file or directory)"));
+
+    assertThat(circuitBreaker.isOpen(), is(false));
+  }
+
+  @Test
+  public void unansweredRequestsCount() {
+    circuitBreaker.failed(new SocketTimeoutException("Read timed out"));
+    circuitBreaker.failed(new NoHttpResponseException("localhost:8081 failed to respond"));
+    circuitBreaker.failed(new ConnectTimeoutException("Connect to localhost:8081 timed out"));
+
+    assertThat(circuitBreaker.isOpen(), is(true));
+  }
+
+  @Test
+  public void retryWaitsForTheProbe() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      circuitBreaker.failed(new ConnectException("connection refused"));
+    }
+    probeFailure = null;
+
+    circuitBreaker.beforeAttempt("Get tag", 1000);
+
+    assertThat(probes.get(), is(1));
+    assertThat(circuitBreaker.isOpen(), is(false));
+  }
+
+  @Test
+  public void retryFailsIfTheCircuitStaysOpenLongerThanItMayWait() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      circuitBreaker.failed(new ConnectException("connection refused"));
+    }
+
+    try {
+      circuitBreaker.beforeAttempt("Get tag", 10);
+      fail("Expected the circuit to be open");
+    }
+    catch (RepositoryManagerException e) {
+      assertThat(e.getMessage().startsWith("Get tag was not sent because the last 3 requests to NXRM failed"),
+          is(true));
+    }
+    assertThat(probes.get(), is(0));
+  }
+
+  @Test
+  public void probesOnceTheOpenTimeHasPassed() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      circuitBreaker.failed(new ConnectException("connection refused"));
+    }
+    Thread.sleep(150);
+
+    try {
+      circuitBreaker.beforeAttempt("Get tag");
+      fail("Expected the probe to fail");
+    }
+    catch (RepositoryManagerException e) {
+      assertThat(e.getCause() == probeFailure, is(true));
+      assertThat(e.getMessage().startsWith("Get tag was not sent because NXRM did not answer when it was checked"),
+          is(true));
+    }
+    assertThat(probes.get(), is(1));
+    assertThat(circuitBreaker.isOpen(), is(true));
+
+    probeFailure = null;
+    Thread.sleep(150);
+    circuitBreaker.beforeAttempt("Get tag");
+
+    assertThat(probes.get(), is(2));
+    assertThat(circuitBreaker.isOpen(), is(false));
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sonatype.nexus.api.common.Authentication;
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+import org.sonatype.nexus.api.repository.v3.DefaultAsset;
+import org.sonatype.nexus.api.repository.v3.DefaultComponent;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+import org.sonatype.nexus.api.repository.v3.Tag;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.fail;
+
+public class DefaultNexusRepositoryV3AsyncClientTest
+{
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private HttpServer server;
+
+  private final List<String> requests = new CopyOnWriteArrayList<>();
+
+  private final List<String> bodies = new CopyOnWriteArrayList<>();
+
+  private DefaultNexusRepositoryV3AsyncClient underTest;
+
+  @Before
+  public void setup() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.start();
+    URI address = URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+    underTest = new DefaultNexusRepositoryV3AsyncClient(new ServerConfig(address, new Authentication("admin", "pass")),
+        HttpClient.newHttpClient(), RetryPolicy.defaults().withBackoff(1, 1), "test");
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void getTagReturnsEmptyWhenNotFound() throws Exception {
+    respond("/service/rest/v1/tags/", 404, "");
+
+    assertThat(underTest.getTag("missing").get(), is(Optional.empty()));
+    assertThat(requests.get(0), is("GET /service/rest/v1/tags/missing Basic YWRtaW46cGFzcw=="));
+  }
+
+  @Test
+  public void uploadsMultipartForm() throws Exception {
+    File jar = temporaryFolder.newFile("artifact-1.0.jar");
+    Files.write(jar.toPath(), "jar content".getBytes(UTF_8));
+    DefaultComponent component = new DefaultComponent("maven2");
+    component.addAttribute("groupId", "group");
+    DefaultAsset asset = new DefaultAsset(jar.getName(), jar);
+    asset.addAttribute("extension", "jar");
+    component.addAsset(asset);
+    respond("/service/rest/v1/components", 204, "");
+
+    underTest.upload("maven-releases", component, "tag").get();
+
+    assertThat(requests.get(0), containsString("POST /service/rest/v1/components?repository=maven-releases"));
+    String body = bodies.get(0);
+    assertThat(body,
+        containsString("name=\"maven2.groupId\"\r\nContent-Type: text/plain; charset=UTF-8\r\n\r\ngroup\r\n"));
+    assertThat(body, containsString("name=\"asset0\"; filename=\"artifact-1.0.jar\""));
+    assertThat(body, containsString("\r\n\r\njar content\r\n"));
+    assertThat(body, containsString("name=\"maven2.asset0.extension\""));
+    assertThat(body, containsString("name=\"maven2.tag\""));
+  }
+
+  @Test
+  public void overlapsRequests() throws Exception {
+    respond("/service/rest/v1/staging/move/", 200,
+        "{\"data\":{\"components moved\":[{\"name\":\"a\",\"group\":\"g\",\"version\":\"1\"}]}}");
+
+    CompletableFuture<List<ComponentInfo>> first = underTest.move("dest", Map.of("tag", "one"));
+    CompletableFuture<List<ComponentInfo>> second = underTest.move("dest", Map.of("tag", "two"));
+
+    assertThat(first.get().size(), is(1));
+    assertThat(second.get().get(0).getName(), is(Optional.of("a")));
+    assertThat(requests.size(), is(2));
+  }
+
+  @Test
+  public void retriesBusyServer() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    server.createContext("/service/rest/v1/tags/", exchange -> {
+      requests.add(exchange.getRequestMethod());
+      if (attempts.incrementAndGet() == 1) {
+        reply(exchange, 503, "");
+      }
+      else {
+        reply(exchange, 200, "{\"name\":\"tag\"}");
+      }
+    });
+
+    assertThat(underTest.getTag("tag").get().map(Tag::getName), is(Optional.of("tag")));
+    assertThat(attempts.get(), is(2));
+  }
+
+  @Test
+  public void failsWithRepositoryManagerException() throws Exception {
+    respond("/service/rest/v1/tags", 400, "{\"message\":\"duplicate\"}");
+
+    try {
+      underTest.createTag("tag").get();
+      fail("Expected ExecutionException");
+    }
+    catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(RepositoryManagerException.class));
+      assertThat(((RepositoryManagerException) e.getCause()).getResponseStatus(), is(Optional.of(400)));
+    }
+  }
+
+  private void respond(final String path, final int status, final String body) {
+    server.createContext(path, exchange -> {
+      requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " " +
+          exchange.getRequestHeaders().getFirst("Authorization"));
+      bodies.add(read(exchange.getRequestBody()));
+      reply(exchange, status, body);
+    });
+  }
+
+  private static void reply(final HttpExchange exchange, final int status, final String body) throws IOException {
+    byte[] bytes = body.getBytes(UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private static String read(final InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    in.transferTo(out);
+    return out.toString(UTF_8.name());
+  }
+}
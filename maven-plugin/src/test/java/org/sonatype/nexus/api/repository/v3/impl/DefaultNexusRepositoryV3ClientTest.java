@@ -0,0 +1,208 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.repository.v3.AssetSource;
+import org.sonatype.nexus.api.repository.v3.DefaultAsset;
+import org.sonatype.nexus.api.repository.v3.DefaultComponent;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultNexusRepositoryV3ClientTest
+{
+  private static final String CONTENT = "some jar content";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock
+  private HttpClient httpClient;
+
+  private File jar;
+
+  private DefaultNexusRepositoryV3Client underTest;
+
+  @Before
+  public void setup() throws Exception {
+    jar = temporaryFolder.newFile("artifact-1.0.jar");
+    Files.write(jar.toPath(), CONTENT.getBytes(UTF_8));
+    underTest = new DefaultNexusRepositoryV3Client(new ServerConfig(URI.create("http://localhost:8081/")), httpClient);
+  }
+
+  @Test
+  public void fileAssetIsSentWithKnownLengthAndCanBeResent() throws Exception {
+    underTest.upload("maven-releases", component(new DefaultAsset(jar.getName(), jar)), "tag");
+
+    HttpEntity entity = uploadedEntity();
+    assertThat(entity.isRepeatable(), is(true));
+    assertThat(entity.isChunked(), is(false));
+    String first = write(entity);
+    assertThat((long) first.getBytes(UTF_8).length, is(entity.getContentLength()));
+    assertThat(first, containsString(CONTENT));
+    assertThat(write(entity), is(first));
+  }
+
+  @Test
+  public void fileStreamAssetIsSentWithKnownLengthOnce() throws Exception {
+    try (FileInputStream stream = new FileInputStream(jar)) {
+      underTest.upload("maven-releases", component(new DefaultAsset(jar.getName(), stream)), "tag");
+
+      HttpEntity entity = uploadedEntity();
+      assertThat(entity.isRepeatable(), is(false));
+      String body = write(entity);
+      assertThat((long) body.getBytes(UTF_8).length, is(entity.getContentLength()));
+      assertThat(body, containsString(CONTENT));
+    }
+  }
+
+  @Test
+  public void sourceAssetIsOnlyOpenWhileItsPartIsWritten() throws Exception {
+    AtomicInteger open = new AtomicInteger();
+    AtomicInteger opened = new AtomicInteger();
+    AssetSource source = new AssetSource()
+    {
+      @Override
+      public InputStream open() throws IOException {
+        opened.incrementAndGet();
+        open.incrementAndGet();
+        return new FilterInputStream(Files.newInputStream(jar.toPath()))
+        {
+          @Override
+          public void close() throws IOException {
+            open.decrementAndGet();
+            super.close();
+          }
+        };
+      }
+
+      @Override
+      public long getLength() {
+        return jar.length();
+      }
+    };
+    underTest.upload("maven-releases", component(new DefaultAsset(jar.getName(), source)), "tag");
+
+    HttpEntity entity = uploadedEntity();
+    assertThat(opened.get(), is(0));
+    assertThat(entity.isRepeatable(), is(true));
+    assertThat(entity.isChunked(), is(false));
+    String first = write(entity);
+    assertThat((long) first.getBytes(UTF_8).length, is(entity.getContentLength()));
+    assertThat(first, containsString(CONTENT));
+    assertThat(write(entity), is(first));
+    assertThat(opened.get(), is(2));
+    assertThat(open.get(), is(0));
+  }
+
+  @Test
+  public void sourceShorterThanItsLengthFailsTheWrite() throws Exception {
+    AssetSource source = new AssetSource()
+    {
+      @Override
+      public InputStream open() throws IOException {
+        return Files.newInputStream(jar.toPath());
+      }
+
+      @Override
+      public long getLength() {
+        return jar.length() + 1;
+      }
+    };
+    underTest.upload("maven-releases", component(new DefaultAsset(jar.getName(), source)), "tag");
+
+    try {
+      write(uploadedEntity());
+      fail("expected the write to fail");
+    }
+    catch (IOException e) {
+      assertThat(e.getMessage(), is("Unexpected end of artifact-1.0.jar, 1 bytes missing"));
+    }
+  }
+
+  @Test
+  public void pathAssetIsSentAsAFile() throws Exception {
+    DefaultAsset asset = new DefaultAsset(jar.getName(), jar.toPath());
+
+    assertThat(asset.getFile(), is(jar));
+    assertThat(asset.getSource(), is(nullValue()));
+  }
+
+  @Test
+  public void listenerIsToldTheSizeOfEachSentRequest() throws Exception {
+    List<Long> sent = new ArrayList<>();
+    underTest.upload("maven-releases", component(new DefaultAsset(jar.getName(), jar)), "tag", sent::add);
+
+    HttpEntity entity = uploadedEntity();
+    assertThat(entity.isRepeatable(), is(true));
+    write(entity);
+    write(entity);
+    assertThat(sent, is(asList(entity.getContentLength(), entity.getContentLength())));
+  }
+
+  private static DefaultComponent component(final DefaultAsset asset) {
+    DefaultComponent component = new DefaultComponent("maven2");
+    component.addAttribute("groupId", "group");
+    asset.addAttribute("extension", "jar");
+    component.addAsset(asset);
+    return component;
+  }
+
+  @SuppressWarnings("unchecked")
+  private HttpEntity uploadedEntity() throws Exception {
+    ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+    verify(httpClient).execute(request.capture(), any(ResponseHandler.class), any());
+    return ((HttpPost) request.getValue()).getEntity();
+  }
+
+  private static String write(final HttpEntity entity) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    entity.writeTo(out);
+    return out.toString(UTF_8.name());
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.CircuitBreakerPolicy;
+import org.sonatype.nexus.api.repository.v3.ConcurrencyLimit;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+import org.sonatype.nexus.api.repository.v3.impl.rest.NxrmResponseException;
+import org.sonatype.nexus.api.repository.v3.impl.rest.NxrmResponseHandler;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.OngoingStubbing;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NexusRepositoryHttpClientTest
+{
+  private static final RetryPolicy RETRY_POLICY = RetryPolicy.defaults().withMaxAttempts(3).withBackoff(1, 1);
+
+  private static final NxrmResponseHandler<String> HANDLER = new NxrmResponseHandler<String>()
+  {
+    @Override
+    protected String handle(final String responseBody, final StatusLine statusLine) {
+      return responseBody;
+    }
+  };
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock
+  private HttpClient httpClient;
+
+  @Test
+  public void retriesGetAfterIoError() throws Exception {
+    whenExecuted().thenThrow(new SocketException("Connection reset")).thenReturn("ok");
+
+    String result = new NexusRepositoryHttpClient(httpClient, RETRY_POLICY)
+        .execute(new HttpGet("http://localhost/"), HANDLER, empty(), Optional.of("Get"));
+
+    assertThat(result, is("ok"));
+    verifyAttempts(2);
+  }
+
+  @Test
+  public void givesUpAfterMaxAttempts() throws Exception {
+    whenExecuted().thenThrow(new NxrmResponseException(503, "Service Unavailable", null));
+
+    try {
+      new NexusRepositoryHttpClient(httpClient, RETRY_POLICY)
+          .execute(new HttpGet("http://localhost/"), HANDLER, empty(), Optional.of("Get"));
+      fail("Expected RepositoryManagerException");
+    }
+    catch (RepositoryManagerException e) {
+      assertThat(e.getResponseStatus(), is(Optional.of(503)));
+    }
+    verifyAttempts(3);
+  }
+
+  @Test
+  public void givesUpWhenMaxElapsedTimeExceeded() throws Exception {
+    whenExecuted().thenThrow(new SocketException("Connection reset"));
+    RetryPolicy policy = RetryPolicy.defaults().withMaxAttempts(5).withBackoff(1000, 1000).withMaxElapsedMillis(0);
+
+    try {
+      new NexusRepositoryHttpClient(httpClient, policy)
+          .execute(new HttpGet("http://localhost/"), HANDLER, empty(), Optional.of("Get"));
+      fail("Expected RepositoryManagerException");
+    }
+    catch (RepositoryManagerException e) {
+      verifyAttempts(1);
+    }
+  }
+
+  @Test
+  public void doesNotRetryGetWhoseResponseCannotBeParsed() throws Exception {
+    whenExecuted().thenThrow(new JsonParseException(null, "Unexpected character ('<')"));
+
+    try {
+      new NexusRepositoryHttpClient(httpClient, RETRY_POLICY)
+          .execute(new HttpGet("http://localhost/"), HANDLER, empty(), Optional.of("Get"));
+      fail("Expected RepositoryManagerException");
+    }
+    catch (RepositoryManagerException e) {
+      verifyAttempts(1);
+    }
+  }
+
+  @Test
+  public void doesNotRetryPostAfterReadError() throws Exception {
+    whenExecuted().thenThrow(new SocketTimeoutException("Read timed out"));
+
+    try {
+      new NexusRepositoryHttpClient(httpClient, RETRY_POLICY)
+          .execute(repeatableUpload(), HANDLER, empty(), Optional.of("Upload"));
+      fail("Expected RepositoryManagerException");
+    }
+    catch (RepositoryManagerException e) {
+      verifyAttempts(1);
+    }
+  }
+
+  @Test
+  public void retriesRepeatableUploadRejectedByBusyServer() throws Exception {
+    whenExecuted()
+        .thenThrow(new ConnectException("connection refused"))
+        .thenThrow(new NxrmResponseException(503, "Service Unavailable", null))
+        .thenReturn("ok");
+
+    String result = new NexusRepositoryHttpClient(httpClient, RETRY_POLICY)
+        .execute(repeatableUpload(), HANDLER, empty(), Optional.of("Upload"));
+
+    assertThat(result, is("ok"));
+    verifyAttempts(3);
+  }
+
+  @Test
+  public void doesNotRetryNonRepeatableUpload() throws Exception {
+    whenExecuted().thenThrow(new ConnectException("connection refused"));
+    HttpPost post = new HttpPost("http://localhost/");
+    post.setEntity(new InputStreamEntity(new ByteArrayInputStream(new byte[1])));
+
+    try {
+      new NexusRepositoryHttpClient(httpClient, RETRY_POLICY)
+          .execute(post, HANDLER, empty(), Optional.of("Upload"));
+      fail("Expected RepositoryManagerException");
+    }
+    catch (RepositoryManagerException e) {
+      verifyAttempts(1);
+    }
+  }
+
+  @Test
+  public void retryWaitsAsLongAsRetryAfterAsks() throws Exception {
+    whenExecuted().thenThrow(new NxrmResponseException(429, "Too Many Requests", null, 200L)).thenReturn("ok");
+
+    long start = System.nanoTime();
+    new NexusRepositoryHttpClient(httpClient, RETRY_POLICY)
+        .execute(new HttpGet("http://localhost/"), HANDLER, empty(), Optional.of("Get"));
+
+    assertThat(NANOSECONDS.toMillis(System.nanoTime() - start) >= 200, is(true));
+    verifyAttempts(2);
+  }
+
+  @Test
+  public void busyServerCutsAdaptiveLimit() throws Exception {
+    whenExecuted().thenThrow(new NxrmResponseException(503, "Service Unavailable", null)).thenReturn("ok");
+    AdaptiveLimiter limiter = new AdaptiveLimiter(ConcurrencyLimit.adaptive(8).withInitialLimit(8));
+
+    new NexusRepositoryHttpClient(httpClient, RETRY_POLICY)
+        .execute(repeatableUpload(), HANDLER, empty(), Optional.of("Upload"), false, limiter);
+
+    assertThat(limiter.getLimit(), is(4));
+    verifyAttempts(2);
+  }
+
+  @Test
+  public void circuitBreakerCountsRequestsRatherThanAttempts() throws Exception {
+    whenExecuted().thenThrow(new SocketTimeoutException("Read timed out"));
+    CircuitBreaker circuitBreaker =
+        new CircuitBreaker(CircuitBreakerPolicy.defaults().withFailureThreshold(2).withOpenMillis(60_000), () -> {
+        });
+    NexusRepositoryHttpClient client = new NexusRepositoryHttpClient(httpClient, RETRY_POLICY, circuitBreaker);
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(circuitBreaker.isOpen(), is(false));
+      try {
+        client.execute(new HttpGet("http://localhost/"), HANDLER, empty(), Optional.of("Get"));
+        fail("Expected RepositoryManagerException");
+      }
+      catch (RepositoryManagerException e) {
+        assertThat(e.getMessage(), is("Get was unable to complete"));
+      }
+    }
+
+    assertThat(circuitBreaker.isOpen(), is(true));
+    verifyAttempts(6);
+  }
+
+  @Test
+  public void backoffIsBoundedAndGrowsExponentially() {
+    RetryPolicy policy = RetryPolicy.defaults().withBackoff(100, 1000);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(policy.backoffMillis(1) <= 100, is(true));
+      assertThat(policy.backoffMillis(3) <= 400, is(true));
+      assertThat(policy.backoffMillis(50) <= 1000, is(true));
+    }
+  }
+
+  private HttpPost repeatableUpload() throws IOException {
+    File file = temporaryFolder.newFile("artifact.jar");
+    Files.write(file.toPath(), "content".getBytes(UTF_8));
+    HttpPost post = new HttpPost("http://localhost/");
+    post.setEntity(MultipartEntityBuilder.create().addBinaryBody("asset0", file).build());
+    return post;
+  }
+
+  @SuppressWarnings("unchecked")
+  private OngoingStubbing<Object> whenExecuted() throws IOException {
+    return when(httpClient.execute(any(HttpUriRequest.class), any(ResponseHandler.class), any()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void verifyAttempts(final int attempts) throws IOException {
+    verify(httpClient, times(attempts)).execute(any(HttpUriRequest.class), any(ResponseHandler.class), any());
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class UploadThrottleTest
+{
+  @Test
+  public void concurrentWritersShareTheRate() throws Exception {
+    UploadThrottle throttle = new UploadThrottle(100_000);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<ByteArrayOutputStream> targets = new ArrayList<>();
+    List<Future<?>> writers = new ArrayList<>();
+
+    long start = System.nanoTime();
+    try {
+      for (int i = 0; i < 4; i++) {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        targets.add(target);
+        writers.add(executor.submit(() -> {
+          OutputStream out = throttle.throttle(target);
+          out.write(new byte[25_000]);
+          return null;
+        }));
+      }
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat("wrote in " + elapsedMillis + " ms", elapsedMillis >= 900, is(true));
+    for (ByteArrayOutputStream target : targets) {
+      assertThat(target.size(), is(25_000));
+    }
+  }
+
+  @Test
+  public void clientsShareOneThrottleAtTheLowestRate() {
+    UploadThrottle fast = UploadThrottle.register(2);
+    try {
+      UploadThrottle slow = UploadThrottle.register(1);
+      try {
+        assertThat(slow, is(sameInstance(fast)));
+        assertThat(fast.getRate(), is(1L));
+      }
+      finally {
+        UploadThrottle.unregister(1);
+      }
+      assertThat(fast.getRate(), is(2L));
+    }
+    finally {
+      UploadThrottle.unregister(2);
+    }
+  }
+
+  @Test
+  public void clientsWithTheSameRateAreCountedApart() {
+    UploadThrottle throttle = UploadThrottle.register(2);
+    try {
+      UploadThrottle.register(1);
+      UploadThrottle.register(1);
+      UploadThrottle.unregister(1);
+      assertThat(throttle.getRate(), is(1L));
+      UploadThrottle.unregister(1);
+      assertThat(throttle.getRate(), is(2L));
+    }
+    finally {
+      UploadThrottle.unregister(2);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rateMustBePositive() {
+    UploadThrottle.register(0);
+  }
+}
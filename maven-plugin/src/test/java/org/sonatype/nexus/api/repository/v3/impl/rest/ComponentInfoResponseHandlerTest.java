@@ -0,0 +1,65 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl.rest;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.sonatype.nexus.api.repository.v3.impl.rest.StagingResponseHandlerFactory.MOVE_KEY;
+
+public class ComponentInfoResponseHandlerTest
+{
+  private static final String RESPONSE = "{\"status\":200,\"message\":\"Move Successful\",\"data\":{" +
+      "\"destination\":\"maven-releases\",\"nested\":{\"components moved\":[]}," +
+      "\"components moved\":[" +
+      "{\"name\":\"foo\",\"group\":\"org.example\",\"version\":\"1.0\",\"assets\":[{\"path\":\"a\"}]}," +
+      "{\"name\":\"bar\",\"group\":null,\"version\":\"2.0\"}" +
+      "]}}";
+
+  private static final List<ComponentInfo> EXPECTED = asList(
+      new ComponentInfo("org.example", "foo", "1.0"),
+      new ComponentInfo(null, "bar", "2.0"));
+
+  @Test
+  public void extractsComponents() throws Exception {
+    assertThat(new ComponentInfoResponseHandler(MOVE_KEY).handle(new StringReader(RESPONSE), null), is(EXPECTED));
+  }
+
+  @Test
+  public void handsComponentsToConsumer() throws Exception {
+    List<ComponentInfo> consumed = new ArrayList<>();
+
+    List<ComponentInfo> result =
+        new ComponentInfoResponseHandler(MOVE_KEY, consumed::add).handle(new StringReader(RESPONSE), null);
+
+    assertThat(consumed, is(EXPECTED));
+    assertThat(result.isEmpty(), is(true));
+  }
+
+  @Test
+  public void missingComponentListIsEmpty() throws Exception {
+    String response = "{\"status\":404,\"message\":\"No components found\",\"data\":{}}";
+
+    assertThat(new ComponentInfoResponseHandler(MOVE_KEY).handle(new StringReader(response), null).isEmpty(),
+        is(true));
+    assertThat(new ComponentInfoResponseHandler(MOVE_KEY).handle(new StringReader(""), null).isEmpty(), is(true));
+  }
+}
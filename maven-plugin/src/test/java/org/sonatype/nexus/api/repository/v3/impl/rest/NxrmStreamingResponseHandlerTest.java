@@ -0,0 +1,170 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.impl.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.StatusLine;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.sonatype.nexus.api.repository.v3.impl.rest.NxrmResponseHandler.MAX_ERROR_BODY_LENGTH;
+
+public class NxrmStreamingResponseHandlerTest
+{
+  private static final long LARGE_BODY_LENGTH = 16 * 1024 * 1024;
+
+  @Test
+  public void readsLargeChunkedBodyIncrementally() throws Exception {
+    BodyStream body = new BodyStream(LARGE_BODY_LENGTH);
+    long[] maxReadAhead = new long[1];
+
+    long length = new NxrmStreamingResponseHandler<Long>()
+    {
+      @Override
+      protected Long handle(final Reader reader, final StatusLine statusLine) throws IOException {
+        char[] buffer = new char[1024];
+        long chars = 0;
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+          chars += read;
+          maxReadAhead[0] = Math.max(maxReadAhead[0], body.bytesRead - chars);
+        }
+        return chars;
+      }
+    }.handleResponse(response(200, body));
+
+    assertThat(length, is(LARGE_BODY_LENGTH));
+    assertThat("read ahead " + maxReadAhead[0] + " bytes", maxReadAhead[0] <= 64 * 1024, is(true));
+    assertThat(body.closed, is(true));
+  }
+
+  @Test
+  public void closesBodyNotReadToTheEnd() throws Exception {
+    BodyStream body = new BodyStream(LARGE_BODY_LENGTH);
+
+    char first = new NxrmStreamingResponseHandler<Character>()
+    {
+      @Override
+      protected Character handle(final Reader reader, final StatusLine statusLine) throws IOException {
+        return (char) reader.read();
+      }
+    }.handleResponse(response(200, body));
+
+    assertThat(first, is('a'));
+    assertThat(body.bytesRead < LARGE_BODY_LENGTH, is(true));
+    assertThat(body.closed, is(true));
+  }
+
+  @Test
+  public void closesBodyWhenHandlerFails() throws Exception {
+    BodyStream body = new BodyStream(1024);
+
+    try {
+      new NxrmStreamingResponseHandler<Void>()
+      {
+        @Override
+        protected Void handle(final Reader reader, final StatusLine statusLine) throws IOException {
+          throw new IOException("Unexpected character ('a')");
+        }
+      }.handleResponse(response(200, body));
+      fail("Expected IOException");
+    }
+    catch (IOException e) {
+      assertThat(body.closed, is(true));
+    }
+  }
+
+  @Test
+  public void readsErrorBodyUpToTheLimit() throws Exception {
+    BodyStream body = new BodyStream(LARGE_BODY_LENGTH);
+
+    try {
+      new NxrmStreamingResponseHandler<Void>()
+      {
+        @Override
+        protected Void handle(final Reader reader, final StatusLine statusLine) {
+          throw new AssertionError("error responses are not handed to the handler");
+        }
+      }.handleResponse(response(500, body));
+      fail("Expected NxrmResponseException");
+    }
+    catch (NxrmResponseException e) {
+      assertThat(e.getStatusCode(), is(500));
+      assertThat(e.getResponseBody().get().length(), is(MAX_ERROR_BODY_LENGTH));
+      assertThat(body.bytesRead < LARGE_BODY_LENGTH, is(true));
+      assertThat(body.closed, is(true));
+    }
+  }
+
+  private static HttpResponse response(final int statusCode, final InputStream body) {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, null);
+    InputStreamEntity entity = new InputStreamEntity(body, -1, ContentType.APPLICATION_JSON);
+    entity.setChunked(true);
+    response.setEntity(entity);
+    return response;
+  }
+
+  /**
+   * Body of the given length which is generated as it is read, recording how much was read and whether it was closed.
+   */
+  private static class BodyStream
+      extends InputStream
+  {
+    private final long length;
+
+    private long bytesRead;
+
+    private boolean closed;
+
+    BodyStream(final long length) {
+      this.length = length;
+    }
+
+    @Override
+    public int read() {
+      if (bytesRead >= length) {
+        return -1;
+      }
+      bytesRead++;
+      return 'a';
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+      if (bytesRead >= length) {
+        return -1;
+      }
+      int read = (int) Math.min(len, length - bytesRead);
+      for (int i = off; i < off + read; i++) {
+        b[i] = 'a';
+      }
+      bytesRead += read;
+      return read;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.testing;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.sonatype.nexus.api.common.Authentication;
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.AssetInfo;
+import org.sonatype.nexus.api.repository.v3.CircuitBreakerPolicy;
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+import org.sonatype.nexus.api.repository.v3.ConcurrencyLimit;
+import org.sonatype.nexus.api.repository.v3.DefaultAsset;
+import org.sonatype.nexus.api.repository.v3.DefaultComponent;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3ClientBuilder;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+import org.sonatype.nexus.api.repository.v3.SearchBuilder;
+import org.sonatype.nexus.api.repository.v3.testing.FakeNexusServer.Endpoint;
+import org.sonatype.nexus.api.repository.v3.testing.FakeNexusServer.StoredComponent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class FakeNexusServerTest
+{
+  private static final String REPOSITORY = "maven-staging";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private FakeNexusServer server;
+
+  private RepositoryManagerV3Client client;
+
+  @Before
+  public void setup() throws Exception {
+    server = FakeNexusServer.start().withCredentials("admin", "admin123");
+    client = client("admin123", RetryPolicy.none());
+  }
+
+  @After
+  public void tearDown() {
+    server.close();
+  }
+
+  @Test
+  public void uploadsTaggedComponent() throws Exception {
+    client.createTag("build-1");
+    assertThat(client.getTag("build-1").isPresent(), is(true));
+    assertThat(client.getTag("build-2").isPresent(), is(false));
+
+    File jar = file("artifact-1.0.jar", "jar content");
+    client.upload(REPOSITORY, component("artifact", jar), "build-1");
+
+    StoredComponent stored = server.getComponents(REPOSITORY).get(0);
+    assertThat(stored.getTags().contains("build-1"), is(true));
+    assertThat(stored.getAssets().get(0).getPath(), is("org/example/artifact/1.0/artifact-1.0.jar"));
+
+    List<AssetInfo> assets = client.searchAssets(search("artifact"));
+    assertThat(assets.size(), is(1));
+    assertThat(assets.get(0).getSha1().isPresent(), is(true));
+    assertThat(server.getUploadCount(REPOSITORY, "org.example", "artifact", "1.0"), is(1));
+  }
+
+  @Test
+  public void movesAndDeletesByTag() throws Exception {
+    client.createTag("build-1");
+    for (int i = 0; i < 60; i++) {
+      client.upload(REPOSITORY, component("artifact-" + i, file("artifact-" + i + ".jar", "content " + i)),
+          "build-1");
+    }
+
+    List<ComponentInfo> moved = client.move("maven-releases", "build-1");
+    assertThat(moved.size(), is(60));
+    assertThat(server.getComponents("maven-releases").size(), is(60));
+
+    // more than one page of search results
+    assertThat(client.searchAssets(SearchBuilder.create().withRepository("maven-releases").build()).size(), is(60));
+
+    assertThat(client.delete("build-1").size(), is(60));
+    assertThat(server.getComponents().isEmpty(), is(true));
+  }
+
+  @Test
+  public void associatesExistingComponents() throws Exception {
+    client.upload(REPOSITORY, component("artifact", file("artifact-1.0.jar", "jar content")));
+    client.createTag("build-1");
+
+    List<ComponentInfo> associated = client.associate("build-1", search("artifact"));
+
+    assertThat(associated.size(), is(1));
+    assertThat(server.getComponents().get(0).getTags().contains("build-1"), is(true));
+  }
+
+  @Test
+  public void ensureTagCreatesMissingTagAndAcceptsExistingOne() throws Exception {
+    assertThat(client.ensureTag("build-1").getName(), is("build-1"));
+    assertThat(server.getRequestCount(Endpoint.TAGS), is(1));
+
+    // the second attempt is rejected as a duplicate and confirmed with a lookup
+    assertThat(client.ensureTag("build-1").getName(), is("build-1"));
+    assertThat(server.getRequestCount(Endpoint.TAGS), is(3));
+    assertThat(server.getTags().size(), is(1));
+  }
+
+  @Test
+  public void rejectsWrongCredentials() throws Exception {
+    try {
+      client("wrong", RetryPolicy.none()).getTag("build-1");
+      fail("expected the request to be rejected");
+    }
+    catch (RepositoryManagerException e) {
+      assertThat(server.getRequestCount(Endpoint.TAGS), is(1));
+    }
+  }
+
+  @Test
+  public void injectedFailuresAreRetried() throws Exception {
+    server.withTag("build-1").failNext(Endpoint.COMPONENTS, 2, 503).withRetryAfter(0);
+    RepositoryManagerV3Client retrying = client("admin123", RetryPolicy.defaults().withBackoff(1, 1));
+
+    retrying.upload(REPOSITORY, component("artifact", file("artifact-1.0.jar", "jar content")), "build-1");
+
+    assertThat(server.getRequestCount(Endpoint.COMPONENTS), is(3));
+    assertThat(server.getUploadCount(REPOSITORY, "org.example", "artifact", "1.0"), is(1));
+  }
+
+  @Test
+  public void adaptiveUploadConcurrencyBacksOffWhenServerIsBusy() throws Exception {
+    server.withLatency(20).failNext(Endpoint.COMPONENTS, 2, 503).withRetryAfter(0);
+    List<String> changes = new CopyOnWriteArrayList<>();
+    RepositoryManagerV3Client limited = RepositoryManagerV3ClientBuilder.create()
+        .withServerConfig(new ServerConfig(server.getUri(), new Authentication("admin", "admin123")))
+        .withRetryPolicy(RetryPolicy.defaults().withBackoff(1, 1))
+        .withUploadConcurrency(ConcurrencyLimit.adaptive(4).withInitialLimit(4)
+            .withListener((previousLimit, newLimit, reason) -> changes.add(previousLimit + "->" + newLimit)))
+        .build();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> uploads = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        DefaultComponent component = component("artifact-" + i, file("artifact-" + i + ".jar", "content " + i));
+        uploads.add(executor.submit(() -> {
+          limited.upload(REPOSITORY, component);
+          return null;
+        }));
+      }
+      for (Future<?> upload : uploads) {
+        upload.get();
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(server.getComponents(REPOSITORY).size(), is(16));
+    assertThat(server.getMaxConcurrentRequests(Endpoint.COMPONENTS) <= 4, is(true));
+    assertThat(changes.toString(), changes.get(0), is("4->2"));
+  }
+
+  @Test
+  public void bandwidthLimitsUploads() throws Exception {
+    server.withBandwidth(100_000);
+    byte[] content = new byte[50_000];
+    File jar = temporaryFolder.newFile("artifact-1.0.jar");
+    Files.write(jar.toPath(), content);
+
+    long start = System.nanoTime();
+    client.upload(REPOSITORY, component("artifact", jar));
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    assertThat("upload took " + elapsedMillis + " ms", elapsedMillis >= 400, is(true));
+    assertThat(server.getBytesReceived() > content.length, is(true));
+  }
+
+  @Test
+  public void maxUploadBytesPerSecondLimitsUploads() throws Exception {
+    RepositoryManagerV3Client throttled = RepositoryManagerV3ClientBuilder.create()
+        .withServerConfig(new ServerConfig(server.getUri(), new Authentication("admin", "admin123")))
+        .withMaxUploadBytesPerSecond(100_000)
+        .build();
+    File jar = temporaryFolder.newFile("artifact-1.0.jar");
+    Files.write(jar.toPath(), new byte[50_000]);
+
+    long start = System.nanoTime();
+    try {
+      throttled.upload(REPOSITORY, component("artifact", jar));
+    }
+    finally {
+      ((Closeable) throttled).close();
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    // the throttle is shared by the JVM, so up to a bucket of 16K may be left from earlier uploads
+    assertThat("upload took " + elapsedMillis + " ms", elapsedMillis >= 300, is(true));
+    assertThat(server.getUploadCount(REPOSITORY, "org.example", "artifact", "1.0"), is(1));
+  }
+
+  @Test
+  public void circuitBreakerFailsFastWhileServerIsDown() throws Exception {
+    server.failNext(Endpoint.TAGS, 3, 500);
+    RepositoryManagerV3Client guarded = RepositoryManagerV3ClientBuilder.create()
+        .withServerConfig(new ServerConfig(server.getUri(), new Authentication("admin", "admin123")))
+        .withCircuitBreakerPolicy(CircuitBreakerPolicy.defaults().withFailureThreshold(3).withOpenMillis(200))
+        .build();
+
+    for (int i = 0; i < 4; i++) {
+      try {
+        guarded.getTag("build-1");
+        fail("expected the request to fail");
+      }
+      catch (RepositoryManagerException e) {
+        // the fourth request is not sent
+      }
+    }
+    assertThat(server.getRequestCount(Endpoint.TAGS), is(3));
+
+    Thread.sleep(250);
+    assertThat(guarded.getTag("build-1").isPresent(), is(false));
+    assertThat(server.getRequestCount(Endpoint.STATUS), is(1));
+    assertThat(server.getRequestCount(Endpoint.TAGS), is(4));
+  }
+
+  private RepositoryManagerV3Client client(final String password, final RetryPolicy retryPolicy) {
+    return RepositoryManagerV3ClientBuilder.create()
+        .withServerConfig(new ServerConfig(server.getUri(), new Authentication("admin", password)))
+        .withRetryPolicy(retryPolicy)
+        .build();
+  }
+
+  private File file(final String name, final String content) throws Exception {
+    File file = temporaryFolder.newFile(name);
+    Files.write(file.toPath(), content.getBytes(UTF_8));
+    return file;
+  }
+
+  private static DefaultComponent component(final String artifactId, final File jar) {
+    DefaultComponent component = new DefaultComponent("maven2");
+    component.addAttribute("groupId", "org.example");
+    component.addAttribute("artifactId", artifactId);
+    component.addAttribute("version", "1.0");
+    DefaultAsset asset = new DefaultAsset(jar.getName(), jar);
+    asset.addAttribute("extension", "jar");
+    component.addAsset(asset);
+    return component;
+  }
+
+  private static Map<String, String> search(final String name) {
+    return SearchBuilder.create().withRepository(REPOSITORY).withGroup("org.example").withName(name)
+        .withVersion("1.0").build();
+  }
+}
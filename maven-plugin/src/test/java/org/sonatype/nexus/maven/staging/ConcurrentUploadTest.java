@@ -0,0 +1,109 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.sonatype.nexus.api.common.Authentication;
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.repository.v3.DefaultAsset;
+import org.sonatype.nexus.api.repository.v3.DefaultComponent;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+import org.sonatype.nexus.api.repository.v3.testing.FakeNexusServer;
+import org.sonatype.nexus.api.repository.v3.testing.FakeNexusServer.Endpoint;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.sonatype.nexus.maven.staging.UploadExecutor.Mode.AUTO;
+
+/**
+ * Uploads many components concurrently through the pooled client to a {@link FakeNexusServer}.
+ */
+public class ConcurrentUploadTest
+{
+  private static final String REPOSITORY = "maven-staging";
+
+  private static final String TAG = "build-1";
+
+  private static final int COMPONENTS = 40;
+
+  private static final int THREADS = 8;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private FakeNexusServer server;
+
+  private RepositoryManagerV3Client client;
+
+  @Before
+  public void setup() throws Exception {
+    server = FakeNexusServer.start().withTag(TAG).withLatency(20);
+    client = new Nxrm3ClientFactory().build(new ServerConfig(server.getUri(), new Authentication("admin", "pass")),
+        new ClientSettings().withMaxConnections(THREADS, THREADS)
+            .withRetryPolicy(RetryPolicy.defaults().withBackoff(1, 10)));
+  }
+
+  @After
+  public void tearDown() {
+    server.close();
+  }
+
+  @Test
+  public void everyComponentIsUploadedOnceWithBoundedConcurrency() throws Exception {
+    server.failNext(Endpoint.COMPONENTS, 5, 503);
+
+    new ConcurrentUploader(THREADS, true, AUTO, new SystemStreamLog()).upload(uploads());
+
+    assertThat(server.getComponents(REPOSITORY).size(), is(COMPONENTS));
+    for (int i = 0; i < COMPONENTS; i++) {
+      assertThat(server.getUploadCount(REPOSITORY, "org.example", "artifact-" + i, "1.0"), is(1));
+    }
+    assertThat(server.getRequestCount(Endpoint.COMPONENTS), is(COMPONENTS + 5));
+    int concurrency = server.getMaxConcurrentRequests(Endpoint.COMPONENTS);
+    assertThat("max concurrency " + concurrency, concurrency > 1 && concurrency <= THREADS, is(true));
+    server.getComponents().forEach(component -> assertThat(component.getTags().contains(TAG), is(true)));
+  }
+
+  private Map<String, ConcurrentUploader.Upload> uploads() throws Exception {
+    Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+    for (int i = 0; i < COMPONENTS; i++) {
+      String artifactId = "artifact-" + i;
+      File jar = temporaryFolder.newFile(artifactId + "-1.0.jar");
+      Files.write(jar.toPath(), ("content of " + artifactId).getBytes(UTF_8));
+
+      DefaultComponent component = new DefaultComponent("maven2");
+      component.addAttribute("groupId", "org.example");
+      component.addAttribute("artifactId", artifactId);
+      component.addAttribute("version", "1.0");
+      DefaultAsset asset = new DefaultAsset(jar.getName(), jar);
+      asset.addAttribute("extension", "jar");
+      component.addAsset(asset);
+
+      uploads.put(artifactId, () -> client.upload(REPOSITORY, component, TAG));
+    }
+    return uploads;
+  }
+}
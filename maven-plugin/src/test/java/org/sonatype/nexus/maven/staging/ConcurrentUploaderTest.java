@@ -0,0 +1,129 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.fail;
+import static org.sonatype.nexus.maven.staging.UploadExecutor.Mode.AUTO;
+
+public class ConcurrentUploaderTest
+{
+  @Test
+  public void runsAllUploads() throws Exception {
+    AtomicInteger count = new AtomicInteger();
+    Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+    for (int i = 0; i < 10; i++) {
+      uploads.put("component" + i, count::incrementAndGet);
+    }
+
+    new ConcurrentUploader(3, true, AUTO, new SystemStreamLog()).upload(uploads);
+
+    assertThat(count.get(), is(10));
+  }
+
+  @Test
+  public void largestUploadsStartFirst() throws Exception {
+    List<String> started = Collections.synchronizedList(new ArrayList<>());
+    Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+    Map<String, Long> sizes = new HashMap<>();
+    for (String name : asList("pom-only", "jar", "distribution", "unknown", "other-pom")) {
+      uploads.put(name, () -> started.add(name));
+    }
+    sizes.put("pom-only", 2_000L);
+    sizes.put("jar", 300_000L);
+    sizes.put("distribution", 2_000_000_000L);
+    sizes.put("other-pom", 2_000L);
+
+    new ConcurrentUploader(1, true, AUTO, new SystemStreamLog()).upload(uploads, sizes);
+
+    assertThat(started, is(asList("distribution", "jar", "pom-only", "other-pom", "unknown")));
+  }
+
+  @Test
+  public void uploadsRunConcurrently() throws Exception {
+    CountDownLatch latch = new CountDownLatch(2);
+    Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+    for (int i = 0; i < 2; i++) {
+      uploads.put("component" + i, () -> {
+        latch.countDown();
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("uploads were not concurrent");
+        }
+      });
+    }
+
+    new ConcurrentUploader(2, true, AUTO, new SystemStreamLog()).upload(uploads);
+  }
+
+  @Test
+  public void collectAllReportsEveryFailure() throws Exception {
+    AtomicInteger count = new AtomicInteger();
+    Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+    uploads.put("g:first:1", () -> {
+      throw new IllegalStateException("first failed");
+    });
+    uploads.put("g:ok:1", count::incrementAndGet);
+    uploads.put("g:second:1", () -> {
+      throw new IllegalStateException("second failed");
+    });
+
+    try {
+      new ConcurrentUploader(1, false, AUTO, new SystemStreamLog()).upload(uploads);
+      fail("Expected MojoExecutionException");
+    }
+    catch (MojoExecutionException e) {
+      assertThat(e.getMessage(), containsString("Failed to upload 2 of 3 components"));
+      assertThat(e.getMessage(), containsString("g:first:1: first failed"));
+      assertThat(e.getMessage(), containsString("g:second:1: second failed"));
+      assertThat(e.getSuppressed().length, is(1));
+    }
+    assertThat(count.get(), is(1));
+  }
+
+  @Test
+  public void failFastSkipsRemainingUploads() throws Exception {
+    AtomicInteger count = new AtomicInteger();
+    Map<String, ConcurrentUploader.Upload> uploads = new LinkedHashMap<>();
+    uploads.put("g:first:1", () -> {
+      throw new IllegalStateException("first failed");
+    });
+    uploads.put("g:second:1", count::incrementAndGet);
+    uploads.put("g:third:1", count::incrementAndGet);
+
+    try {
+      new ConcurrentUploader(1, true, AUTO, new SystemStreamLog()).upload(uploads);
+      fail("Expected MojoExecutionException");
+    }
+    catch (MojoExecutionException e) {
+      assertThat(e.getMessage(), containsString("Failed to upload 1 of 3 components (2 not attempted)"));
+    }
+    assertThat(count.get(), is(0));
+  }
+}
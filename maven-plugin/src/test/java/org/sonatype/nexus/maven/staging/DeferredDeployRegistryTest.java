@@ -0,0 +1,87 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.maven.staging.DeferredDeployRegistry.DeferredDeployment;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DeferredDeployRegistryTest
+{
+  private static final List<String> MODULES = asList("module-a", "module-b", "module-c");
+
+  @Test
+  public void clonedSessionsShareTheRegistry() {
+    // the multi-threaded builder gives every module a clone of the session, sharing its request
+    MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    MavenSession moduleA = session(request);
+    MavenSession moduleB = session(request);
+
+    assertThat(DeferredDeployRegistry.forSession(moduleA).finish("module-a", MODULES, deployment("tag-a")),
+        is(Optional.empty()));
+    assertThat(DeferredDeployRegistry.forSession(moduleB).finish("module-b", MODULES, deployment("tag-b")),
+        is(Optional.empty()));
+    List<DeferredDeployment> drained =
+        DeferredDeployRegistry.forSession(moduleB).finish("module-c", MODULES, null).get();
+
+    assertThat(drained.size(), is(2));
+    assertThat(drained.get(0).getTag(), is("tag-a"));
+    assertThat(drained.get(1).getTag(), is("tag-b"));
+  }
+
+  @Test
+  public void waitsForEveryModuleWhateverTheOrder() {
+    DeferredDeployRegistry registry = new DeferredDeployRegistry();
+
+    // the last module of the reactor finishing first
+    assertThat(registry.finish("module-c", MODULES, deployment("tag")), is(Optional.empty()));
+    assertThat(registry.finish("module-a", MODULES, deployment("tag")), is(Optional.empty()));
+    assertThat(registry.finish("module-a", MODULES, deployment("tag")), is(Optional.empty()));
+
+    assertThat(registry.finish("module-b", MODULES, deployment("tag")).get().size(), is(4));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void modulesFinishingAfterTheDeploymentAreRejected() {
+    DeferredDeployRegistry registry = new DeferredDeployRegistry();
+    registry.finish("module-a", singletonList("module-a"), deployment("tag"));
+
+    registry.finish("module-b", singletonList("module-b"), deployment("tag"));
+  }
+
+  private static MavenSession session(final MavenExecutionRequest request) {
+    MavenSession session = mock(MavenSession.class);
+    when(session.getRequest()).thenReturn(request);
+    return session;
+  }
+
+  private static DeferredDeployment deployment(final String tag) {
+    return new DeferredDeployment("http://localhost:8081", "maven-releases", mock(RepositoryManagerV3Client.class), tag,
+        singletonList(mock(Artifact.class)));
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.Repository;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PreflightCheckTest
+{
+  private static final String REPOSITORY = "maven-releases";
+
+  private static final String TAG = "build-1";
+
+  @Mock
+  private RepositoryManagerV3Client client;
+
+  @Test
+  public void passesWhenEveryCheckPasses() throws Exception {
+    when(client.getVersion()).thenThrow(new RepositoryManagerException("Get version was unsuccessful", 404));
+    when(client.getRepositories()).thenReturn(singletonList(new Repository(REPOSITORY, "maven2", "hosted", null)));
+    CountDownLatch tagEnsured = new CountDownLatch(1);
+
+    try (PreflightCheck preflight = PreflightCheck.start(client, REPOSITORY, TAG, tagEnsured::countDown,
+        new SystemStreamLog())) {
+      preflight.await();
+    }
+
+    assertThat(tagEnsured.getCount(), is(0L));
+  }
+
+  @Test
+  public void failsWithoutWaitingForSlowChecks() throws Exception {
+    when(client.getRepositories()).thenReturn(singletonList(new Repository(REPOSITORY, "maven2", "group", null)));
+    CountDownLatch release = new CountDownLatch(1);
+
+    try (PreflightCheck preflight = PreflightCheck.start(client, REPOSITORY, TAG, release::await,
+        new SystemStreamLog())) {
+      preflight.await();
+      fail("expected the pre-flight check to fail");
+    }
+    catch (MojoFailureException e) {
+      assertThat(e.getMessage(), containsString("is a group repository"));
+      assertThat(release.getCount(), is(1L));
+    }
+  }
+
+  @Test
+  public void rejectedCredentialsAreReported() throws Exception {
+    when(client.getRepositories()).thenThrow(new RepositoryManagerException("Get repositories was unsuccessful", 401));
+
+    try (PreflightCheck preflight = PreflightCheck.start(client, REPOSITORY, TAG, () -> { },
+        new SystemStreamLog())) {
+      preflight.await();
+      fail("expected the pre-flight check to fail");
+    }
+    catch (MojoFailureException e) {
+      assertThat(e.getMessage(), containsString("NXRM rejected the credentials (401"));
+    }
+  }
+
+  @Test
+  public void repositoryWhichIsNotVisibleOnlyWarns() throws Exception {
+    // NXRM only lists the repositories the user may browse, not those it may only deploy to
+    when(client.getRepositories()).thenReturn(singletonList(new Repository("maven-public", "maven2", "group", null)));
+    List<String> warnings = new ArrayList<>();
+
+    try (PreflightCheck preflight = PreflightCheck.start(client, REPOSITORY, TAG, () -> { }, new SystemStreamLog()
+    {
+      @Override
+      public void warn(final CharSequence content) {
+        warnings.add(content.toString());
+      }
+    })) {
+      preflight.await();
+    }
+
+    assertThat(warnings.size(), is(1));
+    assertThat(warnings.get(0), containsString("Repository 'maven-releases' does not exist or is not visible"));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.net.URI;
+
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+import org.sonatype.nexus.api.repository.v3.impl.DefaultNexusRepositoryV3Client;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SessionClientCacheTest
+{
+  private static final ClientSettings SETTINGS = new ClientSettings();
+
+  @Mock
+  private MavenSession session;
+
+  @Mock
+  private ExecutionListener originalListener;
+
+  @Mock
+  private ExecutionEvent event;
+
+  private MavenExecutionRequest request;
+
+  @Before
+  public void setup() {
+    request = new DefaultMavenExecutionRequest();
+    request.setExecutionListener(originalListener);
+    when(session.getRequest()).thenReturn(request);
+  }
+
+  @Test
+  public void reusesClientForSameServer() {
+    SessionClientCache cache = SessionClientCache.forSession(session);
+
+    RepositoryManagerV3Client first = cache.get("http://localhost:8081", "nexus", null, SETTINGS, this::newClient);
+    RepositoryManagerV3Client second = cache.get("http://localhost:8081", "nexus", null, SETTINGS, this::newClient);
+    RepositoryManagerV3Client other = cache.get("http://localhost:8082", "nexus", null, SETTINGS, this::newClient);
+
+    assertThat(second, sameInstance(first));
+    assertThat(other, not(sameInstance(first)));
+    assertThat(SessionClientCache.forSession(session), sameInstance(cache));
+  }
+
+  @Test
+  public void closesClientsWhenSessionEnds() throws Exception {
+    CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+    ServerConfig serverConfig = new ServerConfig(URI.create("http://localhost:8081"));
+    SessionClientCache cache = SessionClientCache.forSession(session);
+    RepositoryManagerV3Client client = cache.get("http://localhost:8081", "nexus", null, SETTINGS,
+        () -> new DefaultNexusRepositoryV3Client(serverConfig, httpClient));
+
+    request.getExecutionListener().mojoStarted(event);
+    request.getExecutionListener().sessionEnded(event);
+
+    verify(originalListener).mojoStarted(event);
+    verify(originalListener).sessionEnded(event);
+    verify(httpClient).close();
+    assertThat(cache.get("http://localhost:8081", "nexus", null, SETTINGS, this::newClient), not(sameInstance(client)));
+  }
+
+  @Test
+  public void differentSettingsGetDifferentClients() {
+    SessionClientCache cache = SessionClientCache.forSession(session);
+
+    RepositoryManagerV3Client first = cache.get("http://localhost:8081", "nexus", null,
+        new ClientSettings().withRetryPolicy(RetryPolicy.defaults()), this::newClient);
+    RepositoryManagerV3Client same = cache.get("http://localhost:8081", "nexus", null,
+        new ClientSettings().withRetryPolicy(RetryPolicy.defaults()), this::newClient);
+    RepositoryManagerV3Client other = cache.get("http://localhost:8081", "nexus", null,
+        new ClientSettings().withRetryPolicy(RetryPolicy.none()), this::newClient);
+
+    assertThat(same, sameInstance(first));
+    assertThat(other, not(sameInstance(first)));
+  }
+
+  @Test
+  public void clonedSessionsShareTheCacheAndRegisterOneListener() {
+    // the multi-threaded builder gives every module a clone of the session, sharing its request
+    MavenSession module = mock(MavenSession.class);
+    when(module.getRequest()).thenReturn(request);
+
+    SessionClientCache cache = SessionClientCache.forSession(session);
+    ExecutionListener listener = request.getExecutionListener();
+
+    assertThat(SessionClientCache.forSession(module), sameInstance(cache));
+    assertThat(request.getExecutionListener(), sameInstance(listener));
+  }
+
+  private RepositoryManagerV3Client newClient() {
+    return mock(RepositoryManagerV3Client.class);
+  }
+}
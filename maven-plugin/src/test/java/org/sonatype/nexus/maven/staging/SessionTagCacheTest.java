@@ -0,0 +1,92 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import org.sonatype.nexus.api.exception.RepositoryManagerException;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SessionTagCacheTest
+{
+  private static final String NEXUS_URL = "http://localhost:8081";
+
+  @Mock
+  private MavenSession session;
+
+  @Mock
+  private RepositoryManagerV3Client client;
+
+  @Test
+  public void ensuresEachTagOncePerServer() throws Exception {
+    SessionTagCache cache = SessionTagCache.forSession(session);
+
+    assertThat(cache.ensureTag(client, NEXUS_URL, "build-1"), is(true));
+    assertThat(SessionTagCache.forSession(session).ensureTag(client, NEXUS_URL, "build-1"), is(false));
+    assertThat(cache.ensureTag(client, NEXUS_URL, "build-2"), is(true));
+    assertThat(cache.ensureTag(client, "http://localhost:8082", "build-1"), is(true));
+
+    verify(client, times(2)).ensureTag("build-1");
+    verify(client).ensureTag("build-2");
+  }
+
+  @Test
+  public void failuresAreNotRemembered() throws Exception {
+    SessionTagCache cache = SessionTagCache.forSession(session);
+    when(client.ensureTag("build-1")).thenThrow(new RepositoryManagerException("Create tag was unsuccessful"))
+        .thenReturn(null);
+
+    try {
+      cache.ensureTag(client, NEXUS_URL, "build-1");
+      fail("expected the failure to be propagated");
+    }
+    catch (RepositoryManagerException e) {
+      // expected
+    }
+
+    assertThat(cache.ensureTag(client, NEXUS_URL, "build-1"), is(true));
+    verify(client, times(2)).ensureTag("build-1");
+  }
+
+  @Test
+  public void clonedSessionsShareTheCache() throws Exception {
+    // the multi-threaded builder gives every module a clone of the session, sharing its request
+    MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+
+    assertThat(SessionTagCache.forSession(session(request)).ensureTag(client, NEXUS_URL, "build-1"), is(true));
+    assertThat(SessionTagCache.forSession(session(request)).ensureTag(client, NEXUS_URL, "build-1"), is(false));
+
+    verify(client).ensureTag("build-1");
+  }
+
+  private static MavenSession session(final MavenExecutionRequest request) {
+    MavenSession session = mock(MavenSession.class);
+    when(session.getRequest()).thenReturn(request);
+    return session;
+  }
+}
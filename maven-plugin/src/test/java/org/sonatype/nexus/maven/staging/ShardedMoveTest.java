@@ -0,0 +1,173 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.sonatype.nexus.api.common.Authentication;
+import org.sonatype.nexus.api.common.ServerConfig;
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
+import org.sonatype.nexus.api.repository.v3.DefaultAsset;
+import org.sonatype.nexus.api.repository.v3.DefaultComponent;
+import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
+import org.sonatype.nexus.api.repository.v3.RetryPolicy;
+import org.sonatype.nexus.api.repository.v3.SearchBuilder;
+import org.sonatype.nexus.api.repository.v3.testing.FakeNexusServer;
+import org.sonatype.nexus.api.repository.v3.testing.FakeNexusServer.Endpoint;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+/**
+ * Moves the components of a tag in shards from one repository of a {@link FakeNexusServer} to another.
+ */
+public class ShardedMoveTest
+{
+  private static final String SOURCE = "maven-staging";
+
+  private static final String DESTINATION = "maven-releases";
+
+  private static final String TAG = "build-1";
+
+  private static final RetryPolicy SHARD_RETRIES = RetryPolicy.defaults().withBackoff(1, 1);
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private FakeNexusServer server;
+
+  private RepositoryManagerV3Client client;
+
+  @Before
+  public void setup() throws Exception {
+    server = FakeNexusServer.start().withTag(TAG).withTag("build-2");
+    client = new Nxrm3ClientFactory().build(new ServerConfig(server.getUri(), new Authentication("admin", "pass")),
+        new ClientSettings().withRetryPolicy(RetryPolicy.none()));
+  }
+
+  @After
+  public void tearDown() {
+    server.close();
+  }
+
+  @Test
+  public void groupsLargerThanTheShardSizeAreShardedByName() {
+    List<ComponentInfo> components = asList(new ComponentInfo("org.a", "one", "1.0"),
+        new ComponentInfo("org.a", "two", "1.0"), new ComponentInfo("org.b", "one", "1.0"),
+        new ComponentInfo("org.b", "one", "1.1"), new ComponentInfo("org.b", "two", "1.0"),
+        new ComponentInfo(null, "three", "1.0"));
+
+    List<ShardedMove.Shard> shards = ShardedMove.plan(SOURCE, TAG, components, 2);
+
+    assertThat(shards.size(), is(4));
+    assertThat(shards.get(0).getDescription(), is("org.a"));
+    assertThat(shards.get(0).getSize(), is(2));
+    assertThat(shards.get(1).getSearchCriteria(),
+        is(SearchBuilder.create().withRepository(SOURCE).withTag(TAG).withGroup("org.b").withName("one").build()));
+    assertThat(shards.get(1).getSize(), is(2));
+    assertThat(shards.get(2).getDescription(), is("org.b:two"));
+    assertThat(shards.get(3).getSearchCriteria(),
+        is(SearchBuilder.create().withRepository(SOURCE).withTag(TAG).build()));
+  }
+
+  @Test
+  public void everyComponentOfTheTagIsMovedWithShardsRetried() throws Exception {
+    upload("org.a", 10, TAG);
+    upload("org.b", 60, TAG);
+    upload("org.c", 5, "build-2");
+    server.failNext(Endpoint.MOVE, 2, 500);
+
+    // more components than fit on a page of search results
+    List<ComponentInfo> components =
+        client.searchComponents(SearchBuilder.create().withRepository(SOURCE).withTag(TAG).build());
+    assertThat(components.size(), is(70));
+
+    List<ShardedMove.Shard> shards = ShardedMove.plan(SOURCE, TAG, components, 40);
+    assertThat(shards.size(), is(61));
+
+    List<ComponentInfo> moved = new ShardedMove(client, 4, SHARD_RETRIES, new SystemStreamLog())
+        .move(DESTINATION, shards);
+
+    assertThat(moved.size(), is(70));
+    assertThat(server.getComponents(DESTINATION).size(), is(70));
+    assertThat(server.getComponents(SOURCE).size(), is(5));
+    assertThat(server.getRequestCount(Endpoint.MOVE), is(63));
+    assertThat(server.getMaxConcurrentRequests(Endpoint.MOVE) <= 4, is(true));
+  }
+
+  @Test
+  public void shardsFailingEveryAttemptAreReported() throws Exception {
+    upload("org.a", 3, TAG);
+    upload("org.b", 3, TAG);
+    server.failRandomly(Endpoint.MOVE, 1.0, 500);
+
+    List<ShardedMove.Shard> shards = ShardedMove.plan(SOURCE, TAG,
+        client.searchComponents(SearchBuilder.create().withRepository(SOURCE).withTag(TAG).build()), 10);
+    try {
+      new ShardedMove(client, 2, SHARD_RETRIES.withMaxAttempts(2), new SystemStreamLog()).move(DESTINATION, shards);
+      fail("expected the move to fail");
+    }
+    catch (MojoExecutionException e) {
+      assertThat(e.getMessage().startsWith("Failed to move 2 of 2 shards"), is(true));
+      assertThat(server.getRequestCount(Endpoint.MOVE), is(4));
+    }
+  }
+
+  @Test
+  public void rejectedShardsAreNotRetried() throws Exception {
+    upload("org.a", 3, TAG);
+    server.failNext(Endpoint.MOVE, 1, 403);
+
+    List<ShardedMove.Shard> shards = ShardedMove.plan(SOURCE, TAG,
+        client.searchComponents(SearchBuilder.create().withRepository(SOURCE).withTag(TAG).build()), 10);
+    try {
+      new ShardedMove(client, 2, SHARD_RETRIES, new SystemStreamLog()).move(DESTINATION, shards);
+      fail("expected the move to fail");
+    }
+    catch (MojoExecutionException e) {
+      assertThat(e.getMessage().startsWith("Failed to move 1 of 1 shards"), is(true));
+      assertThat(server.getRequestCount(Endpoint.MOVE), is(1));
+    }
+  }
+
+  private void upload(final String group, final int count, final String tag) throws Exception {
+    for (int i = 0; i < count; i++) {
+      String artifactId = "artifact-" + i;
+      File jar = temporaryFolder.newFile(group + "-" + artifactId + "-1.0.jar");
+      Files.write(jar.toPath(), ("content of " + artifactId).getBytes(UTF_8));
+
+      DefaultComponent component = new DefaultComponent("maven2");
+      component.addAttribute("groupId", group);
+      component.addAttribute("artifactId", artifactId);
+      component.addAttribute("version", "1.0");
+      DefaultAsset asset = new DefaultAsset(artifactId + "-1.0.jar", jar);
+      asset.addAttribute("extension", "jar");
+      component.addAsset(asset);
+
+      client.upload(SOURCE, component, tag);
+    }
+  }
+}
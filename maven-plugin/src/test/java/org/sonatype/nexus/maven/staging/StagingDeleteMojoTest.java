@@ -19,6 +19,7 @@ import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
@@ -32,6 +33,8 @@ import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.Properties;
 
+import com.google.common.collect.ImmutableMap;
+
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -129,7 +132,7 @@ public class StagingDeleteMojoTest
 
     underTest.execute();
 
-    verify(client).delete(eq(TAG));
+    verify(client).delete(eq(ImmutableMap.of("tag", TAG)), any());
   }
 
   @Test
@@ -140,19 +143,19 @@ public class StagingDeleteMojoTest
 
     underTest.execute();
 
-    verify(client).delete(eq(TAG));
+    verify(client).delete(eq(ImmutableMap.of("tag", TAG)), any());
   }
 
   @Test
   public void testDelete() throws Exception {
     underTest.execute();
 
-    verify(client).delete(eq(TAG));
+    verify(client).delete(eq(ImmutableMap.of("tag", TAG)), any());
   }
 
   @Test(expected = MojoFailureException.class)
   public void mojoFailureExceptionOnDeleteFail() throws Exception {
-    doThrow(new RuntimeException()).when(client).delete(anyString());
+    doThrow(new RuntimeException()).when(client).delete(anyMap(), any());
 
     underTest.execute();
   }
@@ -236,7 +239,7 @@ public class StagingDeleteMojoTest
 
     when(settings.getServer(anyString())).thenReturn(server);
 
-    when(clientFactory.build(any())).thenReturn(client);
+    when(clientFactory.build(any(), any())).thenReturn(client);
 
   }
 
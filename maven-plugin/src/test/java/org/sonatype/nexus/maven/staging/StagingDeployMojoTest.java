@@ -17,18 +17,16 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Properties;
 
 import org.sonatype.nexus.api.common.ServerConfig;
 import org.sonatype.nexus.api.repository.v3.Asset;
+import org.sonatype.nexus.api.repository.v3.AssetInfo;
 import org.sonatype.nexus.api.repository.v3.Component;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
-import org.sonatype.nexus.api.repository.v3.Tag;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.handler.ArtifactHandler;
 import org.apache.maven.artifact.installer.ArtifactInstaller;
@@ -36,9 +34,12 @@ import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.repository.ArtifactRepositoryFactory;
 import org.apache.maven.artifact.repository.layout.ArtifactRepositoryLayout;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Server;
 import org.apache.maven.settings.Settings;
 import org.junit.After;
@@ -81,6 +82,10 @@ public class StagingDeployMojoTest
 
   private static final String TAG = "tag";
 
+  private static final String PLUGIN_GROUP_ID = "org.sonatype.plugins";
+
+  private static final String PLUGIN_ARTIFACT_ID = "nxrm3-maven-plugin";
+
   private static final String GENERATED_TAG = "generatedTag";
 
   private static final String VERSION = "1.0.0";
@@ -175,30 +180,29 @@ public class StagingDeployMojoTest
   }
 
   @Test
-  public void createTagWhenSetAndDoesNotExist() throws Exception {
-    when(client.getTag(TAG)).thenReturn(Optional.empty());
-
+  public void ensureTagWhenSet() throws Exception {
     underTest.execute();
 
-    verify(client).createTag(TAG);
+    verify(client).ensureTag(TAG);
+    verify(client, never()).getTag(anyString());
   }
 
   @Test
   public void generateTagWhenTagNotSet() throws Exception {
     underTest.setTag(null);
-    when(client.getTag(GENERATED_TAG)).thenReturn(Optional.empty());
 
     underTest.execute();
 
-    verify(client).createTag(GENERATED_TAG);
+    verify(client).ensureTag(GENERATED_TAG);
     assertThat(userProperties.getProperty("tag"), equalTo(GENERATED_TAG));
   }
 
   @Test
-  public void skipCreateTagWhenTagExists() throws Exception {
+  public void ensureTagOncePerSession() throws Exception {
+    underTest.execute();
     underTest.execute();
 
-    verify(client, never()).createTag(TAG);
+    verify(client).ensureTag(TAG);
   }
 
   @Test
@@ -218,7 +222,7 @@ public class StagingDeployMojoTest
 
     ArgumentCaptor<Component> componentArgumentCaptor = ArgumentCaptor.forClass(Component.class);
 
-    verify(client).upload(eq(REPOSITORY), componentArgumentCaptor.capture(), eq(TAG));
+    verify(client).upload(eq(REPOSITORY), componentArgumentCaptor.capture(), eq(TAG), any());
 
     Component component = componentArgumentCaptor.getValue();
 
@@ -234,7 +238,7 @@ public class StagingDeployMojoTest
     List<Asset> pomAssets = assets.stream().filter(this::isPomAsset).collect(toList());
     assertThat(pomAssets.size(), is(equalTo(1)));
     assertThat(pomAssets.get(0).getFilename(), is(equalTo(getPom().getName())));
-    assertThat(pomAssets.get(0).getData(), notNullValue());
+    assertThat(pomAssets.get(0).getFile(), is(equalTo(getPom())));
 
     // check all other assets
     for (Asset asset : assets.stream().filter(asset -> !isPomAsset(asset)).collect(toList())) {
@@ -244,6 +248,45 @@ public class StagingDeployMojoTest
     }
   }
 
+  @Test
+  public void skipExistingOnlyTagsUploadedComponent() throws Exception {
+    underTest.setSkipExisting(true);
+    when(client.searchAssets(any())).thenReturn(ImmutableList.of(
+        storedAsset(ARTIFACT_ID + "-" + VERSION + ".pom", Checksums.sha1(getPom())),
+        storedAsset(ARTIFACT_ID + "-" + VERSION + "-" + CLASSIFIER + "." + EXTENSION, Checksums.sha1(getPom()))));
+
+    underTest.execute();
+
+    verify(client, never()).upload(any(), any(), any(), any());
+    verify(client).associate(TAG, ImmutableMap.of("repository", REPOSITORY, "group", GROUP_ID, "name", ARTIFACT_ID,
+        "version", VERSION));
+  }
+
+  @Test
+  public void skipExistingUploadsComponentWhoseContentIsStoredUnderAnotherName() throws Exception {
+    underTest.setSkipExisting(true);
+    when(client.searchAssets(any())).thenReturn(ImmutableList.of(
+        storedAsset(ARTIFACT_ID + "-" + VERSION + ".pom", Checksums.sha1(getPom())),
+        storedAsset(ARTIFACT_ID + "-" + VERSION + "-sources.jar", Checksums.sha1(getPom()))));
+
+    underTest.execute();
+
+    verify(client).upload(eq(REPOSITORY), any(), eq(TAG), any());
+    verify(client, never()).associate(any(), any());
+  }
+
+  @Test
+  public void skipExistingUploadsChangedComponent() throws Exception {
+    underTest.setSkipExisting(true);
+    when(client.searchAssets(any())).thenReturn(ImmutableList.of(
+        storedAsset(ARTIFACT_ID + "-" + VERSION + ".pom", "0000000000000000000000000000000000000000")));
+
+    underTest.execute();
+
+    verify(client).upload(eq(REPOSITORY), any(), eq(TAG), any());
+    verify(client, never()).associate(any(), any());
+  }
+
   @Test
   public void deployLocally() throws Exception {
     ArtifactInstaller artifactInstaller = mock(ArtifactInstaller.class);
@@ -268,10 +311,8 @@ public class StagingDeployMojoTest
             anyBoolean());
     verify(artifactInstaller, times(3)).install(any(), any(), any());
 
-    ObjectMapper mapper = new ObjectMapper();
-
-    List<ArtifactInfo> indexData = mapper.readValue(new File(tempDirectory + "/target/nexus-staging/.index"),
-        new TypeReference<List<ArtifactInfo>>() { });
+    List<ArtifactInfo> indexData =
+        new StagingIndex(new File(tempDirectory + "/target/nexus-staging/.index")).readAll();
 
     assertNotNull(indexData);
     assertEquals(3, indexData.size());
@@ -279,7 +320,7 @@ public class StagingDeployMojoTest
 
   @Test(expected = MojoFailureException.class)
   public void mojoFailureExceptionOnUploadFail() throws Exception {
-    doThrow(new RuntimeException()).when(client).upload(any(), any(), any());
+    doThrow(new RuntimeException()).when(client).upload(any(), any(), any(), any());
 
     underTest.execute();
   }
@@ -300,7 +341,7 @@ public class StagingDeployMojoTest
 
     ArgumentCaptor<Component> componentArgumentCaptor = ArgumentCaptor.forClass(Component.class);
 
-    verify(client).upload(eq(REPOSITORY), componentArgumentCaptor.capture(), eq(TAG));
+    verify(client).upload(eq(REPOSITORY), componentArgumentCaptor.capture(), eq(TAG), any());
 
     Component component = componentArgumentCaptor.getValue();
 
@@ -342,7 +383,7 @@ public class StagingDeployMojoTest
 
     ArgumentCaptor<Component> componentArgumentCaptor = ArgumentCaptor.forClass(Component.class);
 
-    verify(client).upload(eq(REPOSITORY), componentArgumentCaptor.capture(), eq(TAG));
+    verify(client).upload(eq(REPOSITORY), componentArgumentCaptor.capture(), eq(TAG), any());
 
     Component component = componentArgumentCaptor.getValue();
 
@@ -353,6 +394,97 @@ public class StagingDeployMojoTest
     assertThat(firstAssetAttributes.size(), is(equalTo(1)));
   }
 
+  @Test
+  public void deployAtEndUploadsWhenLastModule() throws Exception {
+    underTest.setDeployAtEnd(true);
+
+    underTest.execute();
+
+    verify(client).ensureTag(TAG);
+    verify(client).upload(eq(REPOSITORY), any(), eq(TAG), any());
+  }
+
+  @Test
+  public void deployAtEndWaitsForEveryModuleWhateverTheOrder() throws Exception {
+    underTest.setDeployAtEnd(true);
+    MavenProject first = project("first", true);
+    MavenProject last = project("last", true);
+    when(session.getSortedProjects()).thenReturn(ImmutableList.of(first, project("other", false), last));
+
+    // with a multi-threaded build the last module of the reactor may be done first
+    when(session.getCurrentProject()).thenReturn(last);
+    underTest.execute();
+
+    verify(client, never()).ensureTag(anyString());
+    verify(client, never()).upload(any(), any(), any(), any());
+
+    Artifact firstModuleArtifact = mock(Artifact.class);
+    mockArtifact(firstModuleArtifact);
+    when(firstModuleArtifact.getArtifactId()).thenReturn("first");
+    underTest.setArtifact(firstModuleArtifact);
+    when(session.getCurrentProject()).thenReturn(first);
+    underTest.execute();
+
+    verify(client).ensureTag(TAG);
+    verify(client, times(2)).upload(eq(REPOSITORY), any(), eq(TAG), any());
+  }
+
+  @Test
+  public void deployAtEndUploadsEveryModuleToItsOwnRepository() throws Exception {
+    underTest.setDeployAtEnd(true);
+    MavenProject first = project("first", true);
+    MavenProject last = project("last", true);
+    when(session.getSortedProjects()).thenReturn(ImmutableList.of(first, last));
+
+    when(session.getCurrentProject()).thenReturn(first);
+    underTest.execute();
+    Artifact lastModuleArtifact = mock(Artifact.class);
+    mockArtifact(lastModuleArtifact);
+    when(lastModuleArtifact.getArtifactId()).thenReturn("last");
+    underTest.setArtifact(lastModuleArtifact);
+    underTest.setRepository("other-releases");
+    when(session.getCurrentProject()).thenReturn(last);
+    underTest.execute();
+
+    verify(client).upload(eq(REPOSITORY), any(), eq(TAG), any());
+    verify(client).upload(eq("other-releases"), any(), eq(TAG), any());
+  }
+
+  @Test
+  public void deployAtEndCountsSkippedModules() throws Exception {
+    underTest.setDeployAtEnd(true);
+    MavenProject first = project("first", true);
+    MavenProject last = project("last", true);
+    when(session.getSortedProjects()).thenReturn(ImmutableList.of(first, last));
+
+    when(session.getCurrentProject()).thenReturn(first);
+    underTest.execute();
+    underTest.setSkip(true);
+    when(session.getCurrentProject()).thenReturn(last);
+    underTest.execute();
+
+    verify(client).upload(eq(REPOSITORY), any(), eq(TAG), any());
+  }
+
+  @Test
+  public void deployAtEndNeverDeploysModulesFinishingAfterTheDeployment() throws Exception {
+    underTest.setDeployAtEnd(true);
+    MavenProject first = project("first", true);
+    when(session.getSortedProjects()).thenReturn(ImmutableList.of(first));
+    when(session.getCurrentProject()).thenReturn(first, project("late", true));
+
+    underTest.execute();
+    try {
+      underTest.execute();
+      fail("Expected MojoExecutionException");
+    }
+    catch (MojoExecutionException e) {
+      assertThat(e.getMessage(), containsString("late"));
+    }
+
+    verify(client).upload(eq(REPOSITORY), any(), eq(TAG), any());
+  }
+
   @Test
   public void skipDeploy() throws Exception {
     underTest.setSkip(true);
@@ -360,9 +492,8 @@ public class StagingDeployMojoTest
     underTest.execute();
 
     verify(artifact, never()).addMetadata(any());
-    verify(client, never()).getTag(anyString());
-    verify(client, never()).createTag(any());
-    verify(client, never()).upload(any(), any(), any());
+    verify(client, never()).ensureTag(anyString());
+    verify(client, never()).upload(any(), any(), any(), any());
   }
 
   private StagingDeployMojo lookupMojo() throws Exception {
@@ -377,14 +508,37 @@ public class StagingDeployMojoTest
     mojo.setTagGenerator(tagGenerator);
     mojo.setClientFactory(clientFactory);
     mojo.setPomFile(testPom);
+    mojo.setPlugin(PLUGIN_GROUP_ID, PLUGIN_ARTIFACT_ID);
 
     return mojo;
   }
 
+  private MavenProject project(final String artifactId, final boolean withThisPlugin) {
+    MavenProject project = new MavenProject();
+    project.setGroupId(GROUP_ID);
+    project.setArtifactId(artifactId);
+    project.setVersion(VERSION);
+    Build build = new Build();
+    build.setDirectory(tempDirectory.resolve(artifactId).resolve("target").toString());
+    if (withThisPlugin) {
+      Plugin plugin = new Plugin();
+      plugin.setGroupId(PLUGIN_GROUP_ID);
+      plugin.setArtifactId(PLUGIN_ARTIFACT_ID);
+      build.addPlugin(plugin);
+    }
+    project.setBuild(build);
+    return project;
+  }
+
   private File getPom() {
     return new File(getBasedir(), "src/test/resources/example-pom.xml");
   }
 
+  private static AssetInfo storedAsset(final String fileName, final String sha1) {
+    String path = String.join("/", GROUP_ID.replace('.', '/'), ARTIFACT_ID, VERSION, fileName);
+    return new AssetInfo(path, REPOSITORY, ImmutableMap.of("sha1", sha1));
+  }
+
   private boolean isPomAsset(final Asset asset) {
     String extension = asset.getAttributes().get("extension");
     return nonNull(extension) && extension.equals("pom");
@@ -410,9 +564,8 @@ public class StagingDeployMojoTest
 
     when(tagGenerator.generate(ARTIFACT_ID, VERSION)).thenReturn(GENERATED_TAG);
 
-    when(clientFactory.build(any())).thenReturn(client);
+    when(clientFactory.build(any(), any())).thenReturn(client);
 
-    when(client.getTag(TAG)).thenReturn(Optional.of(new Tag(TAG)));
   }
 
   private void mockArtifact(final Artifact artifact) {
@@ -0,0 +1,118 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class StagingIndexTest
+{
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void appendsOneRecordPerLine() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), ".index");
+    StagingIndex index = new StagingIndex(file);
+
+    index.append(artifactInfo("first"));
+    index.append(artifactInfo("second"));
+
+    assertThat(Files.readAllLines(file.toPath(), UTF_8).size(), is(2));
+    List<ArtifactInfo> records = index.readAll();
+    assertThat(records.size(), is(2));
+    assertThat(records.get(0).getArtifactId(), is("first"));
+    assertThat(records.get(1).getArtifactId(), is("second"));
+  }
+
+  @Test
+  public void readsAndConvertsLegacyFormat() throws Exception {
+    File file = temporaryFolder.newFile(".index");
+    Files.copy(new File("src/test/resources/example.index").toPath(), file.toPath(), REPLACE_EXISTING);
+    StagingIndex index = new StagingIndex(file);
+    int legacyRecords = index.readAll().size();
+
+    index.append(artifactInfo("appended"));
+
+    List<ArtifactInfo> records = index.readAll();
+    assertThat(records.size(), is(legacyRecords + 1));
+    assertThat(records.get(legacyRecords).getArtifactId(), is("appended"));
+    assertThat(Files.readAllLines(file.toPath(), UTF_8).size(), is(legacyRecords + 1));
+  }
+
+  @Test
+  public void concurrentAppendsAreNotLost() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), ".index");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        String artifactId = "artifact" + i;
+        // a separate instance per append, as each module has its own mojo
+        futures.add(executor.submit(() -> {
+          new StagingIndex(file).append(artifactInfo(artifactId));
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+
+    assertThat(new StagingIndex(file).readAll().size(), is(200));
+  }
+
+  @Test
+  public void ignoresIncompleteLastRecord() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), ".index");
+    StagingIndex index = new StagingIndex(file);
+    index.append(artifactInfo("first"));
+    Files.write(file.toPath(), "{\"group\":\"org.exa".getBytes(UTF_8), StandardOpenOption.APPEND);
+
+    assertThat(index.readAll().size(), is(1));
+
+    index.append(artifactInfo("second"));
+
+    List<ArtifactInfo> records = index.readAll();
+    assertThat(records.size(), is(2));
+    assertThat(records.get(1).getArtifactId(), is("second"));
+  }
+
+  private static ArtifactInfo artifactInfo(final String artifactId) {
+    ArtifactInfo artifactInfo = new ArtifactInfo();
+    artifactInfo.setGroup("org.example");
+    artifactInfo.setArtifactId(artifactId);
+    artifactInfo.setVersion("1.0");
+    artifactInfo.setTag("tag");
+    artifactInfo.setExtension("jar");
+    return artifactInfo;
+  }
+}
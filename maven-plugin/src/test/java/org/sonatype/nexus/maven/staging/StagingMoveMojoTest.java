@@ -16,6 +16,7 @@ import java.io.File;
 import java.nio.file.Path;
 import java.util.Map;
 
+import org.sonatype.nexus.api.repository.v3.ComponentInfo;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
 
 import com.google.common.collect.ImmutableMap;
@@ -32,6 +33,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static java.nio.file.Files.createTempDirectory;
+import static java.util.Arrays.asList;
 import static org.apache.commons.io.FileUtils.forceDelete;
 import static org.apache.commons.io.FileUtils.writeStringToFile;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -39,6 +41,7 @@ import static org.hamcrest.core.IsEqual.equalTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -152,7 +155,30 @@ public class StagingMoveMojoTest
     underTest.execute();
 
     Map<String, String> searchCriteria = ImmutableMap.of("repository", SOURCE_REPOSITORY, "tag", TAG);
-    verify(client).move(eq(DESTINATION_REPOSITORY), eq(searchCriteria));
+    verify(client).move(eq(DESTINATION_REPOSITORY), eq(searchCriteria), any());
+  }
+
+  @Test
+  public void testShardedMove() throws Exception {
+    underTest.setShardedMove(true, 10, 2);
+    Map<String, String> searchCriteria = ImmutableMap.of("repository", SOURCE_REPOSITORY, "tag", TAG);
+    when(client.searchComponents(searchCriteria)).thenReturn(asList(new ComponentInfo("org.a", "one", "1.0"),
+        new ComponentInfo("org.a", "two", "1.0"), new ComponentInfo("org.b", "one", "1.0")));
+
+    underTest.execute();
+
+    verify(client).move(eq(DESTINATION_REPOSITORY),
+        eq(ImmutableMap.of("repository", SOURCE_REPOSITORY, "tag", TAG, "group", "org.a")), any());
+    verify(client).move(eq(DESTINATION_REPOSITORY),
+        eq(ImmutableMap.of("repository", SOURCE_REPOSITORY, "tag", TAG, "group", "org.b")), any());
+    verify(client, never()).move(eq(DESTINATION_REPOSITORY), eq(searchCriteria), any());
+  }
+
+  @Test(expected = MojoFailureException.class)
+  public void testShardedMoveFailsWhenNoComponentsAreTagged() throws Exception {
+    underTest.setShardedMove(true, 10, 2);
+
+    underTest.execute();
   }
 
   private StagingMoveMojo lookupMojo() throws Exception {
@@ -182,7 +208,7 @@ public class StagingMoveMojoTest
 
     when(settings.getServer(anyString())).thenReturn(server);
 
-    when(clientFactory.build(any())).thenReturn(client);
+    when(clientFactory.build(any(), any())).thenReturn(client);
   }
 
   private void setupPropertiesFile(final String propertyString) throws Exception {
@@ -13,35 +13,38 @@
 package org.sonatype.nexus.maven.staging;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.Optional;
 import java.util.Properties;
 
 import org.sonatype.nexus.api.common.ServerConfig;
-import org.sonatype.nexus.api.exception.RepositoryManagerException;
 import org.sonatype.nexus.api.repository.v3.Component;
+import org.sonatype.nexus.api.repository.v3.Repository;
 import org.sonatype.nexus.api.repository.v3.RepositoryManagerV3Client;
-import org.sonatype.nexus.api.repository.v3.Tag;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.handler.DefaultArtifactHandler;
 import org.apache.maven.execution.MavenSession;
-import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
 import org.apache.maven.settings.Server;
 import org.apache.maven.settings.Settings;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static java.nio.file.Files.createTempDirectory;
+import static java.util.Collections.singletonList;
+import static org.apache.commons.io.FileUtils.copyDirectoryToDirectory;
+import static org.apache.commons.io.FileUtils.copyFileToDirectory;
 import static org.apache.commons.io.FileUtils.forceDelete;
 import static org.apache.commons.io.FileUtils.readFileToString;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -49,10 +52,12 @@ import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -78,6 +83,8 @@ public class StagingUploadMojoTest
 
   private static final String EXTENSION = "extension";
 
+  private static final String REPOSITORY = "maven-releases";
+
   @Mock
   private MavenSession session;
 
@@ -95,6 +102,9 @@ public class StagingUploadMojoTest
   @Mock
   private RepositoryManagerV3Client client;
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private Path tempDirectory;
 
   private Properties userProperties;
@@ -148,30 +158,29 @@ public class StagingUploadMojoTest
   }
 
   @Test
-  public void createTagWhenSetAndDoesNotExist() throws Exception {
-    when(client.getTag(TAG)).thenReturn(Optional.empty());
-
+  public void ensureTagWhenSet() throws Exception {
     underTest.execute();
 
-    verify(client).createTag(TAG);
+    verify(client).ensureTag(TAG);
+    verify(client, never()).getTag(anyString());
   }
 
   @Test
   public void generateTagWhenTagNotSet() throws Exception {
     underTest.setTag(null);
-    when(client.getTag(GENERATED_TAG)).thenReturn(Optional.empty());
 
     underTest.execute();
 
-    verify(client).createTag(GENERATED_TAG);
+    verify(client).ensureTag(GENERATED_TAG);
     assertThat(userProperties.getProperty("tag"), equalTo(GENERATED_TAG));
   }
 
   @Test
-  public void skipCreateTagWhenTagExists() throws Exception {
+  public void ensureTagOncePerSession() throws Exception {
+    underTest.execute();
     underTest.execute();
 
-    verify(client, never()).createTag(TAG);
+    verify(client).ensureTag(TAG);
   }
 
   @Test
@@ -208,16 +217,71 @@ public class StagingUploadMojoTest
   }
 
   @Test
-  public void uploadArtifacts() throws MojoExecutionException, MojoFailureException, RepositoryManagerException {
-    underTest.setStagingIndexFilename("example.index");
-    underTest.setAltStagingDirectory(new File(getBasedir(), "src/test/resources/"));
+  public void uploadArtifacts() throws Exception {
+    useExampleIndex();
     underTest.execute();
 
     ArgumentCaptor<Component> componentArgumentCaptor = ArgumentCaptor.forClass(Component.class);
-    verify(client).upload(any(), componentArgumentCaptor.capture(), eq(TAG));
+    verify(client).upload(any(), componentArgumentCaptor.capture(), eq(TAG), any());
     assertThat(componentArgumentCaptor.getValue().getAssets().size(), is(2));
   }
 
+  @Test
+  public void resumeSkipsComponentsUploadedByPreviousRun() throws Exception {
+    useExampleIndex();
+    underTest.execute();
+
+    underTest.setResume(true);
+    underTest.execute();
+
+    verify(client, times(1)).upload(any(), any(Component.class), eq(TAG), any());
+  }
+
+  @Test
+  public void uploadAgainWithoutResume() throws Exception {
+    useExampleIndex();
+    underTest.execute();
+    underTest.execute();
+
+    verify(client, times(2)).upload(any(), any(Component.class), eq(TAG), any());
+  }
+
+  @Test
+  public void uploadWritesReport() throws Exception {
+    useExampleIndex();
+    underTest.execute();
+
+    String report = readFileToString(underTest.getUploadReportFile("upload"), "UTF-8");
+    assertThat(report, containsString("\"goal\" : \"upload\""));
+    assertThat(report, containsString("\"uploaded\" : 1"));
+    assertThat(report, containsString("\"component\" : \"local.test:maven-test-project:1.0\""));
+  }
+
+  @Test
+  public void preflightFailsBeforeUploadingToProxyRepository() throws Exception {
+    when(client.getRepositories()).thenReturn(singletonList(new Repository(REPOSITORY, "maven2", "proxy", null)));
+    useExampleIndex();
+
+    try {
+      underTest.execute();
+      fail("expected the pre-flight check to fail");
+    }
+    catch (MojoFailureException e) {
+      assertThat(e.getMessage(), containsString("repository 'maven-releases' is a proxy repository"));
+    }
+    verify(client, never()).upload(any(), any(Component.class), any(), any());
+  }
+
+  @Test
+  public void skipPreflight() throws Exception {
+    underTest.setSkipPreflight(true);
+
+    underTest.execute();
+
+    verify(client).ensureTag(TAG);
+    verify(client, never()).getRepositories();
+  }
+
   private StagingUploadMojo lookupMojo() throws Exception {
     File testPom = getPom();
     StagingUploadMojo mojo = (StagingUploadMojo) lookupMojo("upload", testPom);
@@ -230,6 +294,18 @@ public class StagingUploadMojoTest
     return mojo;
   }
 
+  /**
+   * Uses a copy of the example index and its artifacts, so that the journal, report and properties which the mojo
+   * writes to the staging directory stay out of the source tree.
+   */
+  private void useExampleIndex() throws IOException {
+    File resources = new File(getBasedir(), "src/test/resources");
+    copyFileToDirectory(new File(resources, "example.index"), temporaryFolder.getRoot());
+    copyDirectoryToDirectory(new File(resources, "local"), temporaryFolder.getRoot());
+    underTest.setStagingIndexFilename("example.index");
+    underTest.setAltStagingDirectory(temporaryFolder.getRoot());
+  }
+
   private File getPom() {
     return new File(getBasedir(), "src/test/resources/example-pom.xml");
   }
@@ -251,8 +327,8 @@ public class StagingUploadMojoTest
 
     when(tagGenerator.generate(ARTIFACT_ID, VERSION)).thenReturn(GENERATED_TAG);
 
-    when(clientFactory.build(any())).thenReturn(client);
+    when(clientFactory.build(any(), any())).thenReturn(client);
 
-    when(client.getTag(TAG)).thenReturn(Optional.of(new Tag(TAG)));
+    when(client.getRepositories()).thenReturn(singletonList(new Repository(REPOSITORY, "maven2", "hosted", null)));
   }
 }
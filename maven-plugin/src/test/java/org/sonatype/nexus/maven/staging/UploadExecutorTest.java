@@ -0,0 +1,74 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.sonatype.nexus.maven.staging.UploadExecutor.Mode.AUTO;
+import static org.sonatype.nexus.maven.staging.UploadExecutor.Mode.PLATFORM;
+import static org.sonatype.nexus.maven.staging.UploadExecutor.Mode.VIRTUAL;
+
+public class UploadExecutorTest
+{
+  @Test
+  public void boundsUploadsInFlight() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+
+    try (UploadExecutor executor = UploadExecutor.create(AUTO, 2)) {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(() -> {
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          TimeUnit.MILLISECONDS.sleep(5);
+          inFlight.decrementAndGet();
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    }
+
+    assertThat(maxInFlight.get(), is(2));
+  }
+
+  @Test
+  public void usesVirtualThreadsOnlyWhenSupported() {
+    try (UploadExecutor auto = UploadExecutor.create(AUTO, 1);
+         UploadExecutor virtual = UploadExecutor.create(VIRTUAL, 1);
+         UploadExecutor platform = UploadExecutor.create(PLATFORM, 1)) {
+      assertThat(auto.isVirtual(), is(UploadExecutor.isVirtualThreadSupported()));
+      assertThat(virtual.isVirtual(), is(UploadExecutor.isVirtualThreadSupported()));
+      assertThat(platform.isVirtual(), is(false));
+    }
+  }
+
+  @Test
+  public void parsesMode() {
+    assertThat(UploadExecutor.Mode.parse(" Virtual "), is(VIRTUAL));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnknownMode() {
+    UploadExecutor.Mode.parse("green");
+  }
+}
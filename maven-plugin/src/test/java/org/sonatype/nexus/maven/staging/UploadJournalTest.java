@@ -0,0 +1,128 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+
+public class UploadJournalTest
+{
+  private static final String COMPONENT = "group:artifact:1.0";
+
+  private static final String NEXUS_URL = "http://localhost:8081";
+
+  private static final String REPOSITORY = "maven-releases";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void resumeKeepsCompletedComponents() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), ".index.journal");
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, false)) {
+      journal.completed(COMPONENT, "tag", "fingerprint");
+    }
+
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, true)) {
+      assertThat(journal.isCompleted(COMPONENT, "tag", "fingerprint"), is(true));
+      assertThat(journal.isCompleted(COMPONENT, "other-tag", "fingerprint"), is(false));
+      assertThat(journal.isCompleted(COMPONENT, "tag", "changed"), is(false));
+    }
+  }
+
+  @Test
+  public void resumeAgainstAnotherRepositoryOrServerUploadsEverything() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), ".index.journal");
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, false)) {
+      journal.completed(COMPONENT, "tag", "fingerprint");
+    }
+
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, "other-releases", true)) {
+      assertThat(journal.isCompleted(COMPONENT, "tag", "fingerprint"), is(false));
+      journal.completed(COMPONENT, "tag", "fingerprint");
+    }
+    try (UploadJournal journal = UploadJournal.open(file, "http://other:8081", REPOSITORY, true)) {
+      assertThat(journal.isCompleted(COMPONENT, "tag", "fingerprint"), is(false));
+    }
+
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, true)) {
+      assertThat(journal.isCompleted(COMPONENT, "tag", "fingerprint"), is(true));
+    }
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, "other-releases", true)) {
+      assertThat(journal.isCompleted(COMPONENT, "tag", "fingerprint"), is(true));
+    }
+  }
+
+  @Test
+  public void startsAfreshWithoutResume() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), ".index.journal");
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, false)) {
+      journal.completed(COMPONENT, "tag", "fingerprint");
+    }
+
+    try (UploadJournal ignored = UploadJournal.open(file, NEXUS_URL, REPOSITORY, false)) {
+      // truncates the journal
+    }
+
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, true)) {
+      assertThat(journal.isCompleted(COMPONENT, "tag", "fingerprint"), is(false));
+    }
+  }
+
+  @Test
+  public void ignoresIncompleteLastRecord() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), ".index.journal");
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, false)) {
+      journal.completed(COMPONENT, "tag", "fingerprint");
+    }
+    Files.write(file.toPath(), "fingerprint\ttag".getBytes(UTF_8), StandardOpenOption.APPEND);
+
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, true)) {
+      journal.completed("group:other:1.0", "tag", "fingerprint");
+    }
+
+    try (UploadJournal journal = UploadJournal.open(file, NEXUS_URL, REPOSITORY, true)) {
+      assertThat(journal.isCompleted(COMPONENT, "tag", "fingerprint"), is(true));
+      assertThat(journal.isCompleted("group:other:1.0", "tag", "fingerprint"), is(true));
+    }
+  }
+
+  @Test
+  public void fingerprintCoversFileSizeAndModificationTime() throws Exception {
+    File file = temporaryFolder.newFile("artifact-1.0.jar");
+    Files.write(file.toPath(), "first".getBytes(UTF_8));
+    assertThat(file.setLastModified(1_000_000_000L), is(true));
+    String first = UploadJournal.fingerprint(Collections.singletonList(file));
+
+    assertThat(UploadJournal.fingerprint(Collections.singletonList(file)), is(first));
+
+    Files.write(file.toPath(), "second".getBytes(UTF_8));
+    assertThat(file.setLastModified(1_000_000_000L), is(true));
+    String resized = UploadJournal.fingerprint(Collections.singletonList(file));
+    assertThat(resized, not(first));
+
+    assertThat(file.setLastModified(2_000_000_000L), is(true));
+    assertThat(UploadJournal.fingerprint(Collections.singletonList(file)), not(resized));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.maven.staging;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UploadStatisticsTest
+{
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final AtomicLong now = new AtomicLong();
+
+  private final UploadStatistics underTest = new UploadStatistics(now::get);
+
+  @Test
+  public void splitsLatencyAtTheEndOfTheRequest() throws Exception {
+    UploadStatistics.Upload upload = underTest.start("group:artifact:1.0");
+    advance(300);
+    upload.requestSent(2_000_000);
+    advance(100);
+    upload.finish(true);
+
+    String report = writeReport();
+    assertThat(report, containsString("\"uploaded\" : 1"));
+    assertThat(report, containsString("\"bytes\" : 2000000"));
+    assertThat(report, containsString("\"elapsedMillis\" : 400"));
+    assertThat(report, containsString("\"megabytesPerSecond\" : 5.0"));
+    assertThat(report, containsString("\"clientMillis\" : 300"));
+    assertThat(report, containsString("\"serverMillis\" : 100"));
+  }
+
+  @Test
+  public void retriedUploadIsSplitAtTheLastAttempt() throws Exception {
+    UploadStatistics.Upload upload = underTest.start("group:artifact:1.0");
+    advance(100);
+    upload.requestSent(1000);
+    advance(500);
+    upload.requestSent(1000);
+    advance(50);
+    upload.finish(true);
+
+    String report = writeReport();
+    assertThat(report, containsString("\"attempts\" : 2"));
+    assertThat(report, containsString("\"clientMillis\" : 600"));
+    assertThat(report, containsString("\"serverMillis\" : 50"));
+  }
+
+  @Test
+  public void reportsLatencyPercentilesOfSuccessfulUploads() throws Exception {
+    for (int i = 1; i <= 20; i++) {
+      UploadStatistics.Upload upload = underTest.start("group:artifact-" + i + ":1.0");
+      advance(i * 10);
+      upload.finish(true);
+    }
+    UploadStatistics.Upload failed = underTest.start("group:failed:1.0");
+    advance(10_000);
+    failed.finish(false);
+    underTest.skipped();
+
+    String report = writeReport();
+    assertThat(report, containsString("\"uploaded\" : 20"));
+    assertThat(report, containsString("\"failed\" : 1"));
+    assertThat(report, containsString("\"skipped\" : 1"));
+    assertThat(report, containsString("\"p50\" : 100"));
+    assertThat(report, containsString("\"p95\" : 190"));
+    assertThat(report, containsString("\"max\" : 200"));
+  }
+
+  @Test
+  public void logsSummary() {
+    UploadStatistics.Upload upload = underTest.start("group:artifact:1.0");
+    advance(750);
+    upload.requestSent(3_000_000);
+    advance(250);
+    upload.finish(true);
+
+    List<String> lines = new ArrayList<>();
+    underTest.logSummary(new SystemStreamLog()
+    {
+      @Override
+      public void info(final CharSequence content) {
+        lines.add(content.toString());
+      }
+    });
+
+    assertThat(lines.get(0), is("Upload summary: 1 uploaded, 0 failed, 0 skipped"));
+    assertThat(lines.get(1), containsString("3.0 MB in 1.00 s (3.00 MB/s)"));
+    assertThat(lines.get(2), containsString("p50 1000 ms, p95 1000 ms, max 1000 ms"));
+    assertThat(lines.get(3), containsString("0.75 s sending, 0.25 s waiting for the server"));
+  }
+
+  @Test
+  public void clonedSessionsShareTheStatisticsWhichAreReportedOnceWhenTheSessionEnds() {
+    // the multi-threaded builder gives every module a clone of the session, sharing its request
+    MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    AtomicInteger reports = new AtomicInteger();
+
+    UploadStatistics statistics = UploadStatistics.forSession(session(request), s -> reports.incrementAndGet());
+
+    assertThat(UploadStatistics.forSession(session(request), s -> reports.incrementAndGet()), sameInstance(statistics));
+    assertThat(reports.get(), is(0));
+
+    request.getExecutionListener().sessionEnded(null);
+
+    assertThat(reports.get(), is(1));
+  }
+
+  private static MavenSession session(final MavenExecutionRequest request) {
+    MavenSession session = mock(MavenSession.class);
+    when(session.getRequest()).thenReturn(request);
+    return session;
+  }
+
+  private void advance(final long millis) {
+    now.addAndGet(MILLISECONDS.toNanos(millis));
+  }
+
+  private String writeReport() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), "nexus-staging/upload-report.json");
+    underTest.writeReport(file, "upload");
+    return readFileToString(file, "UTF-8");
+  }
+}
@@ -0,0 +1,957 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2019-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.api.repository.v3.testing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An in-memory stand-in for the parts of the Nexus Repository Manager 3 REST API used by this plugin, for tests and
+ * benchmarks which cannot rely on a real server: the status, component upload, tag, tag association, staging move
+ * and delete, and search endpoints.
+ *
+ * Uploaded assets are not kept, only their size and checksums. The server can be slowed down by a fixed latency per
+ * request and a bandwidth shared by all request bodies, and can answer requests with injected error responses; it
+ * counts the requests and the maximum number of concurrent requests per endpoint.
+ *
+ * @since 1.0.14
+ */
+public class FakeNexusServer
+    implements AutoCloseable
+{
+  /**
+   * The REST endpoints served, used to inject errors and to read the request statistics.
+   */
+  public enum Endpoint
+  {
+    STATUS, COMPONENTS, TAGS, ASSOCIATE, MOVE, DELETE, SEARCH
+  }
+
+  private static final String BASE_PATH = "/service/rest";
+
+  private static final int PAGE_SIZE = 50;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The in flight counter of the request being handled by the current thread, until its response starts.
+   */
+  private static final ThreadLocal<AtomicInteger> IN_FLIGHT = new ThreadLocal<>();
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final HttpServer server;
+
+  private final ExecutorService executor;
+
+  private final Map<String, StoredComponent> components = new LinkedHashMap<>();
+
+  private final Map<String, Map<String, Object>> tags = new LinkedHashMap<>();
+
+  private final List<Fault> faults = new CopyOnWriteArrayList<>();
+
+  private final Map<Endpoint, AtomicInteger> requests = new EnumMap<>(Endpoint.class);
+
+  private final Map<Endpoint, AtomicInteger> inFlight = new EnumMap<>(Endpoint.class);
+
+  private final Map<Endpoint, AtomicInteger> maxInFlight = new EnumMap<>(Endpoint.class);
+
+  private final AtomicLong bytesReceived = new AtomicLong();
+
+  private final Map<String, AtomicInteger> uploads = new ConcurrentHashMap<>();
+
+  private volatile String version = "3.70.0-01";
+
+  private volatile long latencyMillis;
+
+  private volatile long bytesPerSecond;
+
+  private volatile int retryAfterSeconds = -1;
+
+  private volatile String authorization;
+
+  private final Object bandwidthLock = new Object();
+
+  private long bandwidthAvailableAt;
+
+  private FakeNexusServer(final HttpServer server, final ExecutorService executor) {
+    this.server = server;
+    this.executor = executor;
+    for (Endpoint endpoint : Endpoint.values()) {
+      requests.put(endpoint, new AtomicInteger());
+      inFlight.put(endpoint, new AtomicInteger());
+      maxInFlight.put(endpoint, new AtomicInteger());
+    }
+  }
+
+  /**
+   * Starts a server on an ephemeral port of the loopback interface, handling every request on its own thread.
+   */
+  public static FakeNexusServer start() throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "fake-nexus");
+      thread.setDaemon(true);
+      return thread;
+    });
+    FakeNexusServer fake = new FakeNexusServer(server, executor);
+    server.createContext("/", fake::handle);
+    server.setExecutor(executor);
+    server.start();
+    return fake;
+  }
+
+  /**
+   * The base address of the server, as configured for the plugin ({@code nexusUrl}).
+   */
+  public URI getUri() {
+    return URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Sets the version reported by the status endpoint.
+   */
+  public FakeNexusServer withVersion(final String version) {
+    this.version = version;
+    return this;
+  }
+
+  /**
+   * Delays every response, after the request body has been read, by the given time.
+   */
+  public FakeNexusServer withLatency(final long millis) {
+    this.latencyMillis = millis;
+    return this;
+  }
+
+  /**
+   * Limits the rate at which request bodies are read, shared by all requests like a network link; {@code 0} removes
+   * the limit.
+   */
+  public FakeNexusServer withBandwidth(final long bytesPerSecond) {
+    this.bytesPerSecond = bytesPerSecond;
+    return this;
+  }
+
+  /**
+   * Adds a {@code Retry-After} header with the given number of seconds to injected {@code 429} and {@code 503}
+   * responses.
+   */
+  public FakeNexusServer withRetryAfter(final int seconds) {
+    this.retryAfterSeconds = seconds;
+    return this;
+  }
+
+  /**
+   * Requires preemptive basic authentication with the given credentials, answering other requests with {@code 401}.
+   */
+  public FakeNexusServer withCredentials(final String username, final String password) {
+    this.authorization = "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(UTF_8));
+    return this;
+  }
+
+  /**
+   * Answers the next {@code count} requests to the endpoint with the given status instead of handling them.
+   */
+  public FakeNexusServer failNext(final Endpoint endpoint, final int count, final int status) {
+    faults.add(new Fault(endpoint, status, 0, count));
+    return this;
+  }
+
+  /**
+   * Answers a random share of the requests to the endpoint with the given status instead of handling them.
+   */
+  public FakeNexusServer failRandomly(final Endpoint endpoint, final double rate, final int status) {
+    faults.add(new Fault(endpoint, status, rate, -1));
+    return this;
+  }
+
+  public FakeNexusServer clearFaults() {
+    faults.clear();
+    return this;
+  }
+
+  /**
+   * Adds a tag, as if it had been created through the REST API.
+   */
+  public synchronized FakeNexusServer withTag(final String name) {
+    tags.put(name, Collections.emptyMap());
+    return this;
+  }
+
+  public synchronized List<StoredComponent> getComponents() {
+    return new ArrayList<>(components.values());
+  }
+
+  public synchronized List<StoredComponent> getComponents(final String repository) {
+    return components.values().stream().filter(component -> component.repository.equals(repository))
+        .collect(Collectors.toList());
+  }
+
+  public synchronized Set<String> getTags() {
+    return new LinkedHashSet<>(tags.keySet());
+  }
+
+  /**
+   * The number of requests to the endpoint, including requests answered with an injected error.
+   */
+  public int getRequestCount(final Endpoint endpoint) {
+    return requests.get(endpoint).get();
+  }
+
+  /**
+   * The maximum number of requests to the endpoint which were handled at the same time.
+   */
+  public int getMaxConcurrentRequests(final Endpoint endpoint) {
+    return maxInFlight.get(endpoint).get();
+  }
+
+  /**
+   * The number of successful uploads of the component, which exceeds one if it was uploaded again.
+   */
+  public int getUploadCount(final String repository, final String group, final String name, final String version) {
+    AtomicInteger count = uploads.get(key(repository, group, name, version));
+    return count == null ? 0 : count.get();
+  }
+
+  /**
+   * The number of request body bytes read by the server.
+   */
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    Endpoint endpoint = endpoint(exchange.getRequestMethod(), path);
+    if (endpoint == null) {
+      drain(exchange);
+      respond(exchange, 404, "Not found: " + path);
+      return;
+    }
+
+    requests.get(endpoint).incrementAndGet();
+    int concurrent = inFlight.get(endpoint).incrementAndGet();
+    maxInFlight.get(endpoint).accumulateAndGet(concurrent, Math::max);
+    IN_FLIGHT.set(inFlight.get(endpoint));
+    try {
+      byte[] body = drain(exchange);
+      sleep(latencyMillis);
+
+      Fault fault = fault(endpoint);
+      if (fault != null) {
+        if (retryAfterSeconds >= 0 && (fault.status == 429 || fault.status == 503)) {
+          exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+        }
+        respond(exchange, fault.status, "Injected failure");
+        return;
+      }
+      if (authorization != null && !authorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+        respond(exchange, 401, "Unauthorized");
+        return;
+      }
+
+      Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+      String resource = path.substring(BASE_PATH.length());
+      switch (endpoint) {
+        case STATUS:
+          respond(exchange, 200, "application/xml",
+              "<status><edition>OSS</edition><version>" + version + "</version></status>");
+          break;
+        case COMPONENTS:
+          upload(exchange, query, body);
+          break;
+        case TAGS:
+          tag(exchange, resource, body);
+          break;
+        case ASSOCIATE:
+          associate(exchange, lastSegment(resource), query, "POST".equals(exchange.getRequestMethod()));
+          break;
+        case MOVE:
+          move(exchange, lastSegment(resource), query);
+          break;
+        case DELETE:
+          delete(exchange, query);
+          break;
+        case SEARCH:
+          search(exchange, query, resource.endsWith("/assets"));
+          break;
+        default:
+          respond(exchange, 404, "Not found: " + path);
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      respond(exchange, 500, String.valueOf(e));
+    }
+    finally {
+      responded();
+    }
+  }
+
+  private static Endpoint endpoint(final String method, final String path) {
+    if (!path.startsWith(BASE_PATH + "/")) {
+      return null;
+    }
+    String resource = path.substring(BASE_PATH.length());
+    if (resource.equals("/wonderland/status") && method.equals("GET")) {
+      return Endpoint.STATUS;
+    }
+    if (resource.equals("/v1/components") && method.equals("POST")) {
+      return Endpoint.COMPONENTS;
+    }
+    if (resource.startsWith("/v1/tags/associate/") && (method.equals("POST") || method.equals("DELETE"))) {
+      return Endpoint.ASSOCIATE;
+    }
+    if ((resource.equals("/v1/tags") && method.equals("POST"))
+        || (resource.startsWith("/v1/tags/") && method.equals("GET"))) {
+      return Endpoint.TAGS;
+    }
+    if (resource.startsWith("/v1/staging/move/") && method.equals("POST")) {
+      return Endpoint.MOVE;
+    }
+    if (resource.equals("/v1/staging/delete") && method.equals("POST")) {
+      return Endpoint.DELETE;
+    }
+    if ((resource.equals("/v1/search") || resource.equals("/v1/search/assets")) && method.equals("GET")) {
+      return Endpoint.SEARCH;
+    }
+    return null;
+  }
+
+  private Fault fault(final Endpoint endpoint) {
+    for (Fault fault : faults) {
+      if (fault.endpoint == endpoint && fault.fires()) {
+        return fault;
+      }
+    }
+    return null;
+  }
+
+  private void upload(final HttpExchange exchange, final Map<String, String> query, final byte[] body)
+      throws IOException
+  {
+    String repository = query.get("repository");
+    String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+    if (repository == null || contentType == null || !contentType.contains("boundary=")) {
+      respond(exchange, 400, "Repository and multipart form are required");
+      return;
+    }
+
+    Map<String, String> fields = new LinkedHashMap<>();
+    Map<String, StoredAsset> files = new LinkedHashMap<>();
+    for (Part part : Part.parse(body, boundary(contentType))) {
+      if (part.filename == null) {
+        fields.put(part.name, new String(body, part.offset, part.length, UTF_8));
+      }
+      else {
+        files.put(part.name, new StoredAsset(null, part.length, digest("SHA-1", body, part.offset, part.length),
+            digest("MD5", body, part.offset, part.length)));
+      }
+    }
+
+    String group = fields.get("maven2.groupId");
+    String name = fields.get("maven2.artifactId");
+    String version = fields.get("maven2.version");
+    String tag = fields.get("maven2.tag");
+    if (group == null || name == null || version == null || files.isEmpty()) {
+      respond(exchange, 400, "A maven2 component with group, name, version and at least one asset is required");
+      return;
+    }
+
+    synchronized (this) {
+      if (tag != null && !tags.containsKey(tag)) {
+        respond(exchange, 404, "Tag " + tag + " not found");
+        return;
+      }
+      StoredComponent component = components.computeIfAbsent(key(repository, group, name, version),
+          key -> new StoredComponent(repository, group, name, version));
+      for (Entry<String, StoredAsset> file : files.entrySet()) {
+        String prefix = "maven2." + file.getKey() + ".";
+        String classifier = fields.get(prefix + "classifier");
+        String extension = fields.getOrDefault(prefix + "extension", "jar");
+        String path = group.replace('.', '/') + "/" + name + "/" + version + "/" + name + "-" + version
+            + (classifier == null || classifier.isEmpty() ? "" : "-" + classifier) + "." + extension;
+        StoredAsset asset = file.getValue();
+        component.assets.put(path, new StoredAsset(path, asset.size, asset.sha1, asset.md5));
+      }
+      if (tag != null) {
+        component.tags.add(tag);
+      }
+    }
+    uploads.computeIfAbsent(key(repository, group, name, version), key -> new AtomicInteger()).incrementAndGet();
+    respond(exchange, 204, null);
+  }
+
+  private void tag(final HttpExchange exchange, final String resource, final byte[] body) throws IOException {
+    if ("GET".equals(exchange.getRequestMethod())) {
+      String name = lastSegment(resource);
+      Map<String, Object> attributes;
+      synchronized (this) {
+        attributes = tags.get(name);
+      }
+      if (attributes == null) {
+        respond(exchange, 404, "Tag " + name + " not found");
+      }
+      else {
+        respondJson(exchange, 200, tagJson(name, attributes));
+      }
+      return;
+    }
+
+    Map<?, ?> request = MAPPER.readValue(body, Map.class);
+    Object name = request.get("name");
+    if (!(name instanceof String) || ((String) name).isEmpty()) {
+      respond(exchange, 400, "Tag name is required");
+      return;
+    }
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    if (request.get("attributes") instanceof Map) {
+      ((Map<?, ?>) request.get("attributes")).forEach((key, value) -> attributes.put(String.valueOf(key), value));
+    }
+    synchronized (this) {
+      if (tags.containsKey(name)) {
+        respond(exchange, 400, "Tag " + name + " already exists");
+        return;
+      }
+      tags.put((String) name, attributes);
+    }
+    respondJson(exchange, 200, tagJson((String) name, attributes));
+  }
+
+  private void associate(
+      final HttpExchange exchange,
+      final String tag,
+      final Map<String, String> query,
+      final boolean associate) throws IOException
+  {
+    List<Map<String, Object>> changed = new ArrayList<>();
+    synchronized (this) {
+      if (!tags.containsKey(tag)) {
+        respond(exchange, 404, "Tag " + tag + " not found");
+        return;
+      }
+      for (StoredComponent component : matching(query)) {
+        if (associate ? component.tags.add(tag) : component.tags.remove(tag)) {
+          changed.add(component.toInfo());
+        }
+      }
+    }
+    respondJson(exchange, 200, result(associate ? "Association successful" : "Disassociation successful",
+        associate ? "components associated" : "components disassociated", changed, null));
+  }
+
+  private void move(final HttpExchange exchange, final String destination, final Map<String, String> query)
+      throws IOException
+  {
+    List<Map<String, Object>> moved = new ArrayList<>();
+    synchronized (this) {
+      List<StoredComponent> matches = matching(query);
+      if (matches.isEmpty()) {
+        respond(exchange, 404, "No components found");
+        return;
+      }
+      for (StoredComponent component : matches) {
+        components.remove(key(component.repository, component.group, component.name, component.version));
+        component.repository = destination;
+        components.put(key(destination, component.group, component.name, component.version), component);
+        moved.add(component.toInfo());
+      }
+    }
+    respondJson(exchange, 200, result("Move Successful", "components moved", moved, destination));
+  }
+
+  private void delete(final HttpExchange exchange, final Map<String, String> query) throws IOException {
+    List<Map<String, Object>> deleted = new ArrayList<>();
+    synchronized (this) {
+      List<StoredComponent> matches = matching(query);
+      if (matches.isEmpty()) {
+        respond(exchange, 404, "No components found");
+        return;
+      }
+      for (StoredComponent component : matches) {
+        components.remove(key(component.repository, component.group, component.name, component.version));
+        deleted.add(component.toInfo());
+      }
+    }
+    respondJson(exchange, 200, result("Delete Successful", "components deleted", deleted, null));
+  }
+
+  private void search(final HttpExchange exchange, final Map<String, String> query, final boolean assets)
+      throws IOException
+  {
+    List<Map<String, Object>> items = new ArrayList<>();
+    synchronized (this) {
+      for (StoredComponent component : matching(query)) {
+        if (assets) {
+          component.assets.values().forEach(asset -> items.add(asset.toItem(component.repository)));
+        }
+        else {
+          items.add(component.toItem());
+        }
+      }
+    }
+
+    int offset = query.containsKey("continuationToken") ? Integer.parseInt(query.get("continuationToken")) : 0;
+    int end = Math.min(offset + PAGE_SIZE, items.size());
+    Map<String, Object> page = new LinkedHashMap<>();
+    page.put("items", items.subList(Math.min(offset, end), end));
+    page.put("continuationToken", end < items.size() ? String.valueOf(end) : null);
+    respondJson(exchange, 200, page);
+  }
+
+  /**
+   * The components matching the search parameters; a value ending with {@code *} matches as a prefix.
+   */
+  private List<StoredComponent> matching(final Map<String, String> query) {
+    List<StoredComponent> matches = new ArrayList<>();
+    for (StoredComponent component : components.values()) {
+      if (matches(query.get("repository"), component.repository)
+          && matches(query.get("group"), component.group)
+          && matches(query.get("name"), component.name)
+          && matches(query.get("version"), component.version)
+          && (query.get("format") == null || query.get("format").equals("maven2"))
+          && (query.get("tag") == null || component.tags.contains(query.get("tag")))) {
+        matches.add(component);
+      }
+    }
+    return matches;
+  }
+
+  private static boolean matches(final String expected, final String actual) {
+    if (expected == null) {
+      return true;
+    }
+    if (expected.endsWith("*")) {
+      return actual != null && actual.startsWith(expected.substring(0, expected.length() - 1));
+    }
+    return expected.equals(actual);
+  }
+
+  private static Map<String, Object> result(
+      final String message,
+      final String key,
+      final List<Map<String, Object>> components,
+      final String destination)
+  {
+    Map<String, Object> data = new LinkedHashMap<>();
+    if (destination != null) {
+      data.put("destination", destination);
+    }
+    data.put(key, components);
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("status", 200);
+    result.put("message", message);
+    result.put("data", data);
+    return result;
+  }
+
+  private static Map<String, Object> tagJson(final String name, final Map<String, Object> attributes) {
+    Map<String, Object> tag = new LinkedHashMap<>();
+    tag.put("name", name);
+    tag.put("attributes", attributes);
+    return tag;
+  }
+
+  /**
+   * Reads the whole request body, at the configured bandwidth.
+   */
+  private byte[] drain(final HttpExchange exchange) throws IOException {
+    try (InputStream in = exchange.getRequestBody()) {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        throttle(read);
+        body.write(buffer, 0, read);
+        bytesReceived.addAndGet(read);
+      }
+      return body.toByteArray();
+    }
+  }
+
+  /**
+   * Waits until the shared link has transferred the given number of bytes.
+   */
+  private void throttle(final int bytes) {
+    long rate = bytesPerSecond;
+    if (rate <= 0) {
+      return;
+    }
+    long transferNanos = TimeUnit.SECONDS.toNanos(bytes) / rate;
+    long doneAt;
+    synchronized (bandwidthLock) {
+      doneAt = Math.max(bandwidthAvailableAt, System.nanoTime()) + transferNanos;
+      bandwidthAvailableAt = doneAt;
+    }
+    long waitNanos = doneAt - System.nanoTime();
+    if (waitNanos > 0) {
+      sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+  }
+
+  private static void sleep(final long millis) {
+    if (millis <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(millis);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void respondJson(final HttpExchange exchange, final int status, final Object body)
+      throws IOException
+  {
+    respond(exchange, status, "application/json", MAPPER.writeValueAsString(body));
+  }
+
+  private static void respond(final HttpExchange exchange, final int status, final String message)
+      throws IOException
+  {
+    respond(exchange, status, "text/plain", message);
+  }
+
+  /**
+   * Stops counting the request as in flight once its response starts, as the client may send the next request as soon
+   * as it has the response.
+   */
+  private static void responded() {
+    AtomicInteger counter = IN_FLIGHT.get();
+    if (counter != null) {
+      IN_FLIGHT.remove();
+      counter.decrementAndGet();
+    }
+  }
+
+  private static void respond(
+      final HttpExchange exchange,
+      final int status,
+      final String contentType,
+      final String body) throws IOException
+  {
+    responded();
+    if (body == null) {
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+      return;
+    }
+    byte[] bytes = body.getBytes(UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private static Map<String, String> parseQuery(final String rawQuery) {
+    Map<String, String> query = new LinkedHashMap<>();
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return query;
+    }
+    for (String pair : rawQuery.split("&")) {
+      int equals = pair.indexOf('=');
+      String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), UTF_8);
+      String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), UTF_8);
+      query.put(name, value);
+    }
+    return query;
+  }
+
+  private static String boundary(final String contentType) {
+    String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+    int end = boundary.indexOf(';');
+    boundary = end < 0 ? boundary : boundary.substring(0, end);
+    return boundary.startsWith("\"") ? boundary.substring(1, boundary.length() - 1) : boundary.trim();
+  }
+
+  private static String lastSegment(final String resource) {
+    return URLDecoder.decode(resource.substring(resource.lastIndexOf('/') + 1), UTF_8);
+  }
+
+  private static String key(final String repository, final String group, final String name, final String version) {
+    return String.join(":", repository, group, name, version);
+  }
+
+  private static String digest(final String algorithm, final byte[] data, final int offset, final int length) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(algorithm);
+      digest.update(data, offset, length);
+      return HexFormat.of().formatHex(digest.digest());
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * A component held by the server.
+   */
+  public static final class StoredComponent
+  {
+    private volatile String repository;
+
+    private final String group;
+
+    private final String name;
+
+    private final String version;
+
+    private final Map<String, StoredAsset> assets = new ConcurrentHashMap<>();
+
+    private final Set<String> tags = ConcurrentHashMap.newKeySet();
+
+    private StoredComponent(final String repository, final String group, final String name, final String version) {
+      this.repository = repository;
+      this.group = group;
+      this.name = name;
+      this.version = version;
+    }
+
+    public String getRepository() {
+      return repository;
+    }
+
+    public String getGroup() {
+      return group;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getVersion() {
+      return version;
+    }
+
+    public List<StoredAsset> getAssets() {
+      return new ArrayList<>(assets.values());
+    }
+
+    public Set<String> getTags() {
+      return new LinkedHashSet<>(tags);
+    }
+
+    private Map<String, Object> toInfo() {
+      Map<String, Object> info = new LinkedHashMap<>();
+      info.put("group", group);
+      info.put("name", name);
+      info.put("version", version);
+      return info;
+    }
+
+    private Map<String, Object> toItem() {
+      Map<String, Object> item = new LinkedHashMap<>();
+      item.put("id", Base64.getUrlEncoder().encodeToString(key(repository, group, name, version).getBytes(UTF_8)));
+      item.put("repository", repository);
+      item.put("format", "maven2");
+      item.putAll(toInfo());
+      List<Map<String, Object>> assetItems = new ArrayList<>();
+      assets.values().forEach(asset -> assetItems.add(asset.toItem(repository)));
+      item.put("assets", assetItems);
+      item.put("tags", new ArrayList<>(tags));
+      return item;
+    }
+
+    @Override
+    public String toString() {
+      return key(repository, group, name, version) + " " + tags;
+    }
+  }
+
+  /**
+   * An asset held by the server; only its size and checksums are kept.
+   */
+  public static final class StoredAsset
+  {
+    private final String path;
+
+    private final long size;
+
+    private final String sha1;
+
+    private final String md5;
+
+    private StoredAsset(final String path, final long size, final String sha1, final String md5) {
+      this.path = path;
+      this.size = size;
+      this.sha1 = sha1;
+      this.md5 = md5;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public String getSha1() {
+      return sha1;
+    }
+
+    private Map<String, Object> toItem(final String repository) {
+      Map<String, Object> checksum = new LinkedHashMap<>();
+      checksum.put("sha1", sha1);
+      checksum.put("md5", md5);
+      Map<String, Object> item = new LinkedHashMap<>();
+      item.put("path", path);
+      item.put("repository", repository);
+      item.put("format", "maven2");
+      item.put("checksum", checksum);
+      return item;
+    }
+  }
+
+  private static final class Fault
+  {
+    private final Endpoint endpoint;
+
+    private final int status;
+
+    private final double rate;
+
+    private final AtomicInteger remaining;
+
+    private Fault(final Endpoint endpoint, final int status, final double rate, final int count) {
+      this.endpoint = endpoint;
+      this.status = status;
+      this.rate = rate;
+      this.remaining = new AtomicInteger(count);
+    }
+
+    private boolean fires() {
+      if (remaining.get() < 0) {
+        return ThreadLocalRandom.current().nextDouble() < rate;
+      }
+      return remaining.getAndUpdate(left -> Math.max(left - 1, 0)) > 0;
+    }
+  }
+
+  /**
+   * A part of a multipart form, located within the request body.
+   */
+  private static final class Part
+  {
+    private final String name;
+
+    private final String filename;
+
+    private final int offset;
+
+    private final int length;
+
+    private Part(final String name, final String filename, final int offset, final int length) {
+      this.name = name;
+      this.filename = filename;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    private static List<Part> parse(final byte[] body, final String boundary) throws IOException {
+      byte[] delimiter = ("--" + boundary).getBytes(ISO_8859_1);
+      byte[] separator = ("\r\n--" + boundary).getBytes(ISO_8859_1);
+      byte[] headersEnd = "\r\n\r\n".getBytes(ISO_8859_1);
+
+      List<Part> parts = new ArrayList<>();
+      int position = indexOf(body, delimiter, 0);
+      if (position < 0) {
+        throw new IOException("Malformed multipart form");
+      }
+      position += delimiter.length;
+      while (position + 1 < body.length && !(body[position] == '-' && body[position + 1] == '-')) {
+        int headersStart = position + 2;
+        int contentStart = indexOf(body, headersEnd, headersStart);
+        int contentEnd = contentStart < 0 ? -1 : indexOf(body, separator, contentStart + headersEnd.length);
+        if (contentEnd < 0) {
+          throw new IOException("Malformed multipart form");
+        }
+        String headers = new String(body, headersStart, contentStart - headersStart, UTF_8);
+        String disposition = headers.lines()
+            .filter(line -> line.regionMatches(true, 0, "Content-Disposition:", 0, 20))
+            .findFirst()
+            .orElseThrow(() -> new IOException("Multipart part without Content-Disposition"));
+        contentStart += headersEnd.length;
+        parts.add(new Part(parameter(disposition, "name"), parameter(disposition, "filename"), contentStart,
+            contentEnd - contentStart));
+        position = contentEnd + separator.length;
+      }
+      return parts;
+    }
+
+    private static String parameter(final String disposition, final String name) {
+      String marker = "; " + name + "=\"";
+      int start = disposition.indexOf(marker);
+      if (start < 0) {
+        return null;
+      }
+      start += marker.length();
+      return disposition.substring(start, disposition.indexOf('"', start));
+    }
+
+    private static int indexOf(final byte[] data, final byte[] pattern, final int from) {
+      outer:
+      for (int i = from; i <= data.length - pattern.length; i++) {
+        for (int j = 0; j < pattern.length; j++) {
+          if (data[i + j] != pattern[j]) {
+            continue outer;
+          }
+        }
+        return i;
+      }
+      return -1;
+    }
+  }
+}